@@ -4,6 +4,7 @@ package model;
  * Review the javadoc for TreeSet to understand how a TreeSet is
  * maintained, including when an operation would try to add a duplicate.
  */
+import java.util.TreeMap;
 import java.util.TreeSet;
 import model.interfaces.FullInformation;
 
@@ -11,6 +12,22 @@ public class CommunicationHub implements FullInformation {
 
 	private TreeSet<User> registeredUsers;
 
+	/*
+	 * The same Users keyed by the packed digits of their phone number, so a number
+	 * is found without walking the set; every registered number is well formed
+	 * and therefore packed.
+	 */
+	private TreeMap<Long, User> usersByPhone;
+
+	/* the same Users keyed by their phone digits reversed, for postfix searches */
+	private TreeMap<Long, User> usersByReversedPhone;
+
+	/* the trigrams of every registered number, for substring searches */
+	private PhoneGramIndex phoneGrams;
+
+	/* the full names of the same Users, kept current as they are renamed */
+	private NameIndex names;
+
 	/*
 	 * The set of Users will be ordered by the natural ordering for Users, i.e.,
 	 * PhoneNumber; it uses the Comparable interface for imposing a natural ordering
@@ -18,6 +35,10 @@ public class CommunicationHub implements FullInformation {
 	 */
 	public CommunicationHub() {
 		registeredUsers = new TreeSet<User>();
+		usersByPhone = new TreeMap<Long, User>();
+		usersByReversedPhone = new TreeMap<Long, User>();
+		phoneGrams = new PhoneGramIndex();
+		names = new NameIndex();
 	}
 
 	/*
@@ -25,38 +46,39 @@ public class CommunicationHub implements FullInformation {
 	 * i.e., cause a value of false to be returned.
 	 */
 	public boolean register(String firstname, String lastname, String phoneNumber) {
-		if (PhoneNumber.isValid(phoneNumber) && firstname != null && lastname != null)
-			return registeredUsers.add(new User(firstname, lastname, phoneNumber));
-		return false;
+		if (!PhoneNumber.isValid(phoneNumber) || firstname == null || lastname == null)
+			return false;
+		User user = new User(firstname, lastname, phoneNumber);
+		if (!registeredUsers.add(user))
+			return false;
+		PhoneNumber number = user.getPhoneNumber();
+		usersByPhone.put(number.getKey(), user);
+		usersByReversedPhone.put(number.getReversedKey(), user);
+		phoneGrams.add(number.getKey(), number.toString());
+		names.add(user);
+		user.setRegisteredWith(this);
+		return true;
 	}
 
-	/* TO DO */
 	public TreeSet<User> findUser(String name) {
-		TreeSet<User> Users = new TreeSet<User>();
-		if (name == null || name.isEmpty()) return Users;
-		for (User w : registeredUsers){
-			if (w.getFullName().equals(name)){
-				Users.add(w);
-			}
-		}
-			return Users;
+		if (name == null || name.isEmpty()) return new TreeSet<User>();
+		return names.withName(name);
 	}
 
 	/* TO DO */
 	public User findUser(PhoneNumber phoneNumber) {
 		if (phoneNumber == null) return null;
-		for (User w : registeredUsers){
-			if (w.getPhoneNumber().compareTo(phoneNumber) == 0){
-				return w;
-			}
-		}
-		return null;
+		return usersByPhone.get(phoneNumber.getKey());
 	}
 
-	/* TO DO */
+	/*
+	 * a substring too short to have a trigram is looked for in every name, as
+	 * with phone substrings.
+	 */
 	public TreeSet<User> findUsersWithNameSubString(String nameSubstring) {
 		TreeSet<User> Users = new TreeSet<User>();
 		if (nameSubstring == null || nameSubstring.isEmpty()) return Users;
+		if (nameSubstring.length() >= 3) return names.containing(nameSubstring);
 		for (User w : registeredUsers){
 			if (w.getFullName().contains(nameSubstring)){
 				Users.add(w);
@@ -65,35 +87,58 @@ public class CommunicationHub implements FullInformation {
 		return Users;
 	}
 
-	/* TO DO */
 	public TreeSet<User> findUserWithPhonePrefix(String prefix) {
+		return findUserWithPhonePrefix(prefix, Integer.MAX_VALUE);
+	}
+
+	/*
+	 * the numbers starting with a prefix form one range of packed keys, which is
+	 * read in phone order until limit Users have been found.
+	 */
+	public TreeSet<User> findUserWithPhonePrefix(String prefix, int limit) {
 		TreeSet<User> Users = new TreeSet<User>();
-		if (prefix == null || prefix.isEmpty()) return Users;
-		for (User w : registeredUsers) {
-			if (w.getPhoneNumber().toString().startsWith(prefix)) {
-				Users.add(w);
-			}
+		if (prefix == null || prefix.isEmpty() || limit <= 0) return Users;
+		long[] range = PhoneNumber.prefixRange(prefix);
+		if (range == null) return Users;
+		for (User w : usersByPhone.subMap(range[0], range[1]).values()) {
+			Users.add(w);
+			if (Users.size() == limit) break;
 		}
 		return Users;
 	}
 
-	/* TO DO */
+	/*
+	 * read backwards, the numbers ending with a postfix start with it, so they form
+	 * one range of reversed keys.
+	 */
 	public TreeSet<User> findUserWithPhonePostfix(String postfix) {
 		TreeSet<User> Users = new TreeSet<User>();
 		if (postfix == null || postfix.isEmpty()) return Users;
-		for (User w : registeredUsers) {
-			if (w.getPhoneNumber().toString().endsWith(postfix)) {
-				Users.add(w);
-			}
-		}
+		long[] range = PhoneNumber.postfixRange(postfix);
+		if (range == null) return Users;
+		Users.addAll(usersByReversedPhone.subMap(range[0], range[1]).values());
 		return Users;
 	}
 
-	/* TO DO */
+	/*
+	 * only the numbers sharing every trigram of the substring are checked; a
+	 * substring that is too short to have a trigram, or too common, matches so
+	 * many numbers that reading all of them costs no more than the answer.
+	 */
 	public TreeSet<User> findUserWithPhoneSubString(String phoneSubString) {
 		TreeSet<User> Users = new TreeSet<User>();
 		if (phoneSubString == null || phoneSubString.isEmpty()) return Users;
-		for (User w : registeredUsers) {
+		long[] candidates = phoneGrams.candidates(phoneSubString);
+		if (candidates == null) {
+			for (User w : usersByPhone.values()) {
+				if (w.getPhoneNumber().toString().contains(phoneSubString)) {
+					Users.add(w);
+				}
+			}
+			return Users;
+		}
+		for (long key : candidates) {
+			User w = usersByPhone.get(key);
 			if (w.getPhoneNumber().toString().contains(phoneSubString)) {
 				Users.add(w);
 			}
@@ -101,6 +146,12 @@ public class CommunicationHub implements FullInformation {
 		return Users;
 	}
 
+	/* called by a registered User whose full name has changed */
+	void renamed(User user, String oldFullName) {
+		names.remove(user, oldFullName);
+		names.add(user);
+	}
+
 	@Override
 	public String getFullInformation() {
 		String str = "Number of Users: " + registeredUsers.size() + "\n";
@@ -0,0 +1,68 @@
+package model;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.TreeSet;
+
+/*
+ * The full names of the registered Users, for name searches that do not read
+ * every User. Each name is kept under the name itself, for exact matches, and
+ * under each of its three-character substrings (trigrams), for substring
+ * matches. A substring query reads only the Users holding its rarest trigram
+ * and checks their names, so it never touches a User that shares nothing with
+ * the query.
+ *
+ * Names change, so the index is told the old name of a renamed User and moves
+ * it; see User.setFirstname and User.setLastname.
+ */
+class NameIndex {
+	private final HashMap<String, TreeSet<User>> usersByName = new HashMap<String, TreeSet<User>>();
+	private final HashMap<Long, HashSet<User>> usersByGram = new HashMap<Long, HashSet<User>>();
+
+	void add(User user) {
+		String name = user.getFullName();
+		usersByName.computeIfAbsent(name, n -> new TreeSet<User>()).add(user);
+		for (int i = 0; i + 3 <= name.length(); i++)
+			usersByGram.computeIfAbsent(gram(name, i), g -> new HashSet<User>()).add(user);
+	}
+
+	/* removes a User filed under a name it may no longer have */
+	void remove(User user, String name) {
+		TreeSet<User> named = usersByName.get(name);
+		if (named != null && named.remove(user) && named.isEmpty())
+			usersByName.remove(name);
+		for (int i = 0; i + 3 <= name.length(); i++) {
+			Long gram = gram(name, i);
+			HashSet<User> users = usersByGram.get(gram);
+			if (users != null && users.remove(user) && users.isEmpty())
+				usersByGram.remove(gram);
+		}
+	}
+
+	TreeSet<User> withName(String name) {
+		TreeSet<User> named = usersByName.get(name);
+		return named == null ? new TreeSet<User>() : new TreeSet<User>(named);
+	}
+
+	/* the Users whose full name contains a substring of at least three characters */
+	TreeSet<User> containing(String substring) {
+		TreeSet<User> Users = new TreeSet<User>();
+		HashSet<User> rarest = null;
+		for (int i = 0; i + 3 <= substring.length(); i++) {
+			HashSet<User> users = usersByGram.get(gram(substring, i));
+			if (users == null)
+				return Users;
+			if (rarest == null || users.size() < rarest.size())
+				rarest = users;
+		}
+		for (User w : rarest)
+			if (w.getFullName().contains(substring))
+				Users.add(w);
+		return Users;
+	}
+
+	/* the three chars of text starting at i, packed sixteen bits each */
+	private static long gram(String text, int i) {
+		return (long) text.charAt(i) << 32 | (long) text.charAt(i + 1) << 16 | text.charAt(i + 2);
+	}
+}
@@ -0,0 +1,120 @@
+package model;
+
+import java.util.Arrays;
+
+/*
+ * Posting lists of the three-character substrings (trigrams) of formatted phone
+ * numbers, for finding the numbers that contain a query without reading every
+ * number. A formatted number has ten trigrams over the eleven characters 0-9
+ * and '-', so there are 11^3 lists of packed phone keys.
+ *
+ * Keys are appended as numbers are added and a list is sorted the first time a
+ * query reads it afterwards, so adding stays O(1) and each list is sorted once
+ * per burst of registrations. A query intersects the lists of its trigrams,
+ * smallest first, and the caller checks the few keys left, since trigrams found
+ * in a number need not be next to each other. When even the smallest list holds
+ * a large share of the numbers, reading every number is cheaper, and the query
+ * is left to the caller.
+ */
+class PhoneGramIndex {
+	private static final int ALPHABET = 11, GRAMS = ALPHABET * ALPHABET * ALPHABET;
+
+	/* a list holding more than 1/UNSELECTIVE of the numbers is not worth intersecting */
+	private static final int UNSELECTIVE = 8;
+
+	private final long[][] postings = new long[GRAMS][];
+	private final int[] sizes = new int[GRAMS];
+	private final boolean[] sorted = new boolean[GRAMS];
+	private int count;
+
+	PhoneGramIndex() {
+		for (int g = 0; g < GRAMS; g++) {
+			postings[g] = new long[0];
+			sorted[g] = true;
+		}
+	}
+
+	/* adds a number once under each of its distinct trigrams */
+	void add(long key, String formatted) {
+		count++;
+		int[] grams = grams(formatted);
+		Arrays.sort(grams);
+		for (int i = 0; i < grams.length; i++) {
+			if (i > 0 && grams[i] == grams[i - 1])
+				continue;
+			int g = grams[i];
+			if (sizes[g] == postings[g].length)
+				postings[g] = Arrays.copyOf(postings[g], Math.max(4, sizes[g] * 2));
+			postings[g][sizes[g]++] = key;
+			sorted[g] = false;
+		}
+	}
+
+	/*
+	 * the sorted keys of the numbers holding every trigram of query, a superset of
+	 * the numbers containing it; null if the query is shorter than three
+	 * characters or too common to be worth intersecting.
+	 */
+	long[] candidates(String query) {
+		if (query.length() < 3)
+			return null;
+		int[] grams = grams(query);
+		if (grams == null)
+			return new long[0];
+		/* smallest list first, so every later step can only shrink the result */
+		Integer[] order = new Integer[grams.length];
+		for (int i = 0; i < grams.length; i++)
+			order[i] = grams[i];
+		Arrays.sort(order, (a, b) -> Integer.compare(sizes[a], sizes[b]));
+		if (sizes[order[0]] > count / UNSELECTIVE)
+			return null;
+		for (int g : grams)
+			sort(g);
+
+		long[] result = Arrays.copyOf(postings[order[0]], sizes[order[0]]);
+		int size = result.length;
+		for (int i = 1; i < order.length && size > 0; i++)
+			size = intersect(result, size, postings[order[i]], sizes[order[i]]);
+		return Arrays.copyOf(result, size);
+	}
+
+	/* keeps the keys of result[0, size) found in list[0, length); returns how many are left */
+	private static int intersect(long[] result, int size, long[] list, int length) {
+		int kept = 0, j = 0;
+		for (int i = 0; i < size && j < length; i++) {
+			j = Arrays.binarySearch(list, j, length, result[i]);
+			if (j >= 0)
+				result[kept++] = result[i];
+			else
+				j = -j - 1;
+		}
+		return kept;
+	}
+
+	private void sort(int g) {
+		if (!sorted[g]) {
+			Arrays.sort(postings[g], 0, sizes[g]);
+			sorted[g] = true;
+		}
+	}
+
+	/* the trigrams of text, or null if it has characters other than 0-9 and '-' */
+	private static int[] grams(String text) {
+		if (text.length() < 3)
+			return null;
+		int[] codes = new int[text.length()];
+		for (int i = 0; i < codes.length; i++) {
+			char c = text.charAt(i);
+			if (c == '-')
+				codes[i] = 10;
+			else if (c >= '0' && c <= '9')
+				codes[i] = c - '0';
+			else
+				return null;
+		}
+		int[] grams = new int[codes.length - 2];
+		for (int i = 0; i < grams.length; i++)
+			grams[i] = (codes[i] * ALPHABET + codes[i + 1]) * ALPHABET + codes[i + 2];
+		return grams;
+	}
+}
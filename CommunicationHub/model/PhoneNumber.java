@@ -3,26 +3,136 @@ package model;
 import model.interfaces.FullInformation;
 
 public class PhoneNumber implements Comparable<PhoneNumber>, FullInformation {
-	private final String countryCode, areaCode, localNumber;
+	/*
+	 * A well-formed number (three, three and four ASCII digits) is packed into its
+	 * ten digits read as one decimal long, so comparing, hashing and matching
+	 * numbers never touches a String. Since every part has a fixed width, the
+	 * numeric order of the keys is the same as the order of the formatted
+	 * numbers. Anything else is kept as text, with a key of NOT_PACKED.
+	 */
+	private static final long NOT_PACKED = -1;
+
+	private final long key;
+
+	/* formatted on first use for packed numbers; a racing thread only formats it twice */
+	private String text;
 
 	public PhoneNumber(String countryCode, String areaCode, String localNumber) {
 		/*
 		 * attributes declared as final must be set in the constructor; once set, they
 		 * cannot be changed.
 		 */
-		this.countryCode = countryCode;
-		this.areaCode = areaCode;
-		this.localNumber = localNumber;
+		long packed = pack(countryCode, 3, 0);
+		packed = pack(areaCode, 3, packed);
+		this.key = pack(localNumber, 4, packed);
+		if (key == NOT_PACKED)
+			this.text = countryCode + "-" + areaCode + "-" + localNumber;
+	}
+
+	/* appends the digits of part to packed, or returns NOT_PACKED if part is not width digits */
+	private static long pack(String part, int width, long packed) {
+		if (packed == NOT_PACKED || part == null || part.length() != width)
+			return NOT_PACKED;
+		for (int i = 0; i < width; i++) {
+			char c = part.charAt(i);
+			if (c < '0' || c > '9')
+				return NOT_PACKED;
+			packed = packed * 10 + (c - '0');
+		}
+		return packed;
+	}
+
+	/* the ten digits of a well-formed number, or a negative value otherwise */
+	long getKey() {
+		return key;
+	}
+
+	/* the key of the number with its ten digits in reverse order */
+	long getReversedKey() {
+		long reversed = 0;
+		for (long digits = key, i = 0; i < 10; i++, digits /= 10)
+			reversed = reversed * 10 + digits % 10;
+		return reversed;
+	}
+
+	/*
+	 * the range [lo, hi) of the keys whose formatted number starts with prefix, or
+	 * null if no well-formed number can start with it.
+	 */
+	static long[] prefixRange(String prefix) {
+		return range(prefix, 3, 7);
+	}
+
+	/*
+	 * the range [lo, hi) of the reversed keys whose formatted number ends with
+	 * postfix, or null if no well-formed number can end with it. Read backwards, a
+	 * number is four, three and three digits, so its dashes fall at 4 and 8.
+	 */
+	static long[] postfixRange(String postfix) {
+		return range(new StringBuilder(postfix).reverse(), 4, 8);
+	}
+
+	private static long[] range(CharSequence start, int dash1, int dash2) {
+		if (start.length() > 12)
+			return null;
+		long digits = 0, scale = 10_000_000_000L;
+		for (int i = 0; i < start.length(); i++) {
+			char c = start.charAt(i);
+			if (i == dash1 || i == dash2) {
+				if (c != '-')
+					return null;
+				continue;
+			}
+			if (c < '0' || c > '9')
+				return null;
+			digits = digits * 10 + (c - '0');
+			scale /= 10;
+		}
+		return new long[] { digits * scale, (digits + 1) * scale };
 	}
 
 	@Override
 	public int compareTo(PhoneNumber pn) {
+		if (key != NOT_PACKED && pn.key != NOT_PACKED)
+			return Long.compare(key, pn.key);
 		return toString().compareTo(pn.toString());
 	}
 
+	@Override
+	public boolean equals(Object o) {
+		if (this == o)
+			return true;
+		if (!(o instanceof PhoneNumber))
+			return false;
+		PhoneNumber pn = (PhoneNumber) o;
+		/* a packed number can only equal another packed number */
+		if (key != NOT_PACKED || pn.key != NOT_PACKED)
+			return key == pn.key;
+		return text.equals(pn.text);
+	}
+
+	@Override
+	public int hashCode() {
+		return key != NOT_PACKED ? Long.hashCode(key) : text.hashCode();
+	}
+
 	@Override
 	public String toString() {
-		return countryCode + "-" + areaCode + "-" + localNumber;
+		String s = text;
+		if (s == null) {
+			char[] c = new char[12];
+			long digits = key;
+			for (int i = 11; i >= 0; i--) {
+				if (i == 3 || i == 7) {
+					c[i] = '-';
+					continue;
+				}
+				c[i] = (char) ('0' + digits % 10);
+				digits /= 10;
+			}
+			text = s = new String(c);
+		}
+		return s;
 	}
 
 
@@ -24,6 +24,12 @@ public class User implements Comparable<User>, FullInformation, Verify {
 	}
 
 	private String firstname, lastname;
+
+	/* lastname + ",  " + firstname, rebuilt only when one of them changes */
+	private String fullName;
+
+	/* the CommunicationHub this User is registered with, told about renames */
+	private CommunicationHub registeredWith;
 	private final PhoneNumber phoneNumber;
 	private TreeSet<User> contacts;
 	private TreeSet<Group> memberOfGroups;
@@ -32,6 +38,7 @@ public class User implements Comparable<User>, FullInformation, Verify {
 	public User(String firstname, String lastname, String phoneNumber) {
 		this.firstname = (firstname == null ? "" : firstname);
 		this.lastname = (lastname == null ? "" : lastname);
+		this.fullName = this.lastname + ",  " + this.firstname;
 
 		if (phoneNumber == null || !PhoneNumber.isValid(phoneNumber))
 			this.phoneNumber = new PhoneNumber("000", "000", "0000");
@@ -45,6 +52,14 @@ public class User implements Comparable<User>, FullInformation, Verify {
 		noLongerMemberOfGroups = new TreeSet<Group>();
 	}
 
+	/*
+	 * a stand-in with only a phone number, for looking a User up in a set ordered
+	 * by phone number without walking it.
+	 */
+	private User(PhoneNumber phoneNumber) {
+		this.phoneNumber = phoneNumber;
+	}
+
 	public PhoneNumber getPhoneNumber() {
 		/*
 		 * Like Strings, since the internals of a phone number cannot be changed, it is
@@ -66,19 +81,36 @@ public class User implements Comparable<User>, FullInformation, Verify {
 	}
 
 	public String getFullName() {
-		return lastname + ",  " + firstname;
+		return fullName;
 	}
 
 	public boolean setFirstname(String name) {
 		firstname = name != null ? name.equals(firstname) ? firstname : name : firstname;
+		renamed();
 		return firstname == name;
 	}
 
 	public boolean setLastname(String name) {
 		lastname = name != null ? name.equals(lastname) ? lastname : name : lastname;
+		renamed();
 		return lastname == name;
 	}
 
+	void setRegisteredWith(CommunicationHub hub) {
+		registeredWith = hub;
+	}
+
+	/* rebuilds the full name and lets the hub re-index it if it changed */
+	private void renamed() {
+		String oldFullName = fullName;
+		String newFullName = lastname + ",  " + firstname;
+		if (newFullName.equals(oldFullName))
+			return;
+		fullName = newFullName;
+		if (registeredWith != null)
+			registeredWith.renamed(this, oldFullName);
+	}
+
 	/* TO DO */
 	public boolean isAContact(String name) {
 		if (name == null)
@@ -95,12 +127,7 @@ public class User implements Comparable<User>, FullInformation, Verify {
 	public boolean isAContact(PhoneNumber phoneNumber) {
 		if (phoneNumber == null)
 			return false;
-		for (User contact : contacts) {
-			if (contact.getPhoneNumber().compareTo(phoneNumber) == 0) {
-				return true;
-			}
-		}
-		return false;
+		return contacts.contains(new User(phoneNumber));
 	}
 
 	/* TO DO */
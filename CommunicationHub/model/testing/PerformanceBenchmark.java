@@ -0,0 +1,232 @@
+package model.testing;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import model.CommunicationHub;
+import model.User;
+import model.enumerations.GroupType;
+import model.groups.Group;
+import model.posts.Post;
+import model.utilities.PersistenceManager;
+
+/*
+ * Single-threaded microbenchmarks of the CommunicationHub hot paths, run at
+ * several dataset sizes so scaling curves and regressions show up side by side.
+ *
+ * Every benchmark builds its dataset once per size, runs a few untimed warmup
+ * rounds so the JIT has compiled the code under test, and then reports the mean
+ * and best time per operation over the measured rounds. Benchmarks that change
+ * their dataset (addMember, addReply) rebuild it between short timed batches,
+ * so the dataset never drifts far from the size being measured.
+ *
+ * The size is the number of registered users for the search and persistence
+ * benchmarks, and the number of posts in the conversation for the group
+ * benchmarks.
+ *
+ * Usage: java model.testing.PerformanceBenchmark [size ...]
+ */
+public class PerformanceBenchmark {
+	private static final int[] DEFAULT_SIZES = { 100, 1000, 3000 };
+	private static final String[] FIRST_NAMES = { "Phil", "Jenn", "Amari", "Shawn", "Kemar", "Tanya", "Andre",
+			"Keisha", "Omar", "Nadine", "Ricardo", "Simone", "Damion", "Latoya", "Marlon", "Sasha" };
+	private static final String[] LAST_NAMES = { "Jackson", "Phipps", "Apple", "Fiester", "Brown", "Williams",
+			"Campbell", "Thompson", "Clarke", "Reid", "Morgan", "Grant", "Bailey", "Francis", "Henry", "Lewis" };
+	private static final int CONTACTS_PER_USER = 3;
+	private static final int POSTS_PER_GROUP = 4;
+	private static final int WARMUP_ROUNDS = 3;
+	private static final int MEASURED_ROUNDS = 5;
+	private static final long ROUND_NANOS = 200_000_000L;
+
+	/* One benchmarked operation; i counts the calls within a round */
+	private interface Operation {
+		long run(int i);
+	}
+
+	/* keeps results alive so the JIT cannot eliminate the benchmarked calls */
+	private static volatile long sink;
+
+	public static void main(String[] args) throws IOException {
+		int[] sizes = DEFAULT_SIZES;
+		if (args.length > 0) {
+			sizes = new int[args.length];
+			for (int i = 0; i < args.length; i++)
+				sizes[i] = Integer.parseInt(args[i]);
+		}
+
+		File file = File.createTempFile("communicationhub-benchmark", ".txt");
+		file.deleteOnExit();
+
+		System.out.printf("%-34s %8s %12s %12s %12s%n", "benchmark", "size", "ops", "ns/op", "best ns/op");
+		for (int size : sizes) {
+			CommunicationHub hub = populatedHub(size);
+			User[] users = hub.getRegisteredUsers().toArray(new User[0]);
+
+			run("findUser(name)", size, i -> hub.findUser(users[i % users.length].getFullName()).size());
+			run("findUser(PhoneNumber)", size, i -> hub.findUser(users[i % users.length].getPhoneNumber()) != null ? 1 : 0);
+			run("findUsersWithNameSubString", size,
+					i -> hub.findUsersWithNameSubString(LAST_NAMES[i % LAST_NAMES.length].substring(1, 4)).size());
+			run("findUserWithPhonePrefix", size,
+					i -> hub.findUserWithPhonePrefix(users[i % users.length].getPhoneNumber().toString().substring(0, 6))
+							.size());
+			run("findUserWithPhonePostfix", size,
+					i -> hub.findUserWithPhonePostfix(users[i % users.length].getPhoneNumber().toString().substring(8))
+							.size());
+			run("findUserWithPhoneSubString", size,
+					i -> hub.findUserWithPhoneSubString(users[i % users.length].getPhoneNumber().toString().substring(4, 9))
+							.size());
+
+			/* add a fresh user to a group whose audit log holds size replies, then make room again */
+			runRebuilt("Group.addMember+removeMember", size, Math.max(10, size / 10), () -> {
+				Group group = conversationGroup(size);
+				User admin = group.getCreator();
+				User[] fresh = new User[Math.max(10, size / 10)];
+				for (int i = 0; i < fresh.length; i++)
+					fresh[i] = new User("Fresh", "User", phone(900_000 + i));
+				return i -> group.addMember(admin, fresh[i]) && group.removeMember(admin, fresh[i]) ? 1 : 0;
+			});
+
+			runRebuilt("Group.addReply", size, Math.max(10, size / 10), () -> {
+				Group group = conversationGroup(size);
+				User member = group.getCreator();
+				long[] ids = postIDs(group);
+				return i -> group.addReply(member, ids[(i * 7919) % ids.length], "Reply " + i) ? 1 : 0;
+			});
+
+			Group verified = conversationGroup(size);
+			run("Group.verify", size, i -> verified.verify() ? 1 : 0);
+
+			String filename = file.getPath();
+			run("PersistenceManager.save", size, i -> {
+				try {
+					PersistenceManager.save(hub, filename);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				return file.length();
+			});
+			run("PersistenceManager.load", size, i -> {
+				CommunicationHub loaded = new CommunicationHub();
+				try {
+					PersistenceManager.load(loaded, filename);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				return loaded.getRegisteredUsers().size();
+			});
+		}
+		System.out.println("sink " + (sink == 42 ? "!" : "ok"));
+	}
+
+	/* warms up and then measures an operation that leaves its dataset usable */
+	private static void run(String name, int size, Operation operation) {
+		runRebuilt(name, size, Integer.MAX_VALUE, () -> operation);
+	}
+
+	/*
+	 * warms up and then measures an operation; the dataset is rebuilt, untimed,
+	 * after every callsPerBuild calls
+	 */
+	private static void runRebuilt(String name, int size, int callsPerBuild, Supplier<Operation> build) {
+		for (int round = 0; round < WARMUP_ROUNDS; round++)
+			round(callsPerBuild, build);
+		long ops = 0, nanos = 0;
+		double best = Double.MAX_VALUE;
+		for (int round = 0; round < MEASURED_ROUNDS; round++) {
+			long[] result = round(callsPerBuild, build);
+			ops += result[0];
+			nanos += result[1];
+			best = Math.min(best, (double) result[1] / result[0]);
+		}
+		System.out.printf("%-34s %8d %12d %12.1f %12.1f%n", name, size, ops, (double) nanos / ops, best);
+	}
+
+	/* calls an operation in batches until the round time is used up; returns calls and timed nanoseconds */
+	private static long[] round(int callsPerBuild, Supplier<Operation> build) {
+		long result = 0, calls = 0, timed = 0;
+		long roundStart = System.nanoTime();
+		while (System.nanoTime() - roundStart < ROUND_NANOS) {
+			Operation operation = build.get();
+			int batch = 1;
+			for (int done = 0; done < callsPerBuild && System.nanoTime() - roundStart < ROUND_NANOS;) {
+				int n = Math.min(batch, callsPerBuild - done);
+				long start = System.nanoTime();
+				for (int i = 0; i < n; i++)
+					result += operation.run(done + i);
+				timed += System.nanoTime() - start;
+				done += n;
+				calls += n;
+				if (batch < 1024)
+					batch *= 2;
+			}
+		}
+		sink += result;
+		return new long[] { calls, timed };
+	}
+
+	/*
+	 * a hub with size users, each with a few contacts, and a group for every
+	 * four users with a short conversation
+	 */
+	private static CommunicationHub populatedHub(int size) {
+		Random random = new Random(size);
+		CommunicationHub hub = new CommunicationHub();
+		for (int i = 0; i < size; i++)
+			hub.register(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)], LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+					phone(i));
+		User[] users = hub.getRegisteredUsers().toArray(new User[0]);
+		for (User w : users)
+			for (int c = 0; c < CONTACTS_PER_USER; c++)
+				w.addContact(users[random.nextInt(users.length)]);
+		for (int g = 0; g + 3 < users.length; g += 4) {
+			Group group = new Group(users[g], GroupType.RegularGroup, "Group " + g, Group.MAX_GROUP_CAPACITY, null);
+			for (int m = 1; m < 4; m++)
+				group.addMember(users[g], users[g + m]);
+			for (int p = 0; p < POSTS_PER_GROUP; p++)
+				group.addPost(users[g + p % 4], "Post " + p + " in group " + g);
+		}
+		return hub;
+	}
+
+	/*
+	 * a regular group with four members and room for one more, whose conversation
+	 * holds size posts; every post after the first is a reply, so the audit log
+	 * grows with it
+	 */
+	private static Group conversationGroup(int size) {
+		User creator = new User("Group", "Creator", phone(800_000));
+		Group group = new Group(creator, GroupType.RegularGroup, "Benchmark group", Group.MAX_GROUP_CAPACITY, null);
+		List<User> members = new ArrayList<User>();
+		members.add(creator);
+		for (int m = 1; members.size() < 4; m++) {
+			User w = new User("Group", "Member" + m, phone(800_000 + m));
+			group.addMember(creator, w);
+			members.add(w);
+		}
+		group.addPost(creator, "First post");
+		long first = group.getConversation().first().getID();
+		for (int p = 1; p < size; p++)
+			group.addReply(members.get(p % members.size()), first, "Reply " + p);
+		return group;
+	}
+
+	private static long[] postIDs(Group group) {
+		List<Long> ids = new ArrayList<Long>();
+		for (Post p : group.getConversation())
+			ids.add(p.getID());
+		long[] result = new long[ids.size()];
+		for (int i = 0; i < result.length; i++)
+			result[i] = ids.get(i);
+		return result;
+	}
+
+	/* a valid, unique phone number for every n below 9,000,000 */
+	private static String phone(int n) {
+		return String.format("876-%03d-%04d", 100 + n / 10_000, n % 10_000);
+	}
+}
@@ -1,5 +1,6 @@
 package model.testing;
 
+import model.PhoneNumber;
 import model.User;
 import model.enumerations.GroupType;
 import model.groups.Group;
@@ -18,6 +19,30 @@ public class UserTester {
 		System.out.println(" to User r.");
 		System.out.println();
 		System.out.println("User r: \n" + r.getFullInformation());
+
+		/*
+		 * well-formed numbers are compared by their packed digits, anything else by its
+		 * text; the two kinds must still order and match consistently.
+		 */
+		PhoneNumber a = new PhoneNumber("876", "121", "2222"), b = new PhoneNumber("876", "121", "2222"),
+				c = new PhoneNumber("879", "111", "0000"), d = new PhoneNumber("876", "12", "12222"),
+				e = new PhoneNumber("87a", "121", "2222"), f = new PhoneNumber(null, "121", "2222");
+		System.out.println();
+		System.out.println("Comparing phone numbers:");
+		check(a + " equals " + b, a.equals(b) && a.hashCode() == b.hashCode() && a.compareTo(b) == 0);
+		check(a + " comes before " + c, a.compareTo(c) < 0 && c.compareTo(a) > 0 && !a.equals(c));
+		check(a + " and " + d + " order by text", a.compareTo(d) == a.toString().compareTo(d.toString())
+				&& d.compareTo(a) == -a.compareTo(d) && !a.equals(d) && !d.equals(a));
+		check(e + " equals itself rebuilt", e.equals(new PhoneNumber("87a", "121", "2222"))
+				&& e.compareTo(new PhoneNumber("87a", "121", "2222")) == 0);
+		check(e + " and " + a + " order by text", Integer.signum(e.compareTo(a)) == Integer.signum(
+				e.toString().compareTo(a.toString())) && !e.equals(a) && !a.equals(e));
+		check(f + " and " + e + " order by text", Integer.signum(f.compareTo(e)) == Integer.signum(
+				f.toString().compareTo(e.toString())) && !f.equals(e));
+	}
+
+	private static void check(String description, boolean passed) {
+		System.out.println("\t" + description + (passed ? ": ok" : ": FAILED"));
 	}
 }
 
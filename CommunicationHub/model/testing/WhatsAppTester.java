@@ -1,6 +1,11 @@
 package model.testing;
 
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
 import model.CommunicationHub;
+import model.PhoneNumber;
+import model.User;
 
 public class WhatsAppTester {
 	
@@ -18,6 +23,65 @@ public class WhatsAppTester {
 		wsa.register("Amari", "Apple", "876-132-0010");
 		
 		System.out.println(wsa.getFullInformation());
+
+		/*
+		 * phone searches use indexes; each is checked against reading every number.
+		 * Every number starts with "876", so a substring holding it is too common for
+		 * the trigram index and is looked for in every number instead.
+		 */
+		for (int i = 0; i < 400; i++)
+			wsa.register("Test", "User" + i, String.format("876-%03d-%04d", 100 + i % 50, i * 37 % 10000));
+		System.out.println();
+		System.out.println("Searching " + wsa.getRegisteredUsers().size() + " phone numbers:");
+		for (String prefix : new String[] { "8", "876", "876-", "876-1", "876-13", "876-131-", "876-131-0010", "8761",
+				"876-1-" })
+			check(wsa, "prefix " + prefix, wsa.findUserWithPhonePrefix(prefix), n -> n.startsWith(prefix));
+		for (String postfix : new String[] { "0", "0010", "-0010", "1-0010", "131-0010", "876-131-0010", "10-0",
+				"1-00-10" })
+			check(wsa, "postfix " + postfix, wsa.findUserWithPhonePostfix(postfix), n -> n.endsWith(postfix));
+		for (String substring : new String[] { "87", "876", "876-1", "76-13", "-0010", "31-00", "111-0000", "2-2",
+				"9999" })
+			check(wsa, "substring " + substring, wsa.findUserWithPhoneSubString(substring),
+					n -> n.contains(substring));
+
+		/* name searches must follow renames, including ones that change nothing */
+		User phil = wsa.findUser(new PhoneNumber("879", "111", "0000"));
+		User amari = wsa.findUser(new PhoneNumber("876", "132", "0010"));
+		phil.setFirstname("Philip");
+		phil.setLastname("Jones");
+		amari.setLastname("Apples");
+		amari.setFirstname(null);
+		amari.setLastname("Apples");
+		System.out.println();
+		System.out.println("Searching names after renames:");
+		for (String name : new String[] { "Jackson,  Phil", "Jones,  Phil", "Jones,  Philip", "Apple,  Amari",
+				"Apples,  Amari" })
+			checkNames(wsa, "name " + name, wsa.findUser(name), n -> n.equals(name));
+		for (String substring : new String[] { "Jack", "Jones", "Philip", "Apple", "Apples", "s,  A", "ari" })
+			checkNames(wsa, "name substring " + substring, wsa.findUsersWithNameSubString(substring),
+					n -> n.contains(substring));
+	}
+
+	private static void check(CommunicationHub wsa, String search, TreeSet<User> found, Predicate<String> matches) {
+		TreeSet<User> expected = new TreeSet<User>();
+		for (User w : wsa.getRegisteredUsers())
+			if (matches.test(w.getPhoneNumber().toString()))
+				expected.add(w);
+		report(search, found, expected);
+	}
+
+	private static void checkNames(CommunicationHub wsa, String search, TreeSet<User> found,
+			Predicate<String> matches) {
+		TreeSet<User> expected = new TreeSet<User>();
+		for (User w : wsa.getRegisteredUsers())
+			if (matches.test(w.getFullName()))
+				expected.add(w);
+		report(search, found, expected);
+	}
+
+	private static void report(String search, TreeSet<User> found, TreeSet<User> expected) {
+		System.out.println("\t" + search + ": " + found.size() + " found" + (found.equals(expected) ? ", ok"
+				: ", FAILED (expected " + expected.size() + ")"));
 	}
 }
 
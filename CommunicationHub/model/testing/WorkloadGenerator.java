@@ -0,0 +1,541 @@
+package model.testing;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import model.CommunicationHub;
+import model.User;
+import model.enumerations.GroupType;
+import model.groups.Channel;
+import model.groups.Community;
+import model.groups.Group;
+
+/*
+ * Builds large, reproducible CommunicationHub datasets to benchmark and profile
+ * against: users, contacts, regular groups, communities with channels, private
+ * conversations, and the posts, replies and announcements in all of them.
+ *
+ * The same seed and settings always produce the same dataset. The number of
+ * contacts a user has and is, the number of groups a user starts and joins and
+ * the length of each conversation follow power laws with the given exponent,
+ * so a few users and groups account for much of the activity. Names and the
+ * words of messages are drawn with Zipf frequencies.
+ *
+ * Every choice is derived from the seed and the index of the user or group it
+ * belongs to, so the same dataset can either be built in a hub through the
+ * model's own methods (populate) or streamed straight to a file in the
+ * PersistenceManager format (write) without ever being held in memory, which
+ * is what makes millions of users practical. PersistenceManager.load reads the
+ * file back into the users, groups, memberships, contacts and posts populate
+ * would have made. Only what the model accepts is generated: groups stay
+ * within their capacity, channel members are members of the community, only
+ * administrators post in a community, and, as in the GUI, a private
+ * conversation is created with its other party but holds only its creator.
+ *
+ * Usage: java model.testing.WorkloadGenerator users [seed [file]]
+ */
+public class WorkloadGenerator {
+	private static final String[] FIRST_NAMES = { "Phil", "Jenn", "Amari", "Shawn", "Kemar", "Tanya", "Andre",
+			"Keisha", "Omar", "Nadine", "Ricardo", "Simone", "Damion", "Latoya", "Marlon", "Sasha", "Andrea", "Dwayne",
+			"Shanice", "Romario", "Kimberly", "Jermaine", "Tamara", "Kevin", "Monique", "Rohan", "Crystal", "Garfield",
+			"Natalie", "Leon", "Sheryl", "Everton" };
+	private static final String[] LAST_NAMES = { "Jackson", "Phipps", "Apple", "Fiester", "Brown", "Williams",
+			"Campbell", "Thompson", "Clarke", "Reid", "Morgan", "Grant", "Bailey", "Francis", "Henry", "Lewis",
+			"Walker", "Robinson", "Johnson", "Smith", "Gordon", "Edwards", "Stewart", "Green", "Palmer", "Wright",
+			"Allen", "Richards", "Spencer", "McKenzie", "Ferguson", "Gayle" };
+	private static final String[] SYLLABLES = { "ka", "lo", "mi", "ne", "ru", "sa", "ti", "vo", "an", "el", "or",
+			"ub", "ship", "tra", "gen", "dor", "pha", "quin", "zel", "bro" };
+	private static final int VOCABULARY_SIZE = 5000;
+
+	/* longest conversation made; adding a reply scans the whole conversation */
+	private static final int MAX_POSTS_PER_GROUP = 1000;
+
+	/* phone numbers per country code: 900 exchanges of 10,000 numbers */
+	private static final int NUMBERS_PER_COUNTRY = 9_000_000;
+
+	private static final int REGULAR = 0, COMMUNITY = 1, CHANNEL = 2, CONVERSATION = 3;
+
+	/* independent random streams, so changing one setting does not reshuffle the rest */
+	private static final long NAMES = 1, GROUPS = 2, CONTACTS = 3, POSTS = 4, RANKS = 5;
+
+	private final long seed;
+	private int users = 1000;
+	private double contactsPerUser = 10;
+	private double groupsPerUser = 0.3;
+	private double communitiesPerUser = 0.01;
+	private double channelsPerCommunity = 2;
+	private double conversationsPerUser = 0.5;
+	private double postsPerGroup = 8;
+	private double replyShare = 0.3;
+	private double exponent = 2.2;
+
+	/* a group of the workload; groups are planned up front since memberships are saved after all of them */
+	private static final class PlannedGroup {
+		final int kind;
+		final String name;
+		final int creator;
+		final int[] members; /* including the creator, first */
+		final boolean[] admins;
+		final int parent; /* index of the community of a channel, or -1 */
+		final short capacity;
+
+		PlannedGroup(int kind, String name, int creator, int[] members, boolean[] admins, int parent, short capacity) {
+			this.kind = kind;
+			this.name = name;
+			this.creator = creator;
+			this.members = members;
+			this.admins = admins;
+			this.parent = parent;
+			this.capacity = capacity;
+		}
+	}
+
+	/* receives the posts of one group in the order they are made */
+	private interface PostVisitor {
+		/* replyTo is the index within the group of the post replied to, or -1 */
+		void post(int poster, int replyTo, boolean announcement, String text);
+	}
+
+	public WorkloadGenerator(long seed) {
+		this.seed = seed;
+	}
+
+	public WorkloadGenerator users(int users) {
+		if (users < 2 || users > (999 - 876 + 1) * (long) NUMBERS_PER_COUNTRY)
+			throw new IllegalArgumentException("Unsupported number of users: " + users);
+		this.users = users;
+		return this;
+	}
+
+	public WorkloadGenerator contactsPerUser(double mean) {
+		this.contactsPerUser = requireNonNegative(mean);
+		return this;
+	}
+
+	public WorkloadGenerator groupsPerUser(double mean) {
+		this.groupsPerUser = requireNonNegative(mean);
+		return this;
+	}
+
+	public WorkloadGenerator communitiesPerUser(double mean) {
+		this.communitiesPerUser = requireNonNegative(mean);
+		return this;
+	}
+
+	public WorkloadGenerator channelsPerCommunity(double mean) {
+		this.channelsPerCommunity = requireNonNegative(mean);
+		return this;
+	}
+
+	public WorkloadGenerator conversationsPerUser(double mean) {
+		this.conversationsPerUser = requireNonNegative(mean);
+		return this;
+	}
+
+	public WorkloadGenerator postsPerGroup(double mean) {
+		this.postsPerGroup = requireNonNegative(mean);
+		return this;
+	}
+
+	public WorkloadGenerator replyShare(double share) {
+		if (!(share >= 0 && share <= 1))
+			throw new IllegalArgumentException("The share must be between 0 and 1");
+		this.replyShare = share;
+		return this;
+	}
+
+	/* real social networks mostly fall between 2 and 3; at 2 or below the means are unbounded */
+	public WorkloadGenerator exponent(double exponent) {
+		if (!(exponent > 2))
+			throw new IllegalArgumentException("The exponent must be greater than 2");
+		this.exponent = exponent;
+		return this;
+	}
+
+	/* builds the workload in an empty hub through the model's methods */
+	public void populate(CommunicationHub hub) {
+		if (!hub.getRegisteredUsers().isEmpty())
+			throw new IllegalArgumentException("The hub already has users");
+		String[][] names = names();
+		for (int u = 0; u < users; u++)
+			hub.register(names[0][u], names[1][u], phone(u));
+		Map<String, User> byPhone = new HashMap<String, User>();
+		for (User w : hub.getRegisteredUsers())
+			byPhone.put(w.getPhoneNumber().toString(), w);
+		User[] user = new User[users];
+		for (int u = 0; u < users; u++)
+			user[u] = byPhone.get(phone(u));
+
+		PowerLaw ranks = ranks();
+		List<PlannedGroup> plan = planGroups(ranks);
+		Group[] group = new Group[plan.size()];
+		for (int g = 0; g < group.length; g++) {
+			PlannedGroup p = plan.get(g);
+			User creator = user[p.creator];
+			switch (p.kind) {
+			case COMMUNITY:
+				group[g] = new Community(creator, p.name, null);
+				break;
+			case CHANNEL:
+				Community community = (Community) group[p.parent];
+				community.addChannel(creator, p.name, null);
+				for (Group joined : creator.getGroups())
+					if (joined instanceof Channel && ((Channel) joined).getCommunity() == community
+							&& joined.getName().equals(p.name))
+						group[g] = joined;
+				break;
+			case CONVERSATION:
+				/* the model names the conversation and keeps the other party out */
+				Set<User> with = new HashSet<User>();
+				with.add(user[p.members[1]]);
+				group[g] = new Group(creator, GroupType.UsertoUser, null, Group.MIN_GROUP_CAPACITY, with);
+				continue;
+			default:
+				group[g] = new Group(creator, GroupType.RegularGroup, p.name, p.capacity, null);
+			}
+			for (int m = 1; m < p.members.length; m++) {
+				group[g].addMember(creator, user[p.members[m]]);
+				if (p.admins[m])
+					group[g].upgradeMemberToAdmin(creator, user[p.members[m]]);
+			}
+		}
+
+		for (int u = 0; u < users; u++)
+			for (int c : contacts(u, ranks))
+				user[u].addContact(user[c]);
+
+		String[] vocabulary = vocabulary();
+		PowerLaw words = new PowerLaw(null, vocabulary.length, exponent);
+		for (int g = 0; g < group.length; g++) {
+			final Group in = group[g];
+			final List<Long> ids = new ArrayList<Long>();
+			posts(g, plan.get(g), vocabulary, words, new PostVisitor() {
+				public void post(int poster, int replyTo, boolean announcement, String text) {
+					boolean added = replyTo < 0 ? in.addPost(user[poster], text)
+							: in.addReply(user[poster], ids.get(replyTo), text);
+					/* keep indexes aligned even if the model refused the post */
+					ids.add(added ? in.getConversation().last().getID() : -1L);
+				}
+			});
+		}
+	}
+
+	/* streams the workload to a file in the PersistenceManager format */
+	public void write(String filename) throws IOException {
+		PowerLaw ranks = ranks();
+		try (PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(filename), 1 << 16))) {
+			writer.println("SECTION:UserS");
+			String[][] names = names();
+			for (int u = 0; u < users; u++)
+				writer.printf("%s,%s,%s%n", names[0][u], names[1][u], phone(u));
+
+			/* group IDs and post IDs are numbered from 1 in the order they are made */
+			List<PlannedGroup> plan = planGroups(ranks);
+			writer.println("SECTION:GROUPS");
+			for (int g = 0; g < plan.size(); g++) {
+				PlannedGroup p = plan.get(g);
+				String type = p.kind == COMMUNITY ? "Community" : p.kind == CHANNEL ? "Channel" : "Group";
+				String name = p.name;
+				if (p.kind == CONVERSATION) {
+					/* named by the model after whichever party has the lower phone number */
+					int first = phone(p.members[0]).compareTo(phone(p.members[1])) <= 0 ? p.members[0] : p.members[1];
+					name = names[0][first] + " " + names[1][first];
+				}
+				writer.printf("%d,%s,%s,%s,%d,%s,%d%n", g + 1, type, name, phone(p.creator), p.capacity, "Active",
+						p.parent < 0 ? -1 : p.parent + 1);
+			}
+
+			writer.println("SECTION:MEMBERSHIPS");
+			for (int g = 0; g < plan.size(); g++) {
+				PlannedGroup p = plan.get(g);
+				for (int m = 0; m < p.members.length; m++)
+					if (p.kind != CONVERSATION || m == 0)
+						writer.printf("%d,%s,%b%n", g + 1, phone(p.members[m]), p.admins[m]);
+			}
+
+			writer.println("SECTION:CONTACTS");
+			for (int u = 0; u < users; u++)
+				for (int c : contacts(u, ranks))
+					writer.printf("%s,%s%n", phone(u), phone(c));
+
+			writer.println("SECTION:POSTS");
+			String[] vocabulary = vocabulary();
+			PowerLaw words = new PowerLaw(null, vocabulary.length, exponent);
+			final long[] nextID = { 1 };
+			for (int g = 0; g < plan.size(); g++) {
+				final long groupID = g + 1;
+				final List<Long> ids = new ArrayList<Long>();
+				posts(g, plan.get(g), vocabulary, words, new PostVisitor() {
+					public void post(int poster, int replyTo, boolean announcement, String text) {
+						long id = nextID[0]++;
+						writer.printf("%d,%d,%s,%d,%b,%s%n", id, groupID, phone(poster),
+								replyTo < 0 ? -1 : ids.get(replyTo), announcement, text);
+						ids.add(id);
+					}
+				});
+			}
+			if (writer.checkError())
+				throw new IOException("Failed to write " + filename);
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1 || args.length > 3) {
+			System.err.println("Usage: java model.testing.WorkloadGenerator users [seed [file]]");
+			System.exit(2);
+		}
+		WorkloadGenerator generator = new WorkloadGenerator(args.length > 1 ? Long.parseLong(args[1]) : 1)
+				.users(Integer.parseInt(args[0]));
+		long start = System.nanoTime();
+		if (args.length > 2) {
+			generator.write(args[2]);
+			System.out.printf("%s: %d bytes in %d ms%n", args[2], new File(args[2]).length(),
+					(System.nanoTime() - start) / 1_000_000);
+		} else {
+			CommunicationHub hub = new CommunicationHub();
+			generator.populate(hub);
+			Runtime runtime = Runtime.getRuntime();
+			System.out.printf("%d users in %d ms, heap in use %d MB%n", hub.getRegisteredUsers().size(),
+					(System.nanoTime() - start) / 1_000_000, (runtime.totalMemory() - runtime.freeMemory()) >> 20);
+		}
+	}
+
+	/*
+	 * plans every group in the order it is made: regular groups, then each
+	 * community followed by its channels, then the private conversations
+	 */
+	private List<PlannedGroup> planGroups(PowerLaw ranks) {
+		Random random = stream(GROUPS, 0);
+		List<PlannedGroup> plan = new ArrayList<PlannedGroup>();
+
+		long regular = Math.round(users * groupsPerUser);
+		for (long g = 0; g < regular; g++) {
+			short capacity = (short) (Group.MIN_GROUP_CAPACITY
+					+ random.nextInt(Group.MAX_GROUP_CAPACITY - Group.MIN_GROUP_CAPACITY + 1));
+			int[] members = pickMembers(random, ranks, ranks.next(random), capacity);
+			plan.add(new PlannedGroup(REGULAR, "Group " + (plan.size() + 1), members[0], members,
+					admins(random, members.length), -1, capacity));
+		}
+
+		long communities = Math.round(users * communitiesPerUser);
+		for (long c = 0; c < communities; c++) {
+			int[] members = pickMembers(random, ranks, ranks.next(random), Group.MAX_GROUP_CAPACITY);
+			int parent = plan.size();
+			plan.add(new PlannedGroup(COMMUNITY, "Community " + (parent + 1), members[0], members,
+					admins(random, members.length), -1, Group.MAX_GROUP_CAPACITY));
+			long channels = Math.min(members.length * 4L, ranks.degree(random, channelsPerCommunity));
+			for (long ch = 0; ch < channels; ch++) {
+				/* only administrators may add channels; the creator is always one */
+				int[] channelMembers = new int[members.length];
+				int count = 0;
+				channelMembers[count++] = members[0];
+				for (int m = 1; m < members.length; m++)
+					if (random.nextBoolean())
+						channelMembers[count++] = members[m];
+				channelMembers = Arrays.copyOf(channelMembers, count);
+				plan.add(new PlannedGroup(CHANNEL, "Channel " + (plan.size() + 1), members[0], channelMembers,
+						admins(random, count), parent, Group.MAX_GROUP_CAPACITY));
+			}
+		}
+
+		long conversations = Math.round(users * conversationsPerUser);
+		for (long c = 0; c < conversations; c++) {
+			int creator = ranks.next(random);
+			int partner = ranks.next(random);
+			if (partner == creator)
+				partner = (creator + 1) % users;
+			/* the partner is kept in members[1] for naming; only the creator is ever a member */
+			plan.add(new PlannedGroup(CONVERSATION, null, creator, new int[] { creator, partner },
+					new boolean[] { true, false }, -1, Group.MIN_GROUP_CAPACITY));
+		}
+		return plan;
+	}
+
+	/* the creator first, then distinct users drawn by popularity, at most capacity in all */
+	private int[] pickMembers(Random random, PowerLaw ranks, int creator, int capacity) {
+		int wanted = 1 + random.nextInt(capacity);
+		Set<Integer> members = new LinkedHashSet<Integer>();
+		members.add(creator);
+		for (int attempt = 0; attempt < 4 * wanted && members.size() < wanted; attempt++)
+			members.add(ranks.next(random));
+		int[] result = new int[members.size()];
+		int i = 0;
+		for (int m : members)
+			result[i++] = m;
+		return result;
+	}
+
+	/* the creator is an administrator; now and then one other member is made one too */
+	private static boolean[] admins(Random random, int members) {
+		boolean[] admins = new boolean[members];
+		admins[0] = true;
+		if (members > 1 && random.nextInt(5) == 0)
+			admins[1 + random.nextInt(members - 1)] = true;
+		return admins;
+	}
+
+	/* the distinct contacts of a user, drawn by popularity */
+	private int[] contacts(int user, PowerLaw ranks) {
+		Random random = stream(CONTACTS, user);
+		long wanted = Math.min(users - 1, ranks.degree(random, contactsPerUser));
+		Set<Integer> contacts = new LinkedHashSet<Integer>();
+		for (long attempt = 0; attempt < 2 * wanted && contacts.size() < wanted; attempt++) {
+			int contact = ranks.next(random);
+			if (contact != user)
+				contacts.add(contact);
+		}
+		int[] result = new int[contacts.size()];
+		int i = 0;
+		for (int c : contacts)
+			result[i++] = c;
+		return result;
+	}
+
+	/*
+	 * the posts of a group: announcements by administrators in a community, and
+	 * posts and replies by members everywhere else
+	 */
+	private void posts(int g, PlannedGroup p, String[] vocabulary, PowerLaw words, PostVisitor visitor) {
+		Random random = stream(POSTS, g);
+		long count = Math.min(MAX_POSTS_PER_GROUP, words.degree(random, postsPerGroup));
+		int posters = p.kind == CONVERSATION ? 1 : p.members.length;
+		for (int i = 0; i < count; i++) {
+			String text = text(random, vocabulary, words);
+			if (p.kind == COMMUNITY) {
+				int admin;
+				do
+					admin = random.nextInt(p.members.length);
+				while (!p.admins[admin]);
+				visitor.post(p.members[admin], -1, true, text);
+			} else {
+				int replyTo = i > 0 && random.nextDouble() < replyShare ? random.nextInt(i) : -1;
+				visitor.post(p.members[random.nextInt(posters)], replyTo, false, text);
+			}
+		}
+	}
+
+	private PowerLaw ranks() {
+		return new PowerLaw(stream(RANKS, 0), users, exponent);
+	}
+
+	/* a random stream for one purpose and index, seeded by mixing both into the seed */
+	private Random stream(long purpose, long index) {
+		long z = seed + purpose * 0x9E3779B97F4A7C15L + index * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return new Random(z ^ (z >>> 31));
+	}
+
+	/* first names and last names of every user; the first names in each list are the most common */
+	private String[][] names() {
+		Random random = stream(NAMES, 0);
+		PowerLaw first = new PowerLaw(null, FIRST_NAMES.length, exponent);
+		PowerLaw last = new PowerLaw(null, LAST_NAMES.length, exponent);
+		String[][] names = new String[2][users];
+		for (int u = 0; u < users; u++) {
+			names[0][u] = FIRST_NAMES[first.next(random)];
+			names[1][u] = LAST_NAMES[last.next(random)];
+		}
+		return names;
+	}
+
+	/* the words messages are drawn from, most frequent first */
+	private String[] vocabulary() {
+		Random random = stream(POSTS, -1);
+		String[] vocabulary = new String[VOCABULARY_SIZE];
+		Set<String> seen = new HashSet<String>();
+		for (int i = 0; i < vocabulary.length;) {
+			StringBuilder word = new StringBuilder();
+			int syllables = 1 + random.nextInt(3);
+			for (int s = 0; s < syllables; s++)
+				word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+			word.append(i % 10);
+			if (seen.add(word.toString()))
+				vocabulary[i++] = word.toString();
+		}
+		return vocabulary;
+	}
+
+	/* a message of 2 to 15 words */
+	private static String text(Random random, String[] vocabulary, PowerLaw words) {
+		StringBuilder text = new StringBuilder();
+		int length = 2 + random.nextInt(14);
+		for (int w = 0; w < length; w++) {
+			if (w > 0)
+				text.append(' ');
+			text.append(vocabulary[words.next(random)]);
+		}
+		return text.toString();
+	}
+
+	/*
+	 * a valid, unique phone number for every user; numbers are scattered over
+	 * the exchanges of a country code so prefixes and postfixes are varied
+	 */
+	private static String phone(int user) {
+		int n = (int) ((user % NUMBERS_PER_COUNTRY) * 7_654_321L % NUMBERS_PER_COUNTRY);
+		return String.format("%03d-%03d-%04d", 876 + user / NUMBERS_PER_COUNTRY, 100 + n / 10_000, n % 10_000);
+	}
+
+	private static double requireNonNegative(double mean) {
+		if (!(mean >= 0))
+			throw new IllegalArgumentException("The mean cannot be negative");
+		return mean;
+	}
+
+	/*
+	 * draws from two power laws with the same exponent: degrees, from a discrete
+	 * Pareto distribution with a given mean, and items, from a Zipf distribution
+	 * whose frequencies make the in-degrees follow that power law. Ranks are
+	 * mapped through a fixed random permutation, so the most popular items are
+	 * spread over the whole range instead of being the first ones made; without
+	 * a random to shuffle with, rank i is item i.
+	 */
+	private static final class PowerLaw {
+		private final int[] byRank;
+		private final double tail, rankExponent;
+
+		PowerLaw(Random shuffle, int size, double exponent) {
+			tail = exponent - 1;
+			rankExponent = 1 / tail;
+			byRank = new int[size];
+			for (int i = 0; i < size; i++)
+				byRank[i] = i;
+			if (shuffle != null)
+				for (int i = size - 1; i > 0; i--) {
+					int j = shuffle.nextInt(i + 1);
+					int swap = byRank[i];
+					byRank[i] = byRank[j];
+					byRank[j] = swap;
+				}
+		}
+
+		long degree(Random random, double mean) {
+			if (mean == 0)
+				return 0;
+			double least = mean * (tail - 1) / tail;
+			double u = 1 - random.nextDouble(); /* in (0, 1] */
+			double degree = least / Math.pow(u, 1 / tail);
+			return degree >= Long.MAX_VALUE ? Long.MAX_VALUE : Math.round(degree);
+		}
+
+		int next(Random random) {
+			int size = byRank.length;
+			double x = Math.pow((Math.pow(size + 1, 1 - rankExponent) - 1) * random.nextDouble() + 1,
+					1 / (1 - rankExponent));
+			return byRank[(int) Math.min(size - 1, Math.max(0, (long) x - 1))];
+		}
+	}
+}
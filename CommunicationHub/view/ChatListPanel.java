@@ -11,6 +11,9 @@ import java.util.TreeSet;
 import java.util.function.Consumer;
 
 public class ChatListPanel extends JPanel {
+    /* most search results shown at once */
+    private static final int MAX_RESULTS = 500;
+
     private final CommunicationHub wsa;
     private final Consumer<User> onSelect;
     private final User me;
@@ -90,7 +93,7 @@ public class ChatListPanel extends JPanel {
             // Allow searching by first name, last name, or any substring of the full name
             found = wsa.findUsersWithNameSubString(q);
         } else if ("Phone prefix".equals(mode)) {
-            found = wsa.findUserWithPhonePrefix(q);
+            found = wsa.findUserWithPhonePrefix(q, MAX_RESULTS);
         } else if ("Phone contains".equals(mode)) {
             found = wsa.findUserWithPhoneSubString(q);
         } else if ("Phone postfix".equals(mode)) {
@@ -0,0 +1,286 @@
+package project;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+import project.enums.PageAlgorithm;
+
+/**
+ * One page of a feed, together with the cursor that fetches the next page.
+ * <p>
+ * Every page algorithm maps a post to a single {@code long} sort key, with the
+ * first post of the feed having the smallest key: the post ID for Oldest, the
+ * post ID reversed for Newest, (score, post ID) for Popular and (heat, post
+ * ID) for Trending. A cursor is
+ * the opaque encoding of the key of the last post on a page, and the next page
+ * starts with the first post whose key is greater (keyset pagination).
+ */
+public class FeedPage {
+    /** The posts on this page, in feed order */
+    private final List<Post> posts;
+
+    /** Cursor for the next page, or null if this is the last page */
+    private final String nextCursor;
+
+    /**
+     * Creates a feed page.
+     *
+     * @param posts      The posts on the page, in feed order
+     * @param nextCursor The cursor for the next page, or null if there is none
+     */
+    public FeedPage(List<Post> posts, String nextCursor) {
+        this.posts = Collections.unmodifiableList(new ArrayList<>(posts));
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Returns the posts on this page, in feed order.
+     *
+     * @return An unmodifiable list of posts
+     */
+    public List<Post> getPosts() {
+        return posts;
+    }
+
+    /**
+     * Returns the cursor that fetches the page after this one.
+     *
+     * @return The next cursor, or null if this is the last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Checks if there are more posts after this page.
+     *
+     * @return true if a next page exists
+     */
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+
+    /**
+     * Returns the sort key of a post under a page algorithm. Posts earlier in
+     * the feed have smaller keys.
+     *
+     * @param algorithm The page algorithm
+     * @param post      The post
+     * @return The sort key of the post
+     */
+    public static long sortKey(PageAlgorithm algorithm, Post post) {
+        switch (algorithm) {
+            case Popular:
+                return popularityKey(post.getPopularityScore(), post.getPostID());
+            case Trending:
+                return trendingKey(post.trendingHeat, post.getPostID());
+            case Oldest:
+                return post.getPostID();
+            case Newest:
+            default:
+                return Integer.MAX_VALUE - (long) post.getPostID();
+        }
+    }
+
+    /**
+     * Packs a popularity score and a post ID into one key that orders by score,
+     * highest first, then by post ID, newest first.
+     *
+     * @param score  The popularity score
+     * @param postID The post ID
+     * @return The packed key
+     */
+    static long popularityKey(int score, int postID) {
+        return (-(long) score << 32) | (Integer.MAX_VALUE - postID);
+    }
+
+    /**
+     * Packs a trending heat and a post ID into one key that orders by heat,
+     * highest first, then by post ID, newest first. The bits of the heat are
+     * made to sort like its value and cut to their top 33 bits, which keeps the
+     * whole exponent range, so heats that differ in less than about one part in
+     * two million count as ties.
+     *
+     * @param heat   The trending heat
+     * @param postID The post ID
+     * @return The packed key
+     */
+    static long trendingKey(double heat, int postID) {
+        long bits = Double.doubleToLongBits(heat);
+        if (bits < 0) {
+            bits ^= Long.MAX_VALUE; // Larger magnitudes of negative values sort lower
+        }
+        return (-(bits >> 31) << 31) | (Integer.MAX_VALUE - postID);
+    }
+
+    /**
+     * Turns the key of the last post on a page into an opaque cursor.
+     *
+     * @param algorithm The page algorithm of the feed
+     * @param key       The sort key of the last post on the page
+     * @return The cursor
+     */
+    static String encodeCursor(PageAlgorithm algorithm, long key) {
+        String raw = algorithm.name() + ":" + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads the sort key back out of a cursor.
+     *
+     * @param algorithm The page algorithm of the feed being read
+     * @param cursor    The cursor, or null for the first page
+     * @return The key after which the page starts, or Long.MIN_VALUE for the
+     *         first page
+     * @throws IllegalArgumentException if the cursor is malformed or was issued
+     *                                  for a different page algorithm
+     */
+    static long decodeCursor(PageAlgorithm algorithm, String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return Long.MIN_VALUE;
+        }
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed feed cursor", e);
+        }
+        int split = raw.indexOf(':');
+        if (split < 0 || !raw.substring(0, split).equals(algorithm.name())) {
+            throw new IllegalArgumentException("Cursor does not belong to a " + algorithm + " feed");
+        }
+        try {
+            return Long.parseLong(raw.substring(split + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed feed cursor", e);
+        }
+    }
+
+    /**
+     * Builds a page from up to pageSize + 1 posts already in feed order. The
+     * extra post, if present, only signals that another page exists.
+     *
+     * @param algorithm The page algorithm of the feed
+     * @param candidates Up to pageSize + 1 posts in feed order
+     * @param pageSize  The number of posts per page
+     * @return The page
+     */
+    static FeedPage of(PageAlgorithm algorithm, List<Post> candidates, int pageSize) {
+        if (candidates.size() <= pageSize) {
+            return new FeedPage(candidates, null);
+        }
+        List<Post> page = candidates.subList(0, pageSize);
+        return new FeedPage(page, encodeCursor(algorithm, sortKey(algorithm, page.get(pageSize - 1))));
+    }
+
+    /**
+     * Selects one page out of an unordered collection of posts using a bounded
+     * heap, so the cost is O(n log k) for a page of k posts instead of sorting
+     * all n posts.
+     *
+     * @param candidates The posts to choose from, in any order
+     * @param filter     The posts that may appear in the feed
+     * @param algorithm  The page algorithm
+     * @param pageSize   The number of posts per page
+     * @param cursor     The cursor from the previous page, or null for the first
+     * @return The page
+     * @throws IllegalArgumentException if pageSize is not positive or the cursor
+     *                                  is invalid
+     */
+    static FeedPage select(Iterable<Post> candidates, Predicate<Post> filter, PageAlgorithm algorithm,
+            int pageSize, String cursor) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        return of(algorithm, first(candidates, filter, algorithm, decodeCursor(algorithm, cursor), pageSize + 1),
+                pageSize);
+    }
+
+    /**
+     * Picks the first posts of a feed out of an unordered collection using a
+     * bounded heap, in O(n log k) for k posts.
+     *
+     * @param candidates The posts to choose from, in any order
+     * @param filter     The posts that may appear in the feed
+     * @param algorithm  The page algorithm
+     * @param afterKey   Only posts whose sort key is greater are picked
+     * @param limit      The maximum number of posts to pick
+     * @return Up to limit posts in feed order
+     */
+    static List<Post> first(Iterable<Post> candidates, Predicate<Post> filter, PageAlgorithm algorithm,
+            long afterKey, int limit) {
+        Comparator<Post> byKey = Comparator.comparingLong(post -> sortKey(algorithm, post));
+
+        // Max-heap of the smallest keys seen so far
+        PriorityQueue<Post> heap = new PriorityQueue<>(Math.min(limit, 64) + 1, byKey.reversed());
+        for (Post post : candidates) {
+            long key = sortKey(algorithm, post);
+            if (key <= afterKey || !filter.test(post)) {
+                continue;
+            }
+            if (heap.size() < limit) {
+                heap.add(post);
+            } else if (key < sortKey(algorithm, heap.peek())) {
+                heap.poll();
+                heap.add(post);
+            }
+        }
+        return sorted(algorithm, heap);
+    }
+
+    /**
+     * Merges two lists of posts that are each in feed order into one, keeping
+     * the first limit posts.
+     *
+     * @param algorithm The page algorithm
+     * @param a         Posts in feed order
+     * @param b         Other posts in feed order
+     * @param limit     The maximum number of posts to return
+     * @return Up to limit posts in feed order
+     */
+    static List<Post> merge(PageAlgorithm algorithm, List<Post> a, List<Post> b, int limit) {
+        List<Post> result = new ArrayList<>(Math.min(limit, a.size() + b.size()));
+        int i = 0;
+        int j = 0;
+        while (result.size() < limit && (i < a.size() || j < b.size())) {
+            if (j >= b.size() || (i < a.size() && sortKey(algorithm, a.get(i)) <= sortKey(algorithm, b.get(j)))) {
+                result.add(a.get(i++));
+            } else {
+                result.add(b.get(j++));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Sorts posts into feed order. Each key is read once before sorting, so
+     * votes cast meanwhile cannot make the order inconsistent.
+     *
+     * @param algorithm The page algorithm
+     * @param posts     The posts to sort
+     * @return The posts in feed order
+     */
+    static List<Post> sorted(PageAlgorithm algorithm, Collection<Post> posts) {
+        Post[] items = posts.toArray(new Post[0]);
+        long[] keys = new long[items.length];
+        Integer[] order = new Integer[items.length];
+        for (int i = 0; i < items.length; i++) {
+            keys[i] = sortKey(algorithm, items[i]);
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> keys[i]));
+        List<Post> result = new ArrayList<>(items.length);
+        for (int i : order) {
+            result.add(items[i]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,177 @@
+package project;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The follow relationships between the members of a SocialConnect platform.
+ * <p>
+ * Members are identified by their dense user IDs. Every edge is stored in both
+ * directions, once in the follower's outgoing set and once in the followee's
+ * incoming set, so "does A follow B", "who follows B" and "who does A follow"
+ * are all answered without scanning. The adjacency sets are hash sets, making
+ * edge lookups O(1).
+ * <p>
+ * The graph is safe for concurrent use. Adding or removing an edge updates
+ * both directions under a lock striped by the follower's ID, so both sides
+ * always agree once the call returns.
+ */
+public class FollowGraph {
+    /** Number of lock stripes; must be a power of two */
+    private static final int STRIPES = 64;
+
+    /** Users each user follows, keyed by follower ID */
+    private final ConcurrentHashMap<Integer, Set<Integer>> following;
+
+    /** Followers of each user, keyed by followee ID */
+    private final ConcurrentHashMap<Integer, Set<Integer>> followers;
+
+    /** Locks guarding edge updates, chosen by follower ID */
+    private final Object[] locks;
+
+    /**
+     * Creates an empty follow graph.
+     */
+    public FollowGraph() {
+        this.following = new ConcurrentHashMap<>();
+        this.followers = new ConcurrentHashMap<>();
+        this.locks = new Object[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Adds an edge from a follower to a followee.
+     *
+     * @param followerID The user ID of the follower
+     * @param followeeID The user ID of the user being followed
+     * @return true if the edge did not exist before
+     * @throws IllegalArgumentException if an ID is negative or both IDs are the
+     *                                  same
+     */
+    public boolean follow(int followerID, int followeeID) {
+        checkEdge(followerID, followeeID);
+        synchronized (lockFor(followerID)) {
+            if (!following.computeIfAbsent(followerID, id -> ConcurrentHashMap.newKeySet()).add(followeeID)) {
+                return false;
+            }
+            followers.computeIfAbsent(followeeID, id -> ConcurrentHashMap.newKeySet()).add(followerID);
+            return true;
+        }
+    }
+
+    /**
+     * Removes the edge from a follower to a followee.
+     *
+     * @param followerID The user ID of the follower
+     * @param followeeID The user ID of the user being unfollowed
+     * @return true if the edge existed
+     */
+    public boolean unfollow(int followerID, int followeeID) {
+        synchronized (lockFor(followerID)) {
+            Set<Integer> out = following.get(followerID);
+            if (out == null || !out.remove(followeeID)) {
+                return false;
+            }
+            Set<Integer> in = followers.get(followeeID);
+            if (in != null) {
+                in.remove(followerID);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Checks if one user follows another.
+     *
+     * @param followerID The user ID of the possible follower
+     * @param followeeID The user ID of the possible followee
+     * @return true if the edge exists
+     */
+    public boolean isFollowing(int followerID, int followeeID) {
+        Set<Integer> out = following.get(followerID);
+        return out != null && out.contains(followeeID);
+    }
+
+    /**
+     * Returns the IDs of the users who follow the given user.
+     *
+     * @param userID The user ID
+     * @return The follower IDs in ascending order
+     */
+    public int[] getFollowers(int userID) {
+        return toSortedArray(followers.get(userID));
+    }
+
+    /**
+     * Returns the IDs of the users the given user follows.
+     *
+     * @param userID The user ID
+     * @return The followee IDs in ascending order
+     */
+    public int[] getFollowing(int userID) {
+        return toSortedArray(following.get(userID));
+    }
+
+    /**
+     * Returns the number of followers of a user.
+     *
+     * @param userID The user ID
+     * @return The follower count
+     */
+    public int followerCount(int userID) {
+        return followers.getOrDefault(userID, Collections.emptySet()).size();
+    }
+
+    /**
+     * Returns the number of users a user follows.
+     *
+     * @param userID The user ID
+     * @return The following count
+     */
+    public int followingCount(int userID) {
+        return following.getOrDefault(userID, Collections.emptySet()).size();
+    }
+
+    /**
+     * Removes every edge that starts or ends at a user. Used when a member
+     * leaves the platform.
+     *
+     * @param userID The user ID
+     */
+    public void removeUser(int userID) {
+        for (int followee : getFollowing(userID)) {
+            unfollow(userID, followee);
+        }
+        for (int follower : getFollowers(userID)) {
+            unfollow(follower, userID);
+        }
+        following.remove(userID);
+        followers.remove(userID);
+    }
+
+    private Object lockFor(int followerID) {
+        return locks[followerID & (STRIPES - 1)];
+    }
+
+    private static void checkEdge(int followerID, int followeeID) {
+        if (followerID < 0 || followeeID < 0) {
+            throw new IllegalArgumentException("Only registered members can follow each other");
+        }
+        if (followerID == followeeID) {
+            throw new IllegalArgumentException("Cannot follow yourself");
+        }
+    }
+
+    private static int[] toSortedArray(Set<Integer> ids) {
+        if (ids == null) {
+            return new int[0];
+        }
+        int[] result = ids.stream().mapToInt(Integer::intValue).toArray();
+        Arrays.sort(result);
+        return result;
+    }
+}
@@ -5,24 +5,31 @@ import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
-import javax.imageio.ImageIO;
+import java.util.concurrent.CompletableFuture;
 
 import project.enums.PostAudience;
+import project.util.ImageCache;
+import project.util.RenditionLabel;
 
 /**
  * Represents an image post in the social media platform.
  * This class extends the base Post class and adds functionality specific to image posts.
+ * <p>
+ * A post only keeps the path to its image. The image is decoded on demand in
+ * the background and held in the shared, memory-bounded {@link ImageCache},
+ * so creating a post never waits on the decoder and images of posts that are
+ * no longer shown can be evicted.
  */
 public class ImagePost extends Post {
     /** The caption for this image post */
     public String caption;
     
-    /** The loaded image */
-    public BufferedImage image;
-    
     /** The path to the image file */
     public String imagePath;
 
+    /** Tallest the image is drawn by {@link #display()} */
+    private static final int MAX_DISPLAY_HEIGHT = 600;
+
     /**
      * Creates a new image post.
      * 
@@ -30,26 +37,53 @@ public class ImagePost extends Post {
      * @param owner The username of the post owner
      * @param imagePath The path to the image file
      * @param caption The caption for the image
-     * @throws IOException If there is an error loading the image
+     * @throws IOException If the image file does not exist
      */
     public ImagePost(PostAudience whoCanSee, String owner, String imagePath, String caption) throws IOException {
         super(whoCanSee, owner);
+        if (imagePath == null || !new File(imagePath).isFile()) {
+            throw new IOException("Image file not found: " + imagePath);
+        }
         this.caption = caption;
         this.imagePath = imagePath;
-        loadImage();
     }
 
     /**
-     * Loads the image from the file system.
+     * Restores an image post with a known ID, e.g. one loaded from storage. The
+     * image file is not checked; if it has gone, the post shows an error in
+     * place of the image.
      * 
-     * @throws IOException If there is an error loading the image
+     * @param whoCanSee The audience for this post
+     * @param owner The username of the post owner
+     * @param imagePath The path to the image file
+     * @param caption The caption for the image
+     * @param postID The ID of the post
      */
-    private void loadImage() throws IOException {
-        File imageFile = new File(imagePath);
-        if (!imageFile.exists()) {
-            throw new IOException("Image file not found: " + imagePath);
-        }
-        this.image = ImageIO.read(imageFile);
+    public ImagePost(PostAudience whoCanSee, String owner, String imagePath, String caption, int postID) {
+        super(whoCanSee, owner, postID);
+        this.caption = caption;
+        this.imagePath = imagePath;
+    }
+
+    /**
+     * Returns the decoded image, decoding it in the background if it is not in
+     * the shared image cache. Never call {@code join()} on the result from the
+     * event dispatch thread; use a completion callback instead.
+     * 
+     * @return A future for the image; it completes exceptionally if the image
+     *         cannot be read
+     */
+    public CompletableFuture<BufferedImage> loadImage() {
+        return ImageCache.shared().load(imagePath);
+    }
+
+    /**
+     * Returns the decoded image if it is already in the shared image cache.
+     * 
+     * @return The image, or null if it has not been decoded or was evicted
+     */
+    public BufferedImage getCachedImage() {
+        return ImageCache.shared().getIfPresent(imagePath);
     }
 
     @Override
@@ -64,53 +98,16 @@ public class ImagePost extends Post {
         panel.setBackground(Color.WHITE);
         panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
-        // Add image
-        if (image != null) {
-            // Create a wrapper panel that will handle the image resizing
-            JPanel imageWrapper = new JPanel(new BorderLayout());
-            imageWrapper.setBackground(Color.WHITE);
-            
-            // Create a custom JLabel that will resize the image based on available width
-            JLabel imageLabel = new JLabel() {
-                @Override
-                public void setBounds(int x, int y, int width, int height) {
-                    super.setBounds(x, y, width, height);
-                    if (width > 0 && image != null) {
-                        // Calculate scaled dimensions while maintaining aspect ratio
-                        double scale = (double) width / image.getWidth();
-                        int scaledHeight = (int) (image.getHeight() * scale);
-                        
-                        // Limit maximum height if needed
-                        int maxHeight = 600;
-                        if (scaledHeight > maxHeight) {
-                            scale = (double) maxHeight / image.getHeight();
-                            width = (int) (image.getWidth() * scale);
-                            scaledHeight = maxHeight;
-                        }
-                        
-                        // Create scaled version of the image
-                        Image scaledImage = image.getScaledInstance(width, scaledHeight, Image.SCALE_SMOOTH);
-                        setIcon(new ImageIcon(scaledImage));
-                    }
-                }
-            };
-            
-            imageLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-            imageWrapper.add(imageLabel, BorderLayout.CENTER);
-            panel.add(imageWrapper);
-            
-            // Add a component listener to handle resize events
-            panel.addComponentListener(new java.awt.event.ComponentAdapter() {
-                @Override
-                public void componentResized(java.awt.event.ComponentEvent e) {
-                    int availableWidth = panel.getWidth() - 20; // Account for border
-                    if (availableWidth > 0) {
-                        imageLabel.setBounds(0, 0, availableWidth, 0);
-                        panel.revalidate();
-                    }
-                }
-            });
-        }
+        // Add image; it is decoded and scaled in the background and shown once ready
+        JPanel imageWrapper = new JPanel(new BorderLayout());
+        imageWrapper.setBackground(Color.WHITE);
+
+        // The label picks a cached rendition for the width the wrapper gives it
+        RenditionLabel imageLabel = new RenditionLabel(imagePath, MAX_DISPLAY_HEIGHT);
+        imageLabel.setHorizontalAlignment(SwingConstants.CENTER);
+        imageLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+        imageWrapper.add(imageLabel, BorderLayout.CENTER);
+        panel.add(imageWrapper);
 
         // Add caption if present
         if (caption != null && !caption.isEmpty()) {
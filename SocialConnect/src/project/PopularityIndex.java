@@ -0,0 +1,165 @@
+package project;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+
+import project.enums.PostAudience;
+
+/**
+ * Keeps the posts of a SocialConnect platform ordered by popularity, so the
+ * Popular page can be read without sorting.
+ * The popularity score of a post is its upvotes minus its downvotes, plus
+ * {@value #RESHARE_WEIGHT} for every logged reshare of it, including reshares
+ * of reshares. Posts are ordered by popularity score, highest first; ties are
+ * broken by post ID, newest first. Both are packed into the Popular sort key
+ * of {@link FeedPage}, so a feed cursor can seek straight to its position. A post
+ * must be repositioned whenever its score changes, which {@link Post} does
+ * through {@link #update(Post, int)} on a vote and the platform does when a
+ * reshare is logged or deleted.
+ * <p>
+ * Posts that every member can see are also kept in a second ranking of their
+ * own, so a member's feed can read them without skipping the posts it may not
+ * show.
+ * <p>
+ * The index is safe for concurrent use. Callers must hold the lock of a post
+ * while adding, removing or updating it, so that its key cannot change in
+ * between.
+ */
+public class PopularityIndex implements RankedPosts {
+    /** Popularity a post gains from each of its reshares */
+    public static final int RESHARE_WEIGHT = 2;
+
+    /** The ranked posts keyed by their Popular sort key */
+    private final ConcurrentSkipListMap<Long, Post> ranked;
+
+    /** The ranked posts that every member can see, keyed like {@link #ranked} */
+    private final ConcurrentSkipListMap<Long, Post> shared;
+
+    /**
+     * Creates an empty popularity index.
+     */
+    public PopularityIndex() {
+        this.ranked = new ConcurrentSkipListMap<>();
+        this.shared = new ConcurrentSkipListMap<>();
+    }
+
+    /**
+     * Adds a post to the index.
+     *
+     * @param post The post to add
+     */
+    void add(Post post) {
+        ranked.put(key(post), post);
+        if (isShared(post)) {
+            shared.put(key(post), post);
+        }
+    }
+
+    /**
+     * Removes a post from the index.
+     *
+     * @param post The post to remove
+     */
+    void remove(Post post) {
+        ranked.remove(key(post), post);
+        shared.remove(key(post), post);
+    }
+
+    /**
+     * Changes the popularity score of a post and moves it to its new position.
+     * The post is taken out under its old score and put back under the new one,
+     * so this costs O(log n).
+     *
+     * @param post  The post whose score changes
+     * @param delta The amount to add to the score
+     */
+    void update(Post post, int delta) {
+        boolean indexed = ranked.remove(key(post), post);
+        shared.remove(key(post), post);
+        post.popularityScore += delta;
+        if (indexed) {
+            ranked.put(key(post), post);
+            if (isShared(post)) {
+                shared.put(key(post), post);
+            }
+        }
+    }
+
+    /**
+     * Returns the most popular posts that match a filter, in ranking order.
+     * The walk stops as soon as enough posts have been found.
+     *
+     * @param filter The posts to keep
+     * @param limit  The maximum number of posts to return
+     * @return The matching posts, most popular first
+     */
+    public List<Post> top(Predicate<Post> filter, int limit) {
+        return after(Long.MIN_VALUE, filter, limit);
+    }
+
+    /**
+     * Returns the posts that match a filter and rank after the given sort key,
+     * in ranking order. Used to read the Popular feed one page at a time.
+     *
+     * @param afterKey The sort key of the last post already read
+     * @param filter   The posts to keep
+     * @param limit    The maximum number of posts to return
+     * @return The matching posts, most popular first
+     */
+    @Override
+    public List<Post> after(long afterKey, Predicate<Post> filter, int limit) {
+        return walk(ranked, afterKey, filter, limit);
+    }
+
+    /**
+     * Returns the posts every member can see that rank after the given sort
+     * key, in ranking order. No post is skipped, so this costs O(log n + limit).
+     *
+     * @param afterKey The sort key of the last post already read
+     * @param limit    The maximum number of posts to return
+     * @return The posts, most popular first
+     */
+    @Override
+    public List<Post> sharedAfter(long afterKey, int limit) {
+        return walk(shared, afterKey, post -> true, limit);
+    }
+
+    /**
+     * Returns the number of posts in the index.
+     *
+     * @return The number of ranked posts
+     */
+    public int size() {
+        return ranked.size();
+    }
+
+    private static List<Post> walk(ConcurrentSkipListMap<Long, Post> index, long afterKey, Predicate<Post> filter,
+            int limit) {
+        List<Post> result = new ArrayList<>();
+        for (Post post : index.tailMap(afterKey, false).values()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            if (filter.test(post)) {
+                result.add(post);
+            }
+        }
+        return result;
+    }
+
+    private static boolean isShared(Post post) {
+        return post.getAudience() == PostAudience.Members;
+    }
+
+    /**
+     * Returns the key a post is stored under.
+     *
+     * @param post The post
+     * @return The Popular sort key of the post
+     */
+    private static long key(Post post) {
+        return FeedPage.popularityKey(post.getPopularityScore(), post.getPostID());
+    }
+}
@@ -1,11 +1,16 @@
 package project;
 
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.swing.*;
 import java.awt.*;
 
 import project.enums.PostAudience;
 import project.interfaces.Displayable;
+import project.metrics.OperationMetrics;
+import project.util.VoteBitmap;
 
 /**
  * @author 
@@ -18,10 +23,13 @@ import project.interfaces.Displayable;
  * This class serves as the base class for different types of posts (Regular and
  * Reshared).
  * It implements the Displayable interface for GUI representation.
+ * <p>
+ * Voting is thread-safe: every vote and vote query runs under the lock of the
+ * post, and post IDs are allocated atomically.
  */
 public abstract class Post implements Displayable {
     /** Counter to generate unique post IDs */
-    private static int id_count = 0;
+    private static final AtomicInteger id_count = new AtomicInteger();
 
     /** Unique identifier for the post */
     protected int postID;
@@ -29,18 +37,48 @@ public abstract class Post implements Displayable {
     /** Visibility setting for the post */
     protected PostAudience whoCanSee;
 
-    /** Score indicating the post's popularity based on votes */
-    protected int popularityScore;
+    /**
+     * Score indicating the post's popularity: its votes, plus
+     * {@link PopularityIndex#RESHARE_WEIGHT} for each logged reshare
+     */
+    protected volatile int popularityScore;
+
+    /** When the post was created, in milliseconds since the epoch */
+    protected volatile long createdAt;
+
+    /** When the latest vote on the post was cast, or 0 if it has none */
+    protected volatile long lastVoteAt;
+
+    /**
+     * Time-decayed vote total of the post, relative to the base time of the
+     * platform's {@link TrendingIndex}, which keeps it while the post is logged
+     */
+    volatile double trendingHeat;
+
+    /** User IDs of the members who upvoted the post */
+    protected VoteBitmap upVoters;
+
+    /** User IDs of the members who downvoted the post */
+    protected VoteBitmap downVoters;
+
+    /**
+     * Usernames of upvoters without a user ID on the post's platform, e.g. votes
+     * cast before the post was logged. Created on first use.
+     */
+    private HashSet<String> unindexedUpVoters;
 
-    /** List of usernames who upvoted the post */
-    protected ArrayList<String> upVoters;
+    /** Usernames of downvoters without a user ID, created on first use */
+    private HashSet<String> unindexedDownVoters;
 
-    /** List of usernames who downvoted the post */
-    protected ArrayList<String> downVoters;
+    /** Post IDs of the logged reshares of this post, created on first reshare */
+    private VoteBitmap reshareIDs;
 
     /** Username of the post owner */
     protected String owner;
 
+    /** The platform this post has been logged on, or null if it is not logged */
+    volatile SocialConnect postedOn;
+
     /**
      * Constructs a new Post with specified visibility and owner.
      * 
@@ -49,15 +87,39 @@ public abstract class Post implements Displayable {
      * @throws IllegalArgumentException if owner is null or empty
      */
     public Post(PostAudience whoCanSee, String owner) {
+        this(whoCanSee, owner, id_count.incrementAndGet());
+    }
+
+    /**
+     * Constructs a post with a known ID, e.g. one restored from storage. Later
+     * posts are given higher IDs.
+     * 
+     * @param whoCanSee The visibility setting for the post
+     * @param owner     The username of the post creator
+     * @param postID    The ID of the post
+     * @throws IllegalArgumentException if owner is null or empty
+     */
+    protected Post(PostAudience whoCanSee, String owner, int postID) {
         if (owner == null || owner.isEmpty()) {
             throw new IllegalArgumentException("Post owner cannot be null or empty");
         }
-        postID = ++id_count;
+        updateIDCounter(postID);
+        this.postID = postID;
         this.whoCanSee = whoCanSee;
         this.owner = owner;
         this.popularityScore = 0;
-        this.upVoters = new ArrayList<>();
-        this.downVoters = new ArrayList<>();
+        this.createdAt = System.currentTimeMillis();
+        this.upVoters = new VoteBitmap();
+        this.downVoters = new VoteBitmap();
+    }
+
+    /**
+     * Makes sure new posts get IDs above the given one.
+     * 
+     * @param maxID The highest post ID in use
+     */
+    public static void updateIDCounter(int maxID) {
+        id_count.accumulateAndGet(maxID, Math::max);
     }
 
     /**
@@ -96,6 +158,99 @@ public abstract class Post implements Displayable {
         return popularityScore;
     }
 
+    /**
+     * Returns when the post was created.
+     * 
+     * @return The creation time, in milliseconds since the epoch
+     */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Returns when the latest vote on the post was cast.
+     * 
+     * @return The time of the latest vote, in milliseconds since the epoch, or
+     *         0 if the post has no votes
+     */
+    public long getLastVoteAt() {
+        return lastVoteAt;
+    }
+
+    /**
+     * Sets the creation and last vote times of a post loaded from storage.
+     * Must be called before the post is logged.
+     * 
+     * @param createdAt  The creation time, in milliseconds since the epoch
+     * @param lastVoteAt The time of the latest vote, or 0 if there is none
+     * @throws IllegalStateException if the post is already logged
+     */
+    public void restoreTimestamps(long createdAt, long lastVoteAt) {
+        if (postedOn != null) {
+            throw new IllegalStateException("Timestamps of a logged post cannot be changed");
+        }
+        this.createdAt = createdAt;
+        this.lastVoteAt = lastVoteAt;
+    }
+
+    /**
+     * Returns the trending score of the post: its votes, with the post itself
+     * counting as one upvote when it is created, each decayed by its age at
+     * the given time. Halves every {@link TrendingIndex#HALF_LIFE_MILLIS}.
+     * 
+     * @param at The time to score at, in milliseconds since the epoch
+     * @return The trending score, or 0 if the post is not logged
+     */
+    public double getTrendingScore(long at) {
+        SocialConnect platform = postedOn;
+        return platform == null ? 0 : platform.getTrending().scoreAt(this, at);
+    }
+
+    /**
+     * Returns the number of logged reshares of this post, including reshares
+     * of those reshares.
+     * 
+     * @return The reshare count
+     */
+    public synchronized int getReshareCount() {
+        return reshareIDs == null ? 0 : reshareIDs.cardinality();
+    }
+
+    /**
+     * Returns the post IDs of the logged reshares of this post, including
+     * reshares of those reshares.
+     * 
+     * @return The reshare IDs in ascending order
+     */
+    public synchronized int[] getReshareIDs() {
+        return reshareIDs == null ? new int[0] : reshareIDs.toArray();
+    }
+
+    /**
+     * Records a logged reshare of this post. Called by the platform while it
+     * holds the lock of this post.
+     * 
+     * @param reshareID The post ID of the reshare
+     * @return true if the reshare was not already recorded
+     */
+    boolean addReshare(int reshareID) {
+        if (reshareIDs == null) {
+            reshareIDs = new VoteBitmap();
+        }
+        return reshareIDs.add(reshareID);
+    }
+
+    /**
+     * Forgets a reshare of this post that has been deleted. Called by the
+     * platform while it holds the lock of this post.
+     * 
+     * @param reshareID The post ID of the reshare
+     * @return true if the reshare was recorded
+     */
+    boolean removeReshare(int reshareID) {
+        return reshareIDs != null && reshareIDs.remove(reshareID);
+    }
+
     /**
      * Checks if a user can vote on this post.
      * Users cannot vote on their own posts or vote multiple times.
@@ -103,7 +258,7 @@ public abstract class Post implements Displayable {
      * @param username The username of the voter
      * @return true if the user can vote, false otherwise
      */
-    public boolean canVote(String username) {
+    public synchronized boolean canVote(String username) {
         // Users cannot vote on their own posts
         if (owner.equals(username)) {
             return false;
@@ -120,12 +275,40 @@ public abstract class Post implements Displayable {
      * @return true if the vote was added, false if the user cannot vote
      */
     public boolean upvote(String username) {
+        return upvote(username, System.currentTimeMillis());
+    }
+
+    /**
+     * Adds an upvote cast at a given time, e.g. one loaded from storage.
+     *
+     * @param username The username of the voter
+     * @param votedAt  When the vote was cast, in milliseconds since the epoch
+     * @return true if the vote was added, false if the user cannot vote
+     */
+    public boolean upvote(String username, long votedAt) {
+        return timeVote(username, votedAt, true);
+    }
+
+    /**
+     * Adds an upvote if the user can still vote.
+     */
+    private synchronized boolean addUpvote(String username, long votedAt) {
         if (!canVote(username)) {
             return false;
         }
 
-        upVoters.add(username);
-        popularityScore++;
+        User voter = indexedVoter(username);
+        if (voter != null) {
+            upVoters.add(voter.getUserID());
+            voter.recordVote(postID);
+        } else {
+            if (unindexedUpVoters == null) {
+                unindexedUpVoters = new HashSet<>();
+            }
+            unindexedUpVoters.add(username);
+        }
+        changeScore(1, votedAt);
+        reportVote(username, true);
         return true;
     }
 
@@ -136,23 +319,127 @@ public abstract class Post implements Displayable {
      * @return true if the vote was added, false if the user cannot vote
      */
     public boolean downvote(String username) {
+        return downvote(username, System.currentTimeMillis());
+    }
+
+    /**
+     * Adds a downvote cast at a given time, e.g. one loaded from storage.
+     *
+     * @param username The username of the voter
+     * @param votedAt  When the vote was cast, in milliseconds since the epoch
+     * @return true if the vote was added, false if the user cannot vote
+     */
+    public boolean downvote(String username, long votedAt) {
+        return timeVote(username, votedAt, false);
+    }
+
+    /**
+     * Adds a downvote if the user can still vote.
+     */
+    private synchronized boolean addDownvote(String username, long votedAt) {
         if (!canVote(username)) {
             return false;
         }
 
-        downVoters.add(username);
-        popularityScore--;
+        User voter = indexedVoter(username);
+        if (voter != null) {
+            downVoters.add(voter.getUserID());
+            voter.recordVote(postID);
+        } else {
+            if (unindexedDownVoters == null) {
+                unindexedDownVoters = new HashSet<>();
+            }
+            unindexedDownVoters.add(username);
+        }
+        changeScore(-1, votedAt);
+        reportVote(username, false);
         return true;
     }
 
+    /**
+     * Casts a vote, recording its latency in the platform's metrics when the
+     * post is logged. The post's lock is not held while the time is recorded.
+     */
+    private boolean timeVote(String username, long votedAt, boolean isUpvote) {
+        SocialConnect platform = postedOn;
+        if (platform == null) {
+            return isUpvote ? addUpvote(username, votedAt) : addDownvote(username, votedAt);
+        }
+        OperationMetrics votes = platform.getMetrics().getVotes();
+        long start = votes.start();
+        boolean added = false;
+        try {
+            added = isUpvote ? addUpvote(username, votedAt) : addDownvote(username, votedAt);
+            return added;
+        } finally {
+            votes.stop(start, added);
+        }
+    }
+
+    /**
+     * Changes the popularity score and records the time of the vote, keeping
+     * the platform's popularity and trending rankings in step when the post is
+     * logged.
+     *
+     * @param delta   The amount to add to the score
+     * @param votedAt When the vote was cast
+     */
+    private void changeScore(int delta, long votedAt) {
+        lastVoteAt = Math.max(lastVoteAt, votedAt);
+        if (postedOn != null) {
+            postedOn.getRanking().update(this, delta);
+            postedOn.getTrending().vote(this, delta, votedAt);
+        } else {
+            popularityScore += delta;
+        }
+    }
+
+    /**
+     * Takes back the vote of a member who is leaving the platform, so the
+     * counts, the voter lists and the rankings no longer include it. Only the
+     * time of the last vote is kept, so the vote is taken back as if it had
+     * been cast then.
+     *
+     * @param voterID The user ID of the departing member
+     * @return true if the member had voted on this post
+     */
+    synchronized boolean clearVote(int voterID) {
+        int delta;
+        if (upVoters.remove(voterID)) {
+            delta = -1;
+        } else if (downVoters.remove(voterID)) {
+            delta = 1;
+        } else {
+            return false;
+        }
+        if (postedOn != null) {
+            postedOn.getRanking().update(this, delta);
+            postedOn.getTrending().vote(this, delta, lastVoteAt);
+        } else {
+            popularityScore += delta;
+        }
+        return true;
+    }
+
+    /**
+     * Tells the platform's mutation listeners about a vote on a logged post.
+     */
+    private void reportVote(String username, boolean isUpvote) {
+        SocialConnect platform = postedOn;
+        if (platform != null) {
+            platform.voteCast(this, username, isUpvote);
+        }
+    }
+
     /**
      * Checks if a user has upvoted this post.
      *
      * @param username The username to check
      * @return true if the user has upvoted, false otherwise
      */
-    public boolean hasUpvoted(String username) {
-        return upVoters.contains(username);
+    public synchronized boolean hasUpvoted(String username) {
+        return upVoters.contains(voterID(username))
+                || (unindexedUpVoters != null && unindexedUpVoters.contains(username));
     }
 
     /**
@@ -161,8 +448,87 @@ public abstract class Post implements Displayable {
      * @param username The username to check
      * @return true if the user has downvoted, false otherwise
      */
-    public boolean hasDownvoted(String username) {
-        return downVoters.contains(username);
+    public synchronized boolean hasDownvoted(String username) {
+        return downVoters.contains(voterID(username))
+                || (unindexedDownVoters != null && unindexedDownVoters.contains(username));
+    }
+
+    /**
+     * Returns the number of upvotes on this post.
+     *
+     * @return The number of upvotes
+     */
+    public synchronized int getUpvoteCount() {
+        return upVoters.cardinality() + (unindexedUpVoters == null ? 0 : unindexedUpVoters.size());
+    }
+
+    /**
+     * Returns the number of downvotes on this post.
+     *
+     * @return The number of downvotes
+     */
+    public synchronized int getDownvoteCount() {
+        return downVoters.cardinality() + (unindexedDownVoters == null ? 0 : unindexedDownVoters.size());
+    }
+
+    /**
+     * Returns the usernames of the users who upvoted this post.
+     *
+     * @return The usernames of the upvoters
+     */
+    public synchronized List<String> getUpvoters() {
+        return voterNames(upVoters, unindexedUpVoters);
+    }
+
+    /**
+     * Returns the usernames of the users who downvoted this post.
+     *
+     * @return The usernames of the downvoters
+     */
+    public synchronized List<String> getDownvoters() {
+        return voterNames(downVoters, unindexedDownVoters);
+    }
+
+    private List<String> voterNames(VoteBitmap indexed, HashSet<String> unindexed) {
+        List<String> names = new ArrayList<>();
+        SocialConnect platform = postedOn;
+        if (platform != null) {
+            for (int voterID : indexed.toArray()) {
+                User voter = platform.getUserByID(voterID);
+                if (voter != null) {
+                    names.add(voter.getUsername());
+                }
+            }
+        }
+        if (unindexed != null) {
+            names.addAll(unindexed);
+        }
+        return names;
+    }
+
+    /**
+     * Resolves a username to the dense user ID its owner was given when they
+     * registered on the platform this post is logged on.
+     *
+     * @param username The username of the voter
+     * @return The user ID, or -1 if the post is not logged or the username is
+     *         not a member
+     */
+    private int voterID(String username) {
+        User voter = indexedVoter(username);
+        return voter == null ? -1 : voter.getUserID();
+    }
+
+    /**
+     * Returns the member whose votes on this post are kept by user ID.
+     *
+     * @param username The username of the voter
+     * @return The member, or null if the post is not logged or the username
+     *         is not a member
+     */
+    private User indexedVoter(String username) {
+        SocialConnect platform = postedOn;
+        return platform == null ? null : platform.getUser(username);
     }
 
     /**
@@ -196,8 +562,8 @@ public abstract class Post implements Displayable {
         JLabel postIDLabel = new JLabel("Post ID: " + postID);
         JLabel ownerLabel = new JLabel("Posted by: " + owner);
         JLabel audienceLabel = new JLabel("Visibility: " + whoCanSee.getDescription());
-        JLabel scoreLabel = new JLabel("Score: " + popularityScore + " (" + upVoters.size() + " upvotes, "
-                + downVoters.size() + " downvotes)");
+        JLabel scoreLabel = new JLabel("Score: " + popularityScore + " (" + getUpvoteCount() + " upvotes, "
+                + getDownvoteCount() + " downvotes, " + getReshareCount() + " reshares)");
 
         panel.add(postIDLabel);
         panel.add(ownerLabel);
@@ -227,8 +593,8 @@ public abstract class Post implements Displayable {
      * 
      * @return The vote count
      */
-    public int getVoteCount() {
-        return upVoters.size() - downVoters.size();
+    public synchronized int getVoteCount() {
+        return getUpvoteCount() - getDownvoteCount();
     }
 
     /**
@@ -0,0 +1,289 @@
+package project;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+
+import project.enums.PostDataType;
+import project.util.PostingList;
+import project.util.VoteBitmap;
+
+/**
+ * An inverted index from words to the posts of a SocialConnect platform that
+ * contain them, so posts can be searched by keyword without scanning.
+ * <p>
+ * The text items of a {@link RegularPost} and the caption of an
+ * {@link ImagePost} are split into lowercase words of letters and digits.
+ * Each word keeps a {@link PostingList} of the IDs of the posts that contain
+ * it. Reshares are not indexed; they carry the text of their original.
+ * <p>
+ * Post IDs only grow, so indexing a new post appends to the end of each of its
+ * posting lists. Deleting a post only marks its ID as deleted; the marked IDs
+ * are skipped by queries and swept out of all lists at once when they make up
+ * a quarter of the index.
+ * <p>
+ * The index is safe for concurrent use; queries share a read lock and only
+ * indexing and deleting take the write lock.
+ */
+public class PostTextIndex {
+    /** Longest word that is indexed; longer runs are cut to this length */
+    static final int MAX_WORD_LENGTH = 64;
+
+    /** Fewest deleted posts that trigger a sweep, however small the index */
+    private static final int MIN_SWEEP = 1024;
+
+    /** Posting list of each word */
+    private final Map<String, PostingList> postings;
+
+    /** IDs of the indexed posts, including deleted ones not yet swept */
+    private final VoteBitmap indexed;
+
+    /** IDs of deleted posts that are still in the posting lists */
+    private final VoteBitmap deleted;
+
+    private final ReentrantReadWriteLock lock;
+
+    /**
+     * Creates an empty index.
+     */
+    public PostTextIndex() {
+        this.postings = new HashMap<>();
+        this.indexed = new VoteBitmap();
+        this.deleted = new VoteBitmap();
+        this.lock = new ReentrantReadWriteLock();
+    }
+
+    /**
+     * Indexes the text of a post. Posts without indexed text and posts that
+     * are already indexed are ignored.
+     *
+     * @param post The post to index
+     */
+    public void add(Post post) {
+        Set<String> words = words(indexedText(post));
+        if (words.isEmpty()) {
+            return;
+        }
+        int postID = post.getPostID();
+        lock.writeLock().lock();
+        try {
+            if (deleted.remove(postID)) {
+                // Restored before its old postings were swept; they are still valid
+                return;
+            }
+            if (!indexed.add(postID)) {
+                return;
+            }
+            for (String word : words) {
+                postings.computeIfAbsent(word, w -> new PostingList()).add(postID);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a post from the index.
+     *
+     * @param post The post to remove
+     */
+    public void remove(Post post) {
+        int postID = post.getPostID();
+        lock.writeLock().lock();
+        try {
+            if (!indexed.contains(postID) || !deleted.add(postID)) {
+                return;
+            }
+            int live = indexed.cardinality() - deleted.cardinality();
+            if (deleted.cardinality() >= Math.max(MIN_SWEEP, live / 3)) {
+                sweep();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the posts that contain every word of a query, newest first.
+     * Candidates are offered to a filter in that order until enough have been
+     * accepted, so a visibility check only runs on the posts it needs to.
+     *
+     * @param query  The words to look for
+     * @param accept Decides whether a matching post ID is returned
+     * @param limit  The maximum number of post IDs to return
+     * @return The accepted post IDs, newest first
+     */
+    public int[] search(String query, IntPredicate accept, int limit) {
+        Set<String> words = words(query);
+        if (words.isEmpty() || limit <= 0) {
+            return new int[0];
+        }
+        int[] matches;
+        lock.readLock().lock();
+        try {
+            matches = intersect(words);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Filter outside the lock; the visibility check may take other locks
+        int[] result = new int[Math.min(limit, matches.length)];
+        int found = 0;
+        for (int i = matches.length - 1; i >= 0 && found < result.length; i--) {
+            if (accept.test(matches[i])) {
+                result[found++] = matches[i];
+            }
+        }
+        return Arrays.copyOf(result, found);
+    }
+
+    /**
+     * Returns the number of distinct words in the index.
+     *
+     * @return The vocabulary size
+     */
+    public int wordCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of bytes used by the posting lists.
+     *
+     * @return The encoded size of all posting lists
+     */
+    public long sizeInBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (PostingList list : postings.values()) {
+                bytes += list.sizeInBytes();
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Intersects the posting lists of some words, shortest first, leaving out
+     * deleted posts. Must be called under the read lock.
+     *
+     * @return The matching post IDs in ascending order
+     */
+    private int[] intersect(Set<String> words) {
+        List<PostingList> lists = new ArrayList<>(words.size());
+        for (String word : words) {
+            PostingList list = postings.get(word);
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(PostingList::size));
+
+        int[] candidates = lists.get(0).toArray();
+        int count = 0;
+        for (int id : candidates) {
+            if (!deleted.contains(id)) {
+                candidates[count++] = id;
+            }
+        }
+        for (int k = 1; k < lists.size() && count > 0; k++) {
+            PostingList.Cursor cursor = lists.get(k).cursor();
+            int kept = 0;
+            for (int c = 0; c < count; c++) {
+                int at = cursor.advanceTo(candidates[c]);
+                if (at < 0) {
+                    break;
+                }
+                if (at == candidates[c]) {
+                    candidates[kept++] = at;
+                }
+            }
+            count = kept;
+        }
+        return Arrays.copyOf(candidates, count);
+    }
+
+    /**
+     * Drops the deleted posts from every posting list. Must be called under the
+     * write lock.
+     */
+    private void sweep() {
+        Iterator<PostingList> lists = postings.values().iterator();
+        while (lists.hasNext()) {
+            PostingList list = lists.next();
+            list.removeAll(deleted);
+            if (list.size() == 0) {
+                lists.remove();
+            }
+        }
+        for (int postID : deleted.toArray()) {
+            indexed.remove(postID);
+        }
+        deleted.clear();
+    }
+
+    /**
+     * Returns the text of a post that is indexed.
+     *
+     * @param post The post
+     * @return The text, or an empty string if the post has none
+     */
+    static String indexedText(Post post) {
+        if (post instanceof RegularPost) {
+            StringBuilder text = new StringBuilder();
+            for (Content content : ((RegularPost) post).getContents()) {
+                if (content.getTypeOfData() == PostDataType.Text) {
+                    text.append(content.getData()).append(' ');
+                }
+            }
+            return text.toString();
+        }
+        if (post instanceof ImagePost) {
+            String caption = ((ImagePost) post).caption;
+            return caption == null ? "" : caption;
+        }
+        return "";
+    }
+
+    /**
+     * Splits text into its distinct lowercase words. A word is a run of
+     * letters and digits.
+     *
+     * @param text The text
+     * @return The words in order of first occurrence
+     */
+    static Set<String> words(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        if (text == null) {
+            return words;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                int end = Math.min(i, start + MAX_WORD_LENGTH);
+                words.add(text.substring(start, end).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return words;
+    }
+}
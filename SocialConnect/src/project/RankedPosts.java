@@ -0,0 +1,32 @@
+package project;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A ranking index that serves a page algorithm one page at a time.
+ * Implemented by {@link PopularityIndex} for Popular and {@link TrendingIndex}
+ * for Trending.
+ */
+interface RankedPosts {
+    /**
+     * Returns the posts that match a filter and rank after the given sort key,
+     * in ranking order.
+     *
+     * @param afterKey The sort key of the last post already read
+     * @param filter   The posts to keep
+     * @param limit    The maximum number of posts to return
+     * @return The matching posts in ranking order
+     */
+    List<Post> after(long afterKey, Predicate<Post> filter, int limit);
+
+    /**
+     * Returns the posts every member can see that rank after the given sort
+     * key, in ranking order.
+     *
+     * @param afterKey The sort key of the last post already read
+     * @param limit    The maximum number of posts to return
+     * @return The posts in ranking order
+     */
+    List<Post> sharedAfter(long afterKey, int limit);
+}
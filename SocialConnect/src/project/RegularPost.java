@@ -20,6 +20,9 @@ import java.util.List;
 public class RegularPost extends Post {
     private List<Content> contents;
 
+    /** Text of the first text item, found once since the contents never change */
+    private String text;
+
     /**
      * Constructs a new regular post with text only.
      *
@@ -35,6 +38,7 @@ public class RegularPost extends Post {
         }
         this.contents = new ArrayList<>();
         this.contents.add(new Content(text));
+        this.text = text;
     }
 
     /**
@@ -51,6 +55,25 @@ public class RegularPost extends Post {
             throw new IllegalArgumentException("Post contents cannot be null or empty");
         }
         this.contents = new ArrayList<>(contents);
+        this.text = firstText(this.contents);
+    }
+
+    /**
+     * Restores a regular post with a known ID, e.g. one loaded from storage.
+     *
+     * @param owner The username of the post creator
+     * @param contents List of content items
+     * @param whoCanSee The visibility setting for the post
+     * @param postID The ID of the post
+     * @throws IllegalArgumentException if contents is null or empty
+     */
+    public RegularPost(String owner, List<Content> contents, PostAudience whoCanSee, int postID) {
+        super(whoCanSee, owner, postID);
+        if (contents == null || contents.isEmpty()) {
+            throw new IllegalArgumentException("Post contents cannot be null or empty");
+        }
+        this.contents = new ArrayList<>(contents);
+        this.text = firstText(this.contents);
     }
 
     /**
@@ -59,6 +82,10 @@ public class RegularPost extends Post {
      * @return The post's text content
      */
     public String getText() {
+        return text;
+    }
+
+    private static String firstText(List<Content> contents) {
         for (Content content : contents) {
             if (content.getTypeOfData() == PostDataType.Text) {
                 return content.getData();
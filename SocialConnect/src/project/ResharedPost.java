@@ -15,31 +15,130 @@ import project.enums.PostAudience;
  * Represents a reshared post in the SocialConnect application.
  * A reshared post contains a reference to an original post along with an optional comment.
  * This class extends the base Post class and implements specific behavior for reshared content.
+ * <p>
+ * Reshare chains are flattened: a reshare of a reshare points straight at the
+ * root original, which is never itself a reshare, and only remembers the ID of
+ * the post it was made from and how deep in the chain it is. Text access and
+ * display therefore cost the same however long the chain grows.
  */
 public class ResharedPost extends Post {
 
     /** The audience setting for this post */
     private String audience;
     
-    /** The ID of the original post */
-    private int originalPostID;
+    /** The ID of the post this reshare was made from, which may be a reshare */
+    private int resharedPostID;
     
-    /** The original post being reshared */
+    /** The root original post, which is never a reshare */
     private Post originalPost;
 
+    /** Number of reshares between this post and its root, counting itself */
+    private int depth;
+
     /**
      * Creates a new ResharedPost.
      * 
      * @param audience The audience setting for this post
-     * @param originalPostID The ID of the original post
-     * @param originalPost The original post being reshared
+     * @param originalPostID The ID of the post being reshared
+     * @param originalPost The post being reshared, which may be a reshare
      * @param owner The username of the person resharing
      */
     public ResharedPost(String audience, int originalPostID, Post originalPost, String owner) {
         super(PostAudience.valueOf(audience), owner);
         this.audience = audience;
-        this.originalPostID = originalPostID;
-        this.originalPost = originalPost;
+        this.resharedPostID = originalPostID;
+        flatten(originalPost);
+    }
+
+    /**
+     * Restores a ResharedPost with a known ID, e.g. one loaded from storage.
+     * 
+     * @param audience The audience setting for this post
+     * @param originalPost The post being reshared, which may be a reshare
+     * @param owner The username of the person resharing
+     * @param postID The ID of this post
+     */
+    public ResharedPost(String audience, Post originalPost, String owner, int postID) {
+        super(PostAudience.valueOf(audience), owner, postID);
+        this.audience = audience;
+        this.resharedPostID = originalPost.getPostID();
+        flatten(originalPost);
+    }
+
+    /**
+     * Restores a ResharedPost whose chain was already flattened, e.g. one
+     * loaded from storage after the post it was made from was deleted.
+     * 
+     * @param audience The audience setting for this post
+     * @param rootPost The root original post
+     * @param resharedPostID The ID of the post this reshare was made from
+     * @param depth The depth of this reshare in its chain, at least 1
+     * @param owner The username of the person resharing
+     * @param postID The ID of this post
+     * @throws IllegalArgumentException if rootPost is a reshare or depth is
+     *                                  less than 1
+     */
+    public ResharedPost(String audience, Post rootPost, int resharedPostID, int depth, String owner, int postID) {
+        super(PostAudience.valueOf(audience), owner, postID);
+        if (rootPost instanceof ResharedPost || depth < 1) {
+            throw new IllegalArgumentException("A flattened reshare needs a root original and a depth of at least 1");
+        }
+        this.audience = audience;
+        this.resharedPostID = resharedPostID;
+        this.originalPost = rootPost;
+        this.depth = depth;
+    }
+
+    /**
+     * Points this reshare at the root of the post it was made from.
+     */
+    private void flatten(Post reshared) {
+        if (reshared instanceof ResharedPost) {
+            ResharedPost parent = (ResharedPost) reshared;
+            this.originalPost = parent.originalPost;
+            this.depth = parent.depth + 1;
+        } else {
+            this.originalPost = reshared;
+            this.depth = 1;
+        }
+    }
+
+    /**
+     * Returns the root original post of the reshare chain.
+     *
+     * @return The original post, never a reshare
+     */
+    public Post getOriginalPost() {
+        return originalPost;
+    }
+
+    /**
+     * Returns the ID of the root original post of the reshare chain.
+     *
+     * @return The original post ID
+     */
+    public int getOriginalPostID() {
+        return originalPost.getPostID();
+    }
+
+    /**
+     * Returns the ID of the post this reshare was made from. This is the
+     * original post for a direct reshare and a reshare otherwise.
+     *
+     * @return The ID of the reshared post
+     */
+    public int getResharedPostID() {
+        return resharedPostID;
+    }
+
+    /**
+     * Returns how deep this reshare is in its chain: 1 for a reshare of the
+     * original, 2 for a reshare of that reshare, and so on.
+     *
+     * @return The chain depth
+     */
+    public int getDepth() {
+        return depth;
     }
 
     /**
@@ -64,7 +163,8 @@ public class ResharedPost extends Post {
         panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
         panel.setBackground(Color.WHITE);
         
-        JLabel reshareLabel = new JLabel("Reshared from post ID: " + originalPostID);
+        JLabel reshareLabel = new JLabel("Reshared from post ID: " + resharedPostID
+                + (depth > 1 ? " (original post ID: " + originalPost.getPostID() + ")" : ""));
         reshareLabel.setForeground(Color.GRAY);
         panel.add(reshareLabel);
         
@@ -81,7 +181,8 @@ public class ResharedPost extends Post {
      */
     @Override
     public String toString() {
-        return "Reshared Post [ID=" + getPostID() + ", Original Post ID=" + originalPostID + 
+        return "Reshared Post [ID=" + getPostID() + ", Original Post ID=" + originalPost.getPostID() + 
+               ", Reshared Post ID=" + resharedPostID + ", Depth=" + depth +
                ", Owner=" + getOwner() + ", Audience=" + audience + "]";
     }
 }
@@ -2,32 +2,92 @@ package project;
 
 import project.enums.PageAlgorithm;
 import project.enums.PostAudience;
+import project.events.ChangeEventBus;
+import project.interfaces.MutationListener;
+import project.metrics.PlatformMetrics;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Comparator;
 import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 
 /**
  * Represents a social media platform instance in the SocialConnect application.
  * This class manages users, posts, and interactions between users.
  * It provides functionality for user authentication, post management, and user
  * relationships.
+ * <p>
+ * A platform may be shared by concurrent sessions: the member registry and the
+ * post log are concurrent maps, user IDs are handed out atomically, and each
+ * post serialises its own votes.
  */
 public class SocialConnect {
+    /**
+     * Maximum number of posts only followers can see in a member's feed, from
+     * {@link #getVisiblePosts(User)} and {@link #getFeedPage(User, int, String)}:
+     * each member's timeline keeps the newest this many of them, and older ones
+     * are left out of every feed order. Posts for all members are never left
+     * out, and viewers who are not members are not limited.
+     */
+    public static final int MEMBER_FEED_LIMIT = Timeline.DEFAULT_CAPACITY;
+
     /** Name of the social media platform (minimum 8 characters) */
     private String name;
 
     /** Algorithm used for sorting posts on user pages */
-    private PageAlgorithm sortBy;
+    private volatile PageAlgorithm sortBy;
 
     /** Currently logged-in user */
-    private User whoIsLoggedIn;
+    private volatile User whoIsLoggedIn;
+
+    /** All registered users, keyed by username */
+    private ConcurrentHashMap<String, User> members;
+
+    /** All posts made on the platform, keyed and ordered by post ID */
+    private final ConcurrentSkipListMap<Integer, Post> posts = new ConcurrentSkipListMap<>();
+
+    /** Next dense user ID to hand out on registration */
+    private final AtomicInteger nextUserID = new AtomicInteger();
+
+    /** Registered users keyed by their dense user ID */
+    private final ConcurrentHashMap<Integer, User> membersByID = new ConcurrentHashMap<>();
+
+    /**
+     * Every logged post all members can see, shared by every member's feed
+     * rather than copied into each member's timeline
+     */
+    private final Timeline memberPosts = new Timeline(Integer.MAX_VALUE);
 
-    /** List of all registered users */
-    private ArrayList<User> members;
+    /** Who follows whom, keyed by dense user ID */
+    private final FollowGraph followGraph = new FollowGraph();
 
-    /** List of all posts made on the platform */
-    private ArrayList<Post> posts = new ArrayList<>(); // Initialize posts here
+    /** All logged posts ordered by popularity, kept up to date on every vote */
+    private final PopularityIndex ranking = new PopularityIndex();
+
+    /** All logged posts ordered by time-decayed score, kept up to date on every vote */
+    private final TrendingIndex trending = new TrendingIndex();
+
+    /** Trigram index of the usernames of the members, for member search */
+    private final UsernameIndex usernameIndex = new UsernameIndex();
+
+    /** Inverted index of the words in the logged posts, for post search */
+    private final PostTextIndex textIndex = new PostTextIndex();
+
+    /** Told about every change to the platform, e.g. to persist it */
+    private final CopyOnWriteArrayList<MutationListener> mutationListeners = new CopyOnWriteArrayList<>();
+
+    /** Publishes every change to the platform as a typed event */
+    private final ChangeEventBus eventBus = new ChangeEventBus();
+
+    /** Call counts and latencies of the platform's main operations */
+    private final PlatformMetrics metrics = new PlatformMetrics();
 
     /**
      * Creates a new SocialConnect platform with the specified name and sorting
@@ -43,7 +103,8 @@ public class SocialConnect {
         }
         this.name = name;
         this.sortBy = sortBy;
-        this.members = new ArrayList<>();
+        this.members = new ConcurrentHashMap<>();
+        this.mutationListeners.add(eventBus);
     }
 
     /**
@@ -54,14 +115,19 @@ public class SocialConnect {
      * @return true if login successful, false otherwise
      */
     public boolean login(String username, String password) {
-        for (User member : members) {
-            if (member.getUsername().equals(username) && member.getPassword().equals(password)) {
+        long start = metrics.getLogin().start();
+        boolean loggedIn = false;
+        try {
+            User member = getUser(username);
+            if (member != null && member.getPassword().equals(password)) {
                 this.whoIsLoggedIn = member;
                 member.setLoggedInto(this); // Set the SocialConnect instance in the User
-                return true;
+                loggedIn = true;
             }
+            return loggedIn;
+        } finally {
+            metrics.getLogin().stop(start, loggedIn);
         }
-        return false;
     }
 
     /**
@@ -84,21 +150,44 @@ public class SocialConnect {
     }
 
     /**
-     * Returns the list of all posts made on the platform.
+     * Returns a copy of the list of all posts made on the platform, oldest
+     * first.
      *
      * @return The list of all posts
      */
     public ArrayList<Post> getPosts() {
-        return posts;
+        return new ArrayList<>(posts.values());
+    }
+
+    /**
+     * Returns one page of all posts made on the platform, oldest first, as
+     * {@link #getPosts()} would list them. Each page is read from the post
+     * log starting at the cursor, so nothing is copied beyond the page.
+     *
+     * @param pageSize The maximum number of posts on the page
+     * @param cursor   The cursor returned with the previous page, or null for
+     *                 the first page
+     * @return The requested page
+     * @throws IllegalArgumentException if pageSize is not positive or the
+     *                                  cursor is invalid
+     */
+    public FeedPage getPostsPage(int pageSize, String cursor) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        long after = FeedPage.decodeCursor(PageAlgorithm.Oldest, cursor);
+        return FeedPage.of(PageAlgorithm.Oldest, oldestPosts(after, post -> true, pageSize + 1), pageSize);
     }
 
     /**
-     * Returns the list of all registered users.
+     * Returns the list of all registered users, in registration order.
      *
      * @return The list of all registered users
      */
     public ArrayList<User> getMembers() {
-        return new ArrayList<>(members);
+        ArrayList<User> list = new ArrayList<>(members.values());
+        list.sort(Comparator.comparingInt(User::getUserID));
+        return list;
     }
 
     /**
@@ -109,12 +198,10 @@ public class SocialConnect {
      * @return true if registration successful, false if username is already taken
      */
     public boolean register(String username, String password) {
-        for (User member : members) {
-            if (member.getUsername().equals(username)) {
-                return false;
-            }
+        if (isUsernameTaken(username)) {
+            return false;
         }
-        members.add(new User(username, password));
+        addUser(new User(username, password));
         return true;
     }
 
@@ -138,7 +225,7 @@ public class SocialConnect {
             sb.append("null");
         }
         sb.append(", members=" + members.size() + ", posts=" + posts.size() + "]\n\n");
-        for (User member : members) {
+        for (User member : getMembers()) {
             sb.append(member.toString());
         }
         return sb.toString();
@@ -171,6 +258,62 @@ public class SocialConnect {
         return sortBy;
     }
 
+    /**
+     * Returns the popularity ranking of the posts on this platform.
+     * 
+     * @return The popularity ranking
+     */
+    PopularityIndex getRanking() {
+        return ranking;
+    }
+
+    /**
+     * Returns the trending ranking of the posts on this platform.
+     * 
+     * @return The trending ranking
+     */
+    TrendingIndex getTrending() {
+        return trending;
+    }
+
+    /**
+     * Returns the ranking index that serves a page algorithm, if it has one.
+     * 
+     * @param algorithm The page algorithm
+     * @return The ranked posts for Popular and Trending, null otherwise
+     */
+    private RankedPosts rankedBy(PageAlgorithm algorithm) {
+        switch (algorithm) {
+            case Popular:
+                return ranking;
+            case Trending:
+                return trending;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Reads part of a member's Popular or Trending feed. Posts every member
+     * can see come from the ranking's shared posts, which need no visibility
+     * check; posts only followers can see come from the member's timeline,
+     * which holds the newest of them. Neither read touches a post the member
+     * cannot see, so the cost does not grow with the rest of the platform.
+     * 
+     * @param viewer    The member
+     * @param algorithm Either {@link PageAlgorithm#Popular} or
+     *                  {@link PageAlgorithm#Trending}
+     * @param afterKey  The sort key of the last post already read
+     * @param limit     The maximum number of posts to return
+     * @return Up to limit posts in feed order
+     */
+    private List<Post> rankedFeed(User viewer, PageAlgorithm algorithm, long afterKey, int limit) {
+        List<Post> shared = rankedBy(algorithm).sharedAfter(afterKey, limit);
+        List<Post> followersOnly = FeedPage.first(viewer.getTimeline().getPosts(),
+                post -> post.getAudience() != PostAudience.Members, algorithm, afterKey, limit);
+        return FeedPage.merge(algorithm, shared, followersOnly, limit);
+    }
+
     /**
      * Compares two Posts based on their post IDs.
      */
@@ -217,7 +360,7 @@ public class SocialConnect {
          * @param post The post to add.
          */
         public void addPost(Post post) {
-            posts.add(post);
+            logNewPost(post);
         }
 
         /**
@@ -226,7 +369,7 @@ public class SocialConnect {
          * @param user The user to add.
          */
         public void addMember(User user) {
-            members.add(user);
+            addUser(user);
         }
 
     }
@@ -237,11 +380,428 @@ public class SocialConnect {
      * @param post The post to add
      */
     public void logNewPost(Post post) {
-        if (post != null) {
-            posts.add(post);
+        logPost(post, true);
+    }
+
+    /**
+     * Logs a post, pushing it into the timelines of its viewers unless told
+     * not to.
+     * 
+     * @param post       The post to add
+     * @param distribute false to leave the timelines to
+     *                   {@link #rebuildTimelines()}
+     */
+    private void logPost(Post post, boolean distribute) {
+        if (post == null) {
+            return;
+        }
+        synchronized (post) {
+            if (post.postedOn == this) {
+                return;
+            }
+            posts.put(post.getPostID(), post);
+            post.postedOn = this;
+            ranking.add(post);
+            trending.add(post);
+            textIndex.add(post);
+            for (MutationListener listener : mutationListeners) {
+                listener.postLogged(post);
+            }
+        }
+        countReshare(post, true);
+        if (!distribute) {
+            return;
+        }
+        fanOut(post);
+        if (post.postedOn != this) {
+            // Deleted while it was being distributed
+            retract(post);
         }
     }
 
+    /**
+     * Adds a logged reshare to, or takes a deleted one off, the reshare index
+     * of its root original, and moves the original in the popularity ranking
+     * to match. Nothing happens if the original is not logged here. Runs after
+     * the reshare's own lock is released, so the two locks are never nested.
+     * 
+     * @param post   A post that was just logged or deleted
+     * @param logged true if the post was logged, false if it was deleted
+     */
+    private void countReshare(Post post, boolean logged) {
+        if (!(post instanceof ResharedPost)) {
+            return;
+        }
+        Post original = ((ResharedPost) post).getOriginalPost();
+        synchronized (original) {
+            if (original.postedOn != this) {
+                return;
+            }
+            if (logged) {
+                // Skip a reshare deleted before it could be counted
+                if (post.postedOn == this && original.addReshare(post.getPostID())) {
+                    ranking.update(original, PopularityIndex.RESHARE_WEIGHT);
+                }
+            } else if (original.removeReshare(post.getPostID())) {
+                ranking.update(original, -PopularityIndex.RESHARE_WEIGHT);
+            }
+        }
+    }
+
+    /**
+     * Distributes a newly logged post. A {@link PostAudience#Members} post goes
+     * into the posts shared by all members, once; any other post is pushed into
+     * the timelines of its owner and the owner's followers who can see it.
+     * 
+     * @param post The post to distribute
+     */
+    private void fanOut(Post post) {
+        if (post.getAudience() == PostAudience.Members) {
+            memberPosts.push(post);
+            return;
+        }
+        for (User viewer : eligibleViewers(post)) {
+            viewer.getTimeline().push(post);
+        }
+    }
+
+    /**
+     * Removes a post from wherever {@link #fanOut(Post)} put it, refilling the
+     * timelines it leaves.
+     * 
+     * @param post The post to retract
+     */
+    private void retract(Post post) {
+        if (post.getAudience() == PostAudience.Members) {
+            memberPosts.retract(post);
+            return;
+        }
+        for (User viewer : eligibleViewers(post)) {
+            if (viewer.getTimeline().retract(post)) {
+                refillTimeline(viewer);
+            }
+        }
+    }
+
+    /**
+     * Puts posts back into a member's timeline after posts left it. A full
+     * timeline drops its oldest posts as new ones arrive, so once it has room
+     * again the newest of the dropped posts the member can still see are
+     * pushed back in. Only the posts of the member and of the members they
+     * follow are read, never the whole post log.
+     * 
+     * @param viewer The member whose timeline lost posts
+     */
+    private void refillTimeline(User viewer) {
+        Timeline timeline = viewer.getTimeline();
+        int changesSeen = timeline.changes();
+        int room = timeline.refillRoom();
+        if (room == 0) {
+            return;
+        }
+        int oldestID = timeline.oldestID();
+        List<Post> candidates = viewer.getOwnedPosts();
+        for (int followeeID : followGraph.getFollowing(viewer.getUserID())) {
+            User followee = membersByID.get(followeeID);
+            if (followee != null) {
+                candidates.addAll(followee.getOwnedPosts());
+            }
+        }
+        // Only posts older than every post still in the timeline were dropped
+        List<Post> older = FeedPage.first(candidates,
+                post -> post.postedOn == this && post.getAudience() != PostAudience.Members
+                        && post.canView(viewer),
+                PageAlgorithm.Newest, Integer.MAX_VALUE - (long) oldestID, room);
+        if (timeline.refill(older, changesSeen)) {
+            for (Post post : older) {
+                if (post.postedOn != this) {
+                    // Deleted while the timeline was being refilled
+                    timeline.retract(post);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the members whose timelines should hold a post that not every
+     * member can see.
+     * 
+     * @param post The post to check
+     * @return The owner and the followers who can view the post
+     */
+    private List<User> eligibleViewers(Post post) {
+        List<User> viewers = new ArrayList<>();
+        User owner = getUser(post.getOwner());
+        if (owner != null) {
+            viewers.add(owner);
+            for (int followerID : followGraph.getFollowers(owner.getUserID())) {
+                User follower = membersByID.get(followerID);
+                if (follower != null && post.canView(follower)) {
+                    viewers.add(follower);
+                }
+            }
+        }
+        return viewers;
+    }
+
+    /**
+     * Fills the timeline of a newly added member with their own logged posts
+     * that only followers can see. A new member follows nobody, so those are
+     * the only such posts they can see yet; posts for all members are shared.
+     * 
+     * @param user The new member
+     */
+    private void backfillTimeline(User user) {
+        for (Post post : user.getOwnedPosts()) {
+            if (post.postedOn == this && post.getAudience() != PostAudience.Members) {
+                user.getTimeline().push(post);
+            }
+        }
+    }
+
+    /**
+     * Reads part of a member's Newest or Oldest feed: the posts shared by all
+     * members merged with the member's own timeline. Both are read from the
+     * cursor on, so a page costs O(log n + limit) however many posts exist.
+     * 
+     * @param viewer    The member
+     * @param algorithm Either {@link PageAlgorithm#Newest} or
+     *                  {@link PageAlgorithm#Oldest}
+     * @param afterKey  The sort key of the last post already read
+     * @param limit     The maximum number of posts to return
+     * @return Up to limit posts in feed order
+     */
+    private List<Post> memberFeed(User viewer, PageAlgorithm algorithm, long afterKey, int limit) {
+        return FeedPage.merge(algorithm, memberPosts.page(algorithm, afterKey, limit),
+                viewer.getTimeline().page(algorithm, afterKey, limit), limit);
+    }
+
+    /**
+     * Reads posts in ascending ID order, walking the logged posts from a
+     * cursor.
+     * 
+     * @param afterKey The Oldest sort key, i.e. the post ID, of the last post
+     *                 already read
+     * @param filter   The posts to keep
+     * @param limit    The maximum number of posts to return
+     * @return Up to limit matching posts, oldest first
+     */
+    private List<Post> oldestPosts(long afterKey, Predicate<Post> filter, int limit) {
+        Collection<Post> source = afterKey < Integer.MIN_VALUE ? posts.values()
+                : posts.tailMap((int) Math.min(afterKey, Integer.MAX_VALUE), false).values();
+        List<Post> found = new ArrayList<>();
+        for (Post post : source) {
+            if (found.size() >= limit) {
+                break;
+            }
+            if (filter.test(post)) {
+                found.add(post);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Reads posts in descending ID order, walking the logged posts from a
+     * cursor.
+     * 
+     * @param afterKey The Newest sort key of the last post already read
+     * @param filter   The posts to keep
+     * @param limit    The maximum number of posts to return
+     * @return Up to limit matching posts, newest first
+     */
+    private List<Post> newestPosts(long afterKey, Predicate<Post> filter, int limit) {
+        long lastID = Integer.MAX_VALUE - afterKey;
+        Collection<Post> source = lastID > Integer.MAX_VALUE ? posts.descendingMap().values()
+                : posts.headMap((int) lastID, false).descendingMap().values();
+        List<Post> found = new ArrayList<>();
+        for (Post post : source) {
+            if (found.size() >= limit) {
+                break;
+            }
+            if (filter.test(post)) {
+                found.add(post);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Makes one member follow another and pulls the followee's posts that the
+     * follower can now see into the follower's timeline.
+     * 
+     * @param follower          The member who starts following
+     * @param followingUsername The username of the member to follow
+     * @return true if the follower was not already following
+     * @throws IllegalArgumentException if either user is not a member of this
+     *                                  platform, or both are the same user
+     */
+    boolean follow(User follower, String followingUsername) {
+        User followee = requireEdgeMembers(follower, followingUsername);
+        if (!followGraph.follow(follower.getUserID(), followee.getUserID())) {
+            return false;
+        }
+        for (MutationListener listener : mutationListeners) {
+            listener.followChanged(follower, followee, true);
+        }
+        for (Post post : followee.getOwnedPosts()) {
+            if (post.postedOn == this && post.getAudience() != PostAudience.Members && post.canView(follower)) {
+                follower.getTimeline().push(post);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Makes one member stop following another and retracts the followee's posts
+     * the follower can no longer see from the follower's timeline.
+     * 
+     * @param follower          The member who stops following
+     * @param followingUsername The username of the member to unfollow
+     * @return true if the follower was following
+     * @throws IllegalArgumentException if either user is not a member of this
+     *                                  platform
+     */
+    boolean unfollow(User follower, String followingUsername) {
+        User followee = requireEdgeMembers(follower, followingUsername);
+        if (!followGraph.unfollow(follower.getUserID(), followee.getUserID())) {
+            return false;
+        }
+        for (MutationListener listener : mutationListeners) {
+            listener.followChanged(follower, followee, false);
+        }
+        follower.getTimeline().retractUnviewable(followingUsername, follower);
+        refillTimeline(follower);
+        return true;
+    }
+
+    /**
+     * Checks if one member follows another.
+     * 
+     * @param follower          The possible follower
+     * @param followingUsername The username of the possible followee
+     * @return true if both are members and the follow edge exists
+     */
+    boolean isFollowing(User follower, String followingUsername) {
+        User followee = getUser(followingUsername);
+        return followee != null && follower.getUserID() >= 0
+                && followGraph.isFollowing(follower.getUserID(), followee.getUserID());
+    }
+
+    /**
+     * Returns the usernames of the members who follow a member.
+     * 
+     * @param user The member
+     * @return The follower usernames in registration order
+     */
+    ArrayList<String> getFollowerNames(User user) {
+        return usernames(followGraph.getFollowers(user.getUserID()));
+    }
+
+    /**
+     * Returns the usernames of the members a member follows.
+     * 
+     * @param user The member
+     * @return The followee usernames in registration order
+     */
+    ArrayList<String> getFollowingNames(User user) {
+        return usernames(followGraph.getFollowing(user.getUserID()));
+    }
+
+    /**
+     * Returns the follow graph of this platform.
+     * 
+     * @return The follow graph
+     */
+    FollowGraph getFollowGraph() {
+        return followGraph;
+    }
+
+    /**
+     * Looks up a member by user ID.
+     * 
+     * @param userID The user ID
+     * @return The member, or null if no member has that ID
+     */
+    public User getUserByID(int userID) {
+        return membersByID.get(userID);
+    }
+
+    /**
+     * Finds the members whose username contains a search term, ignoring case,
+     * without scanning the member list. Exact matches come first, then
+     * usernames that start with the term, then the rest by how early the term
+     * occurs.
+     * 
+     * @param term  The text to look for
+     * @param limit The maximum number of members to return
+     * @return The matching members, best match first
+     * @see UsernameIndex
+     */
+    public List<User> searchMembers(String term, int limit) {
+        List<User> found = new ArrayList<>();
+        for (int id : usernameIndex.search(term, limit)) {
+            User user = membersByID.get(id);
+            if (user != null) {
+                found.add(user);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Finds the logged posts a user can view that contain every word of a
+     * query, newest first. Words are runs of letters and digits, matched
+     * without regard to case, in the text of regular posts and the captions of
+     * image posts. The posts are looked up in the platform's inverted index,
+     * and visibility is only checked for candidates until the limit is met.
+     * 
+     * @param viewer The user searching; null finds nothing
+     * @param query  The words to look for
+     * @param limit  The maximum number of posts to return
+     * @return The matching posts the viewer can see, newest first
+     * @see PostTextIndex
+     */
+    public List<Post> searchPosts(User viewer, String query, int limit) {
+        List<Post> found = new ArrayList<>();
+        if (viewer == null) {
+            return found;
+        }
+        int[] ids = textIndex.search(query, id -> {
+            Post post = posts.get(id);
+            return post != null && post.canView(viewer);
+        }, limit);
+        for (int id : ids) {
+            Post post = posts.get(id);
+            if (post != null) {
+                found.add(post);
+            }
+        }
+        return found;
+    }
+
+    private ArrayList<String> usernames(int[] userIDs) {
+        ArrayList<String> names = new ArrayList<>(userIDs.length);
+        for (int id : userIDs) {
+            User user = membersByID.get(id);
+            if (user != null) {
+                names.add(user.getUsername());
+            }
+        }
+        return names;
+    }
+
+    private User requireEdgeMembers(User follower, String followingUsername) {
+        if (follower == null || getUser(follower.getUsername()) != follower) {
+            throw new IllegalArgumentException("Follower is not a member of " + name);
+        }
+        User followee = getUser(followingUsername);
+        if (followee == null) {
+            throw new IllegalArgumentException(followingUsername + " is not a member of " + name);
+        }
+        return followee;
+    }
+
     /**
      * Checks if a username is already taken by another user.
      * 
@@ -249,12 +809,7 @@ public class SocialConnect {
      * @return true if the username is taken, false otherwise.
      */
     public boolean isUsernameTaken(String username) {
-        for (User member : members) {
-            if (member.getUsername().equals(username)) {
-                return true;
-            }
-        }
-        return false;
+        return username != null && members.containsKey(username);
     }
 
     /**
@@ -269,26 +824,41 @@ public class SocialConnect {
         if (isUsernameTaken(username)) {
             return false;
         }
-        User newUser = new User(username, password);
-        members.add(newUser);
+        addUser(new User(username, password));
         return true;
     }
 
     /**
-     * Removes a member from the platform.
+     * Removes a member from the platform. Their votes are taken back, so vote
+     * counts and voter lists leave them out alike.
      * 
      * @param username The username of the member to remove.
      * @return true if the member was removed successfully, false if the member does
      *         not exist.
      */
     public boolean removeMember(String username) {
-        for (User member : members) {
-            if (member.getUsername().equals(username)) {
-                members.remove(member);
-                return true;
+        if (username == null) {
+            return false;
+        }
+        User removed = members.remove(username);
+        if (removed == null) {
+            return false;
+        }
+        membersByID.remove(removed.getUserID(), removed);
+        usernameIndex.remove(removed.getUserID());
+        followGraph.removeUser(removed.getUserID());
+        // Take back their votes, so a new registration of the username cannot vote twice
+        for (int postID : removed.takeVotedPostIDs()) {
+            Post post = posts.get(postID);
+            if (post != null) {
+                post.clearVote(removed.getUserID());
             }
         }
-        return false;
+        removed.setMemberOf(null);
+        for (MutationListener listener : mutationListeners) {
+            listener.memberRemoved(removed);
+        }
+        return true;
     }
 
     /**
@@ -298,27 +868,60 @@ public class SocialConnect {
      * @return true if the user is a member, false otherwise.
      */
     public boolean isMember(String username) {
-        for (User member : members) {
-            if (member.getUsername().equals(username)) {
-                return true;
-            }
-        }
-        return false;
+        return isUsernameTaken(username);
     }
 
     /**
-     * Adds a user to the platform.
+     * Adds a user to the platform. A user whose username is already registered
+     * is ignored, so the first registration of a username always wins. New
+     * members are given the next dense user ID before they are published, so
+     * no concurrent session can see a member without one. A user keeps their
+     * ID for good, so one that got it from another platform is refused rather
+     * than let it clash with the IDs given here.
      * 
      * @param user The user to add.
+     * @throws IllegalArgumentException if the user was given their ID by
+     *                                  another platform
      */
     public void addUser(User user) {
-        if (user != null && !members.contains(user)) {
-            members.add(user);
+        if (user == null) {
+            return;
+        }
+        int assigned = -1;
+        if (user.getUserIDIssuer() == null) {
+            int fresh = nextUserID.getAndIncrement();
+            if (user.assignUserID(this, fresh)) {
+                assigned = fresh;
+            }
+        }
+        if (user.getUserIDIssuer() != this) {
+            throw new IllegalArgumentException(user.getUsername() + " is registered on another platform");
+        }
+        int userID = user.getUserID();
+        membersByID.put(userID, user);
+        if (members.putIfAbsent(user.getUsername(), user) != null) {
+            // Lost to another registration; undo unless it registered this same user
+            if (members.get(user.getUsername()) != user) {
+                membersByID.remove(userID, user);
+                if (assigned >= 0) {
+                    user.revokeUserID(assigned);
+                }
+            }
+            return;
+        }
+        usernameIndex.add(userID, user.getUsername());
+        user.setMemberOf(this);
+        backfillTimeline(user);
+        for (MutationListener listener : mutationListeners) {
+            listener.memberAdded(user);
         }
     }
 
     /**
-     * Deletes a post from the platform.
+     * Deletes a post from the platform. Deleting an original also deletes
+     * every logged reshare of it, found through its reshare index rather than
+     * by scanning the posts. Deleting a reshare leaves the reshares made from
+     * it in place, since they point at the root original.
      * 
      * @param post The post to delete.
      * @throws IllegalArgumentException if the post does not exist on the platform.
@@ -327,24 +930,57 @@ public class SocialConnect {
         if (post == null) {
             throw new IllegalArgumentException("Post cannot be null");
         }
-
-        // Remove from posts list
-        if (!posts.remove(post)) {
-            throw new IllegalArgumentException("Post does not exist in SocialConnect");
+        long start = metrics.getDeletes().start();
+        boolean deleted = false;
+        try {
+            if (!removePost(post)) {
+                throw new IllegalArgumentException("Post does not exist in SocialConnect");
+            }
+            deleted = true;
+            if (post instanceof ResharedPost) {
+                return;
+            }
+            for (int reshareID : post.getReshareIDs()) {
+                Post reshare = posts.get(reshareID);
+                // Skip reshares deleted since the IDs were read
+                if (reshare != null) {
+                    removePost(reshare);
+                }
+            }
+        } finally {
+            metrics.getDeletes().stop(start, deleted);
         }
+    }
 
-        // Remove from user's owned posts
-        User owner = null;
-        for (User member : members) {
-            if (member.getUsername().equals(post.getOwner())) {
-                owner = member;
-                break;
+    /**
+     * Removes a logged post from the platform, its indexes, the timelines of
+     * its viewers and its owner's posts.
+     * 
+     * @param post The post to remove
+     * @return false if the post was not logged on this platform
+     */
+    private boolean removePost(Post post) {
+        synchronized (post) {
+            if (!posts.remove(post.getPostID(), post)) {
+                return false;
+            }
+            ranking.remove(post);
+            trending.remove(post);
+            textIndex.remove(post);
+            post.postedOn = null;
+            for (MutationListener listener : mutationListeners) {
+                listener.postDeleted(post);
             }
         }
+        countReshare(post, false);
+        retract(post);
 
+        // Remove from user's owned posts
+        User owner = getUser(post.getOwner());
         if (owner != null) {
             owner.removePost(post);
         }
+        return true;
     }
 
     /**
@@ -355,7 +991,7 @@ public class SocialConnect {
      */
     public List<Post> getUserPosts(String username) {
         List<Post> userPosts = new ArrayList<>();
-        for (Post post : posts) {
+        for (Post post : posts.values()) {
             if (post.getOwner().equals(username)) {
                 userPosts.add(post);
             }
@@ -363,50 +999,163 @@ public class SocialConnect {
         return userPosts;
     }
 
+    /**
+     * Returns one page of the posts made by a member, oldest first, as
+     * {@link #getUserPosts(String)} would list them. The page is selected from
+     * the member's own posts with a bounded heap, so it never scans the posts
+     * of the whole platform.
+     * 
+     * @param username The username of the member whose posts to retrieve
+     * @param pageSize The maximum number of posts on the page
+     * @param cursor   The cursor returned with the previous page, or null for
+     *                 the first page
+     * @return The requested page, empty if the username is not a member
+     * @throws IllegalArgumentException if pageSize is not positive or the
+     *                                  cursor is invalid
+     */
+    public FeedPage getUserPostsPage(String username, int pageSize, String cursor) {
+        User owner = getUser(username);
+        List<Post> owned = owner == null ? Collections.emptyList() : owner.getOwnedPosts();
+        return FeedPage.select(owned, post -> post.postedOn == this, PageAlgorithm.Oldest, pageSize, cursor);
+    }
+
     /**
      * Sorts and returns visible posts according to the current page algorithm.
+     * The Popular and Trending orders are read from their ranking indexes, so
+     * logged posts are never re-sorted by score.
      * 
      * @param postsToSort List of posts to sort
      * @return Sorted list of posts
      */
     private ArrayList<Post> sortPosts(ArrayList<Post> postsToSort) {
-        ArrayList<Post> sortedPosts = new ArrayList<>(postsToSort);
+        long start = metrics.getSortPosts().start();
+        try {
+            ArrayList<Post> sortedPosts = new ArrayList<>(postsToSort);
 
-        switch (sortBy) {
-            case Popular:
-                Collections.sort(sortedPosts, new SortByPopularity());
-                Collections.reverse(sortedPosts); // Highest popularity first
-                break;
-            case Oldest:
-                Collections.sort(sortedPosts, new SortByID());
-                break;
-            case Newest:
-                Collections.sort(sortedPosts, new SortByID());
-                Collections.reverse(sortedPosts);
-                break;
-        }
+            switch (sortBy) {
+                case Popular:
+                case Trending:
+                    // Only logged posts reach here, and all of them are ranked
+                    Set<Post> visible = Collections.newSetFromMap(new IdentityHashMap<>());
+                    visible.addAll(postsToSort);
+                    return new ArrayList<>(rankedBy(sortBy).after(Long.MIN_VALUE, visible::contains, visible.size()));
+                case Oldest:
+                    Collections.sort(sortedPosts, new SortByID());
+                    break;
+                case Newest:
+                    Collections.sort(sortedPosts, new SortByID());
+                    Collections.reverse(sortedPosts);
+                    break;
+            }
 
-        return sortedPosts;
+            return sortedPosts;
+        } finally {
+            metrics.getSortPosts().stop(start);
+        }
     }
 
     /**
      * Returns the posts that are visible to a specific user, sorted according to
-     * the current algorithm.
+     * the current algorithm. A member's feed holds every post for all members,
+     * read from the posts shared by all members or the ranking index, and the
+     * posts for followers only that are still in the member's timeline, which
+     * keeps the newest {@link #MEMBER_FEED_LIMIT} of them. Neither read touches
+     * a post the member cannot see.
      * 
      * @param viewer The user who is viewing the posts
      * @return The sorted list of visible posts
      */
     public List<Post> getVisiblePosts(User viewer) {
-        ArrayList<Post> visiblePosts = new ArrayList<>();
+        long start = metrics.getVisiblePosts().start();
+        try {
+            if (viewer != null && getUser(viewer.getUsername()) == viewer) {
+                PageAlgorithm algorithm = sortBy;
+                if (rankedBy(algorithm) != null) {
+                    return rankedFeed(viewer, algorithm, Long.MIN_VALUE, Integer.MAX_VALUE);
+                }
+                return memberFeed(viewer, algorithm, Long.MIN_VALUE, Integer.MAX_VALUE);
+            }
+
+            ArrayList<Post> visiblePosts = new ArrayList<>();
 
-        // Filter posts based on visibility
-        for (Post post : posts) {
-            if (post.canView(viewer)) {
-                visiblePosts.add(post);
+            // Filter posts based on visibility
+            for (Post post : posts.values()) {
+                if (post.canView(viewer)) {
+                    visiblePosts.add(post);
+                }
             }
+
+            return sortPosts(visiblePosts);
+        } finally {
+            metrics.getVisiblePosts().stop(start);
+        }
+    }
+
+    /**
+     * Returns one page of the posts visible to a user, ordered by the current
+     * page algorithm. Pass the cursor of the previous page to continue where it
+     * ended; cursors are keyed on post ID for Newest and Oldest, on (score,
+     * post ID) for Popular and on (heat, post ID) for Trending, so pages stay
+     * stable while new posts arrive. A member's pages hold the same posts as
+     * {@link #getVisiblePosts(User)} would list, so only the newest
+     * {@link #MEMBER_FEED_LIMIT} of their posts for followers only are paged;
+     * each page merges the posts for all members, read from the shared posts
+     * or the ranking index at the cursor, with the member's timeline. Other
+     * viewers read Popular and Trending pages from the ranking index and
+     * Newest and Oldest pages from the post log, and a null viewer gets an
+     * empty page. Every walk stops once its page is full, so the first page
+     * never scans or sorts the whole feed.
+     * 
+     * @param viewer   The user who is viewing the posts
+     * @param pageSize The maximum number of posts on the page
+     * @param cursor   The cursor returned with the previous page, or null for the
+     *                 first page
+     * @return The requested page
+     * @throws IllegalArgumentException if pageSize is not positive or the cursor
+     *                                  is malformed or was issued for another
+     *                                  page algorithm
+     */
+    public FeedPage getFeedPage(User viewer, int pageSize, String cursor) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
         }
+        long start = metrics.getFeedPage().start();
+        try {
+            PageAlgorithm algorithm = sortBy;
+            long after = FeedPage.decodeCursor(algorithm, cursor);
+            if (viewer == null) {
+                // Nobody can see a post without being a user
+                return new FeedPage(Collections.emptyList(), null);
+            }
 
-        return sortPosts(visiblePosts);
+            // Every walk seeks to the cursor and stops once the page is full
+            Predicate<Post> visible = post -> post.canView(viewer);
+            boolean member = getUser(viewer.getUsername()) == viewer;
+            RankedPosts ranked = rankedBy(algorithm);
+            List<Post> candidates;
+            if (member) {
+                candidates = ranked != null ? rankedFeed(viewer, algorithm, after, pageSize + 1)
+                        : memberFeed(viewer, algorithm, after, pageSize + 1);
+            } else if (ranked != null) {
+                candidates = ranked.after(after, visible, pageSize + 1);
+            } else if (algorithm == PageAlgorithm.Oldest) {
+                candidates = oldestPosts(after, visible, pageSize + 1);
+            } else {
+                candidates = newestPosts(after, visible, pageSize + 1);
+            }
+            return FeedPage.of(algorithm, candidates, pageSize);
+        } finally {
+            metrics.getFeedPage().stop(start);
+        }
+    }
+
+    /**
+     * Returns the call counts and latencies of the platform's operations.
+     * 
+     * @return The metrics of this platform
+     */
+    public PlatformMetrics getMetrics() {
+        return metrics;
     }
 
     /**
@@ -418,6 +1167,126 @@ public class SocialConnect {
         this.sortBy = algorithm;
     }
 
+    /**
+     * Returns the logged post with the given ID.
+     * 
+     * @param postID The ID of the post
+     * @return The post, or null if no logged post has that ID
+     */
+    public Post getPost(int postID) {
+        return posts.get(postID);
+    }
+
+    /**
+     * Adds a post that was loaded from storage. The post is attached to its
+     * owner's posts, like a post the owner just created, and then logged.
+     * 
+     * @param post The restored post
+     * @throws IllegalArgumentException if the owner of the post is not a member
+     */
+    public void restorePost(Post post) {
+        User owner = getUser(post.getOwner());
+        if (owner == null) {
+            throw new IllegalArgumentException(post.getOwner() + " is not a member of " + name);
+        }
+        owner.attachPost(post);
+        logNewPost(post);
+    }
+
+    /**
+     * Adds a post loaded from a snapshot without pushing it into any timeline,
+     * so loading n posts does not cost n fan-outs. Once every post is
+     * restored, {@link #rebuildTimelines()} fills the timelines in one pass.
+     * The post is attached to its owner's posts if the owner is a member; the
+     * posts of removed members are logged without an owner, as they were
+     * before the platform was saved.
+     * 
+     * @param post The restored post
+     */
+    public void restoreUndistributedPost(Post post) {
+        User owner = getUser(post.getOwner());
+        if (owner != null) {
+            owner.attachPost(post);
+        }
+        logPost(post, false);
+    }
+
+    /**
+     * Fills the posts shared by all members and the timeline of every member
+     * with the newest posts that belong there, up to their capacity, in one
+     * pass over the posts. Used after posts were restored with
+     * {@link #restoreUndistributedPost(Post)}.
+     */
+    public void rebuildTimelines() {
+        for (Post post : posts.descendingMap().values()) {
+            if (post.getAudience() == PostAudience.Members) {
+                memberPosts.push(post);
+                continue;
+            }
+            // Posts come newest first, so a full timeline has no room for the rest
+            for (User viewer : eligibleViewers(post)) {
+                viewer.getTimeline().pushIfRoom(post);
+            }
+        }
+    }
+
+    /**
+     * Sets the trending score of a post loaded from storage to the score it
+     * had when it was saved.
+     * 
+     * @param post    A logged post
+     * @param score   The trending score of the post at time {@code scoreAt}
+     * @param scoreAt When the score was taken, in milliseconds since the epoch
+     */
+    public void restoreTrendingScore(Post post, double score, long scoreAt) {
+        synchronized (post) {
+            if (post.postedOn == this) {
+                trending.restore(post, score, scoreAt);
+            }
+        }
+    }
+
+    /**
+     * Registers a listener to be told about every change to the platform.
+     * 
+     * @param listener The listener to add
+     */
+    public void addMutationListener(MutationListener listener) {
+        mutationListeners.addIfAbsent(listener);
+    }
+
+    /**
+     * Stops telling a listener about changes to the platform.
+     * 
+     * @param listener The listener to remove
+     */
+    public void removeMutationListener(MutationListener listener) {
+        mutationListeners.remove(listener);
+    }
+
+    /**
+     * Returns the bus on which every change to the platform is published.
+     * 
+     * @return The event bus of this platform
+     */
+    public ChangeEventBus getEventBus() {
+        return eventBus;
+    }
+
+    /**
+     * Tells the mutation listeners that a vote was cast on a logged post.
+     * Called by {@link Post} while it holds its own lock.
+     * 
+     * @param post     The post voted on
+     * @param username The username of the voter
+     * @param isUpvote True for an upvote, false for a downvote
+     */
+    void voteCast(Post post, String username, boolean isUpvote) {
+        for (MutationListener listener : mutationListeners) {
+            listener.voteCast(post, username, isUpvote);
+        }
+    }
+
     /**
      * Returns a user with the given username.
      * 
@@ -428,12 +1297,7 @@ public class SocialConnect {
         if (username == null || username.isEmpty()) {
             return null;
         }
-        for (User member : members) {
-            if (member.getUsername().equals(username)) {
-                return member;
-            }
-        }
-        return null;
+        return members.get(username);
     }
 
     /**
@@ -449,9 +1313,9 @@ public class SocialConnect {
         User user3 = new User("username3", "password3");
 
         // Add users to SocialConnect
-        SocialConnect.members.add(user1);
-        SocialConnect.members.add(user2);
-        SocialConnect.members.add(user3);
+        SocialConnect.addUser(user1);
+        SocialConnect.addUser(user2);
+        SocialConnect.addUser(user3);
 
         // Create a post
         RegularPost post1 = user1.createPost("Hello, world!", PostAudience.Followers);
@@ -459,9 +1323,9 @@ public class SocialConnect {
         RegularPost post3 = user3.createPost("Hello, world!", PostAudience.Followers);
 
         // Add post to SocialConnect
-        SocialConnect.posts.add(post1);
-        SocialConnect.posts.add(post2);
-        SocialConnect.posts.add(post3);
+        SocialConnect.logNewPost(post1);
+        SocialConnect.logNewPost(post2);
+        SocialConnect.logNewPost(post3);
 
         // Print SocialConnect details
         System.out.println(SocialConnect.toString());
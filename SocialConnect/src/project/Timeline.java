@@ -0,0 +1,259 @@
+package project;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeMap;
+
+import project.enums.PageAlgorithm;
+
+/**
+ * A precomputed, bounded list of recent posts.
+ * Each user has one for the posts only followers can see, which are pushed
+ * into it when they are published (fan-out on write); the platform keeps one
+ * more, without a practical bound, for the posts all members can see, which
+ * every member's feed shares. A member's feed merges the two, so building it
+ * only touches posts the member is allowed to see. A timeline is bounded: once
+ * it holds more than its capacity, the oldest posts are dropped. Once posts
+ * leave a timeline that dropped some, it can be refilled with the newest of
+ * the dropped posts.
+ * <p>
+ * All methods are synchronized, so a timeline can be filled by one session
+ * while its owner reads it from another.
+ */
+public class Timeline {
+    /** Number of posts kept in a timeline unless another capacity is given */
+    public static final int DEFAULT_CAPACITY = 1000;
+
+    /** Maximum number of posts kept in this timeline */
+    private final int capacity;
+
+    /** Posts in this timeline keyed by post ID, oldest first */
+    private final TreeMap<Integer, Post> entries;
+
+    /** Number of changes made to this timeline, so a refill can tell whether it raced with one */
+    private int changes;
+
+    /** Whether posts were dropped to keep this timeline within its capacity */
+    private boolean truncated;
+
+    /**
+     * Creates an empty timeline with the default capacity.
+     */
+    public Timeline() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty timeline holding at most the given number of posts.
+     *
+     * @param capacity The maximum number of posts to keep
+     * @throws IllegalArgumentException if capacity is not positive
+     */
+    public Timeline(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Timeline capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.entries = new TreeMap<>();
+    }
+
+    /**
+     * Adds a post to the timeline. If the timeline is full, the oldest post is
+     * evicted; a post older than everything in a full timeline is not added.
+     *
+     * @param post The post to add
+     * @return true if the post is in the timeline after the call
+     */
+    public synchronized boolean push(Post post) {
+        if (post == null) {
+            return false;
+        }
+        changes++;
+        entries.put(post.getPostID(), post);
+        while (entries.size() > capacity) {
+            entries.pollFirstEntry();
+            truncated = true;
+        }
+        return entries.containsKey(post.getPostID());
+    }
+
+    /**
+     * Adds a post to the timeline only if there is room for it, e.g. while
+     * filling it newest first. A post that does not fit counts as dropped.
+     *
+     * @param post The post to add
+     * @return true if the post was added
+     */
+    public synchronized boolean pushIfRoom(Post post) {
+        if (post == null) {
+            return false;
+        }
+        if (entries.size() >= capacity) {
+            truncated = true;
+            return false;
+        }
+        changes++;
+        entries.put(post.getPostID(), post);
+        return true;
+    }
+
+    /**
+     * Removes a post from the timeline.
+     *
+     * @param post The post to remove
+     * @return true if the post was in the timeline
+     */
+    public synchronized boolean retract(Post post) {
+        if (post == null || !entries.remove(post.getPostID(), post)) {
+            return false;
+        }
+        changes++;
+        return true;
+    }
+
+    /**
+     * Removes every post by the given owner that the viewer can no longer see.
+     * Used when the viewer stops following the owner.
+     *
+     * @param owner  The username of the post owner
+     * @param viewer The user this timeline belongs to
+     */
+    public synchronized void retractUnviewable(String owner, User viewer) {
+        Iterator<Post> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Post post = it.next();
+            if (post.getOwner().equals(owner) && !post.canView(viewer)) {
+                it.remove();
+                changes++;
+            }
+        }
+    }
+
+    /**
+     * Checks whether a post is in this timeline.
+     *
+     * @param postID The ID of the post
+     * @return true if the post is in the timeline
+     */
+    public synchronized boolean contains(int postID) {
+        return entries.containsKey(postID);
+    }
+
+    /**
+     * Returns the posts in this timeline, newest first.
+     *
+     * @return A new list with the posts in this timeline
+     */
+    public synchronized ArrayList<Post> getPosts() {
+        return new ArrayList<>(entries.descendingMap().values());
+    }
+
+    /**
+     * Returns the posts that come after the given sort key in a chronological
+     * feed, in feed order. Used to read the Newest and Oldest feeds one page at
+     * a time.
+     *
+     * @param algorithm Either {@link PageAlgorithm#Newest} or
+     *                  {@link PageAlgorithm#Oldest}
+     * @param afterKey  The sort key of the last post already read
+     * @param limit     The maximum number of posts to return
+     * @return Up to limit posts in feed order
+     * @see FeedPage#sortKey(PageAlgorithm, Post)
+     */
+    public synchronized List<Post> page(PageAlgorithm algorithm, long afterKey, int limit) {
+        Collection<Post> source;
+        if (algorithm == PageAlgorithm.Oldest) {
+            source = afterKey < Integer.MIN_VALUE ? entries.values()
+                    : entries.tailMap((int) Math.min(afterKey, Integer.MAX_VALUE), false).values();
+        } else {
+            long lastID = Integer.MAX_VALUE - afterKey;
+            source = lastID > Integer.MAX_VALUE ? entries.descendingMap().values()
+                    : entries.headMap((int) lastID, false).descendingMap().values();
+        }
+        List<Post> result = new ArrayList<>(Math.min(limit, entries.size()));
+        for (Post post : source) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(post);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of changes made to this timeline so far, to be passed
+     * back to {@link #refill(List, int)}.
+     *
+     * @return The change count
+     */
+    synchronized int changes() {
+        return changes;
+    }
+
+    /**
+     * Returns how many dropped posts this timeline has room to take back.
+     *
+     * @return The free capacity if posts were ever dropped, otherwise 0
+     */
+    synchronized int refillRoom() {
+        return truncated ? capacity - entries.size() : 0;
+    }
+
+    /**
+     * Returns the ID of the oldest post in this timeline.
+     *
+     * @return The smallest post ID, or {@link Integer#MAX_VALUE} if the
+     *         timeline is empty
+     */
+    synchronized int oldestID() {
+        return entries.isEmpty() ? Integer.MAX_VALUE : entries.firstKey();
+    }
+
+    /**
+     * Puts back posts that were dropped from this timeline. The caller finds
+     * them from {@link #oldestID()} and {@link #refillRoom()}, read after
+     * {@link #changes()}; if the timeline changed since, nothing is put back
+     * and the next refill tries again. Finding fewer posts than there was room
+     * for means nothing is left to take back, so the timeline counts as whole
+     * again.
+     *
+     * @param older       The newest dropped posts, at most refillRoom() of
+     *                    them, all older than oldestID()
+     * @param changesSeen The change count read before looking for them
+     * @return true if the posts were put back
+     */
+    synchronized boolean refill(List<Post> older, int changesSeen) {
+        if (changes != changesSeen) {
+            return false;
+        }
+        int room = capacity - entries.size();
+        for (Post post : older) {
+            entries.put(post.getPostID(), post);
+        }
+        if (older.size() < room) {
+            truncated = false;
+        }
+        changes++;
+        return true;
+    }
+
+    /**
+     * Returns the number of posts in this timeline.
+     *
+     * @return The number of posts
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the maximum number of posts this timeline keeps.
+     *
+     * @return The capacity of the timeline
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+}
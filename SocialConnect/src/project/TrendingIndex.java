@@ -0,0 +1,296 @@
+package project;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+import project.enums.PostAudience;
+
+/**
+ * Keeps the posts of a SocialConnect platform ordered by a time-decayed score,
+ * so the Trending page can be read without re-scoring every post.
+ * <p>
+ * A post counts as one upvote when it is created, and every vote then adds or
+ * subtracts one. Each of these contributions halves in weight every
+ * {@link #HALF_LIFE_MILLIS}, so a post's trending score at time t is the sum of
+ * {@code sign * 2^-((t - castAt) / HALF_LIFE_MILLIS)} over its contributions.
+ * Since every score decays by the same factor as time passes, the order of the
+ * posts never changes by itself. The index therefore stores each post's score
+ * as of a fixed base time, its heat, and a post only moves when it is voted on,
+ * which costs O(log n) like a {@link PopularityIndex} update.
+ * <p>
+ * A vote at time t adds {@code 2^((t - base) / HALF_LIFE_MILLIS)} to the heat,
+ * which grows without bound as time passes. Once a vote would be more than
+ * {@value #REBASE_HALF_LIVES} half-lives past the base, the base is moved to
+ * the present and every heat is scaled down by the same factor in one batch.
+ * The order is unchanged, but feed cursors issued before a rebase no longer
+ * point into the new keys.
+ * <p>
+ * Like a {@link PopularityIndex}, the index keeps the posts every member can
+ * see in a second ranking of their own.
+ * <p>
+ * The index is safe for concurrent use. Callers must hold the lock of a post
+ * while adding, removing or voting on it; a rebase takes the index's write
+ * lock, which keeps all of those out while the heats are rescaled.
+ */
+public class TrendingIndex implements RankedPosts {
+    /** Time in which a vote loses half of its weight: twelve hours */
+    public static final long HALF_LIFE_MILLIS = 12 * 60 * 60 * 1000L;
+
+    /** Half-lives past the base after which the heats are rescaled */
+    static final int REBASE_HALF_LIVES = 64;
+
+    /** The ranked posts keyed by their Trending sort key */
+    private final ConcurrentSkipListMap<Long, Post> ranked;
+
+    /** The ranked posts that every member can see, keyed like {@link #ranked} */
+    private final ConcurrentSkipListMap<Long, Post> shared;
+
+    /** Held for reading by every change and query, and for writing by a rebase */
+    private final ReentrantReadWriteLock lock;
+
+    /** The time at which a contribution has weight 1 */
+    private volatile long base;
+
+    /**
+     * Creates an empty trending index whose base is the current time.
+     */
+    public TrendingIndex() {
+        this(System.currentTimeMillis());
+    }
+
+    /**
+     * Creates an empty trending index with the given base time.
+     *
+     * @param base The time at which a contribution has weight 1
+     */
+    TrendingIndex(long base) {
+        this.ranked = new ConcurrentSkipListMap<>();
+        this.shared = new ConcurrentSkipListMap<>();
+        this.lock = new ReentrantReadWriteLock();
+        this.base = base;
+    }
+
+    /**
+     * Adds a post to the index. Its creation counts with the weight of its
+     * creation time; votes cast while it was not logged count with the weight
+     * of its last vote.
+     *
+     * @param post The post to add
+     */
+    void add(Post post) {
+        long latest = Math.max(post.getCreatedAt(), post.getLastVoteAt());
+        rebaseIfNeeded(latest);
+        lock.readLock().lock();
+        try {
+            double heat = weight(post.getCreatedAt());
+            if (post.getPopularityScore() != 0) {
+                heat += post.getPopularityScore() * weight(latest);
+            }
+            post.trendingHeat = heat;
+            put(post);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a post from the index.
+     *
+     * @param post The post to remove
+     */
+    void remove(Post post) {
+        lock.readLock().lock();
+        try {
+            ranked.remove(key(post), post);
+            shared.remove(key(post), post);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a vote to a post's heat and moves the post to its new position.
+     *
+     * @param post    The post voted on
+     * @param delta   1 for an upvote, -1 for a downvote
+     * @param votedAt When the vote was cast
+     */
+    void vote(Post post, int delta, long votedAt) {
+        rebaseIfNeeded(votedAt);
+        lock.readLock().lock();
+        try {
+            boolean indexed = ranked.remove(key(post), post);
+            shared.remove(key(post), post);
+            post.trendingHeat += delta * weight(votedAt);
+            if (indexed) {
+                put(post);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the heat of a post with a score it had at a given time, e.g.
+     * one saved in a snapshot.
+     *
+     * @param post    The post
+     * @param score   The trending score of the post at time {@code scoreAt}
+     * @param scoreAt The time the score was taken
+     */
+    void restore(Post post, double score, long scoreAt) {
+        rebaseIfNeeded(scoreAt);
+        lock.readLock().lock();
+        try {
+            boolean indexed = ranked.remove(key(post), post);
+            shared.remove(key(post), post);
+            post.trendingHeat = score * weight(scoreAt);
+            if (indexed) {
+                put(post);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the trending score of a post at a given time.
+     *
+     * @param post The post
+     * @param at   The time to score at
+     * @return The decayed score
+     */
+    double scoreAt(Post post, long at) {
+        lock.readLock().lock();
+        try {
+            return post.trendingHeat / weight(at);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the trending posts that match a filter, in ranking order. The
+     * walk stops as soon as enough posts have been found.
+     *
+     * @param filter The posts to keep
+     * @param limit  The maximum number of posts to return
+     * @return The matching posts, hottest first
+     */
+    public List<Post> top(Predicate<Post> filter, int limit) {
+        return after(Long.MIN_VALUE, filter, limit);
+    }
+
+    /**
+     * Returns the posts that match a filter and rank after the given sort key,
+     * in ranking order. Used to read the Trending feed one page at a time.
+     *
+     * @param afterKey The sort key of the last post already read
+     * @param filter   The posts to keep
+     * @param limit    The maximum number of posts to return
+     * @return The matching posts, hottest first
+     */
+    @Override
+    public List<Post> after(long afterKey, Predicate<Post> filter, int limit) {
+        return walk(ranked, afterKey, filter, limit);
+    }
+
+    /**
+     * Returns the posts every member can see that rank after the given sort
+     * key, in ranking order. No post is skipped, so this costs O(log n + limit).
+     *
+     * @param afterKey The sort key of the last post already read
+     * @param limit    The maximum number of posts to return
+     * @return The posts, hottest first
+     */
+    @Override
+    public List<Post> sharedAfter(long afterKey, int limit) {
+        return walk(shared, afterKey, post -> true, limit);
+    }
+
+    private List<Post> walk(ConcurrentSkipListMap<Long, Post> index, long afterKey, Predicate<Post> filter,
+            int limit) {
+        List<Post> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Post post : index.tailMap(afterKey, false).values()) {
+                if (result.size() >= limit) {
+                    break;
+                }
+                if (filter.test(post)) {
+                    result.add(post);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of posts in the index.
+     *
+     * @return The number of ranked posts
+     */
+    public int size() {
+        return ranked.size();
+    }
+
+    /**
+     * Returns the weight of a contribution made at a given time.
+     */
+    private double weight(long at) {
+        return Math.pow(2, (double) (at - base) / HALF_LIFE_MILLIS);
+    }
+
+    /**
+     * Moves the base to a time if that time is too far past it, scaling every
+     * heat down to match. Must not be called while holding the read lock.
+     */
+    private void rebaseIfNeeded(long at) {
+        if (at - base <= REBASE_HALF_LIVES * HALF_LIFE_MILLIS) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (at - base <= REBASE_HALF_LIVES * HALF_LIFE_MILLIS) {
+                return; // Another thread rebased first
+            }
+            double scale = 1 / weight(at);
+            List<Post> posts = new ArrayList<>(ranked.values());
+            ranked.clear();
+            shared.clear();
+            for (Post post : posts) {
+                post.trendingHeat *= scale;
+                put(post);
+            }
+            base = at;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Puts a post into the ranking, and into the shared one if every member
+     * can see it.
+     */
+    private void put(Post post) {
+        ranked.put(key(post), post);
+        if (post.getAudience() == PostAudience.Members) {
+            shared.put(key(post), post);
+        }
+    }
+
+    /**
+     * Returns the key a post is stored under.
+     *
+     * @param post The post
+     * @return The Trending sort key of the post
+     */
+    private static long key(Post post) {
+        return FeedPage.trendingKey(post.trendingHeat, post.getPostID());
+    }
+}
@@ -7,10 +7,14 @@
  */
 package project;
 
+import project.enums.PageAlgorithm;
 import project.enums.PostAudience;
 import project.interfaces.Displayable;
+import project.util.VoteBitmap;
 import javax.swing.*;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.io.IOException;
 
@@ -18,17 +22,24 @@ import java.io.IOException;
  * A User object represents an individual user in the SocialConnect platform.
  * This class provides methods for managing user authentication, relationships,
  * and post operations.
+ * <p>
+ * The post lists of a user are safe to read and update from several sessions
+ * at once; iteration always works on a snapshot. Follow relationships live in
+ * the follow graph of the platform the user is registered on.
  */
 public class User implements Comparable<User>, Displayable {
     private String username;// cannot be empty. at least 8 characters long. must be checked before calling
                             // constructor.
     private String password; // cannot be empty. at least 8 characters long. must be checked before calling
                              // constructor.
-    private ArrayList<Post> owned;
-    private ArrayList<Post> posts; // List to store all posts (owned + reshared)
-    private ArrayList<String> followers; // should not contain duplicated nor the this.username
-    private ArrayList<String> following; // should not contain duplicates nor the this.username
-    private SocialConnect loggedInto;
+    private List<Post> owned;
+    private List<Post> posts; // List to store all posts (owned + reshared)
+    private volatile SocialConnect loggedInto;
+    private volatile SocialConnect memberOf; // platform this user is registered on, null if none
+    private volatile int userID; // dense ID given at registration, -1 until registered
+    private SocialConnect userIDIssuer; // platform that gave the user ID, null while it is -1
+    private Timeline timeline; // precomputed home feed, filled by the platform
+    private final VoteBitmap votedOn; // IDs of the posts this member's vote is kept on by user ID
 
     /**
      * Constructs a new User with the specified username and password.
@@ -48,11 +59,13 @@ public class User implements Comparable<User>, Displayable {
         }
         this.username = username;
         this.password = password;
-        this.owned = new ArrayList<Post>();
-        this.posts = new ArrayList<Post>(); // Initialize posts list
-        this.followers = new ArrayList<String>();
-        this.following = new ArrayList<String>();
+        this.owned = Collections.synchronizedList(new ArrayList<Post>());
+        this.posts = Collections.synchronizedList(new ArrayList<Post>()); // Initialize posts list
         this.loggedInto = null;
+        this.memberOf = null;
+        this.userID = -1;
+        this.timeline = new Timeline();
+        this.votedOn = new VoteBitmap();
     }
 
     /**
@@ -64,6 +77,57 @@ public class User implements Comparable<User>, Displayable {
         return username;
     }
 
+    /**
+     * Returns the dense numeric ID this user was given when they registered.
+     * IDs are handed out consecutively from 0 by the platform, which lets
+     * per-post vote sets store them as compact bitmaps. An ID only means
+     * something on the platform that gave it, so a user can be registered on
+     * that platform alone.
+     * 
+     * @return The user ID, or -1 if the user has never been registered
+     */
+    public int getUserID() {
+        return userID;
+    }
+
+    /**
+     * Returns the platform that gave this user their ID.
+     * 
+     * @return The platform, or null if the user has no ID
+     */
+    synchronized SocialConnect getUserIDIssuer() {
+        return userIDIssuer;
+    }
+
+    /**
+     * Gives this user a dense numeric ID unless it already has one.
+     * 
+     * @param issuer The platform giving the ID
+     * @param userID The ID given by the platform
+     * @return true if the ID was set, false if the user already had an ID
+     */
+    synchronized boolean assignUserID(SocialConnect issuer, int userID) {
+        if (this.userID >= 0) {
+            return false;
+        }
+        this.userIDIssuer = issuer;
+        this.userID = userID;
+        return true;
+    }
+
+    /**
+     * Takes back an ID given by {@link #assignUserID(SocialConnect, int)}, if
+     * the user still has it. Used when a registration loses to another one.
+     * 
+     * @param userID The ID to take back
+     */
+    synchronized void revokeUserID(int userID) {
+        if (this.userID == userID) {
+            this.userID = -1;
+            this.userIDIssuer = null;
+        }
+    }
+
     /**
      * Returns the password of this User object.
      * 
@@ -80,7 +144,9 @@ public class User implements Comparable<User>, Displayable {
      * @return A new ArrayList containing all posts owned by this user
      */
     public ArrayList<Post> getOwnedPosts() {
-        return new ArrayList<>(owned);
+        synchronized (owned) {
+            return new ArrayList<>(owned);
+        }
     }
 
     /**
@@ -90,7 +156,8 @@ public class User implements Comparable<User>, Displayable {
      * @return A copy of the list of usernames of people following this User object
      */
     public ArrayList<String> getFollowers() {
-        return new ArrayList<>(followers);
+        SocialConnect platform = memberOf;
+        return platform == null ? new ArrayList<>() : platform.getFollowerNames(this);
     }
 
     /**
@@ -102,7 +169,8 @@ public class User implements Comparable<User>, Displayable {
      *         following
      */
     public ArrayList<String> getFollowing() {
-        return new ArrayList<>(following);
+        SocialConnect platform = memberOf;
+        return platform == null ? new ArrayList<>() : platform.getFollowingNames(this);
     }
 
     /**
@@ -129,6 +197,49 @@ public class User implements Comparable<User>, Displayable {
         this.loggedInto = SocialConnect;
     }
 
+    /**
+     * Sets the SocialConnect platform this user is registered on.
+     * 
+     * @param SocialConnect The platform, or null if the user has been removed
+     */
+    void setMemberOf(SocialConnect SocialConnect) {
+        this.memberOf = SocialConnect;
+    }
+
+    /**
+     * Records that this member voted on a post, so the vote can be taken back
+     * if they leave the platform.
+     * 
+     * @param postID The ID of the post voted on
+     */
+    void recordVote(int postID) {
+        synchronized (votedOn) {
+            votedOn.add(postID);
+        }
+    }
+
+    /**
+     * Returns the IDs of the posts this member voted on and forgets them.
+     * 
+     * @return The post IDs in ascending order
+     */
+    int[] takeVotedPostIDs() {
+        synchronized (votedOn) {
+            int[] postIDs = votedOn.toArray();
+            votedOn.clear();
+            return postIDs;
+        }
+    }
+
+    /**
+     * Returns the precomputed home timeline of this user.
+     * 
+     * @return The timeline of this user
+     */
+    Timeline getTimeline() {
+        return timeline;
+    }
+
     /**
      * Logs out the user from the current SocialConnect platform instance.
      */
@@ -151,6 +262,9 @@ public class User implements Comparable<User>, Displayable {
         RegularPost post = new RegularPost(username, text, audience);
         this.owned.add(post);
         this.posts.add(post);
+        if (loggedInto != null) {
+            loggedInto.logNewPost(post);
+        }
         return post;
     }
 
@@ -184,6 +298,9 @@ public class User implements Comparable<User>, Displayable {
                 this.username);
         this.owned.add(post);
         this.posts.add(post);
+        if (loggedInto != null) {
+            loggedInto.logNewPost(post);
+        }
         return post;
     }
 
@@ -199,6 +316,7 @@ public class User implements Comparable<User>, Displayable {
     public void createImagePost(String caption, String imagePath, PostAudience audience) {
         try {
             ImagePost post = new ImagePost(audience, username, imagePath, caption);
+            owned.add(post);
             posts.add(post);
             if (loggedInto != null) {
                 loggedInto.logNewPost(post);
@@ -212,7 +330,8 @@ public class User implements Comparable<User>, Displayable {
      * Retrieves posts visible to a specific viewer, sorted according to the
      * specified criteria.
      * 
-     * @param sortBy The sorting criterion ("popularity", "newest", or "oldest")
+     * @param sortBy The sorting criterion ("popularity", "newest", "oldest" or
+     *               "trending")
      * @param viewer The user attempting to view the posts
      * @return ArrayList of posts visible to the viewer, sorted as specified
      * @throws IllegalArgumentException if sortBy is not one of the valid options
@@ -221,7 +340,7 @@ public class User implements Comparable<User>, Displayable {
         ArrayList<Post> visiblePosts = new ArrayList<>();
 
         // Filter posts based on viewer's permissions
-        for (Post post : posts) {
+        for (Post post : snapshotPosts()) {
             if (post.canView(viewer)) {
                 visiblePosts.add(post);
             }
@@ -238,13 +357,66 @@ public class User implements Comparable<User>, Displayable {
             case "oldest":
                 visiblePosts.sort((p1, p2) -> p1.getPostID() - p2.getPostID());
                 break;
+            case "trending":
+                visiblePosts.sort(Comparator.comparingLong(p -> FeedPage.sortKey(PageAlgorithm.Trending, p)));
+                break;
             default:
-                throw new IllegalArgumentException("Invalid sort option. Use: popularity, newest, or oldest");
+                throw new IllegalArgumentException("Invalid sort option. Use: popularity, newest, oldest, or trending");
         }
 
         return visiblePosts;
     }
 
+    /**
+     * Retrieves one page of the posts visible to a specific viewer, sorted
+     * according to the specified criteria. Only the posts of the page are kept
+     * in a bounded heap while scanning, so the first page costs O(n log k)
+     * rather than a full sort.
+     * 
+     * @param sortBy   The sorting criterion ("popularity", "newest", "oldest" or
+     *                 "trending")
+     * @param viewer   The user attempting to view the posts
+     * @param pageSize The maximum number of posts on the page
+     * @param cursor   The cursor returned with the previous page, or null for
+     *                 the first page
+     * @return The requested page
+     * @throws IllegalArgumentException if sortBy is not one of the valid
+     *                                  options, pageSize is not positive or the
+     *                                  cursor is invalid
+     */
+    public FeedPage getPostsPage(String sortBy, User viewer, int pageSize, String cursor) {
+        PageAlgorithm algorithm;
+        switch (sortBy.toLowerCase()) {
+            case "popularity":
+                algorithm = PageAlgorithm.Popular;
+                break;
+            case "newest":
+                algorithm = PageAlgorithm.Newest;
+                break;
+            case "oldest":
+                algorithm = PageAlgorithm.Oldest;
+                break;
+            case "trending":
+                algorithm = PageAlgorithm.Trending;
+                break;
+            default:
+                throw new IllegalArgumentException("Invalid sort option. Use: popularity, newest, oldest, or trending");
+        }
+        return FeedPage.select(snapshotPosts(), post -> post.canView(viewer), algorithm, pageSize, cursor);
+    }
+
+    /**
+     * Returns a copy of this user's posts taken under the list lock, so it can
+     * be iterated while other sessions keep posting.
+     *
+     * @return A new list with all posts of this user
+     */
+    private List<Post> snapshotPosts() {
+        synchronized (posts) {
+            return new ArrayList<>(posts);
+        }
+    }
+
     /**
      * Deletes a post owned by this user.
      * 
@@ -255,11 +427,10 @@ public class User implements Comparable<User>, Displayable {
         if (post == null) {
             throw new IllegalArgumentException("Post cannot be null");
         }
-        if (!owned.contains(post)) {
+        // Remove from owned posts
+        if (!owned.remove(post)) {
             throw new IllegalArgumentException("Post does not exist or cannot be deleted");
         }
-        // Remove from owned posts
-        owned.remove(post);
         // Remove from posts
         posts.remove(post);
         // Remove from SocialConnect if logged in
@@ -268,6 +439,21 @@ public class User implements Comparable<User>, Displayable {
         }
     }
 
+    /**
+     * Adds an existing post, e.g. one restored from storage, to this user's
+     * owned posts without logging it.
+     * 
+     * @param post The post owned by this user
+     */
+    void attachPost(Post post) {
+        synchronized (owned) {
+            if (!owned.contains(post)) {
+                owned.add(post);
+                posts.add(post);
+            }
+        }
+    }
+
     /**
      * Removes a post from this user's owned posts.
      * 
@@ -284,11 +470,14 @@ public class User implements Comparable<User>, Displayable {
 
     /**
      * Adds a follower to the set of people following this user.
+     * This is the same edge as the follower calling {@link #startFollowing}.
      * 
      * @param followerUsername The username of the person to add as a follower.
-     * @throws IllegalArgumentException if the follower username is null, empty, or
-     *                                  the same as the
-     *                                  current user's username.
+     * @throws IllegalArgumentException if the follower username is null, empty,
+     *                                  the same as the current user's username,
+     *                                  or not a member of this user's platform.
+     * @throws IllegalStateException    if this user is not registered on a
+     *                                  platform.
      */
     public void addFollower(String followerUsername) {
         if (followerUsername == null || followerUsername.isEmpty()) {
@@ -297,29 +486,57 @@ public class User implements Comparable<User>, Displayable {
         if (followerUsername.equals(this.username)) {
             throw new IllegalArgumentException("Cannot follow yourself");
         }
-        if (!followers.contains(followerUsername)) {
-            followers.add(followerUsername);
+        SocialConnect platform = requireMembership();
+        User follower = platform.getUser(followerUsername);
+        if (follower == null) {
+            throw new IllegalArgumentException(followerUsername + " is not a member");
         }
+        platform.follow(follower, username);
     }
 
     /**
-     * @param followerUsername
+     * Removes a follower from the set of people following this user.
+     * This is the same edge as the follower calling {@link #stopFollowing}.
+     * 
+     * @param followerUsername The username of the follower to remove.
+     * @throws IllegalArgumentException if the follower username is null or empty.
      */
     public void removeFollower(String followerUsername) {
         if (followerUsername == null || followerUsername.isEmpty()) {
             throw new IllegalArgumentException("Follower username cannot be empty");
         }
-        followers.remove(followerUsername);
+        SocialConnect platform = memberOf;
+        User follower = platform == null ? null : platform.getUser(followerUsername);
+        if (follower != null) {
+            platform.unfollow(follower, username);
+        }
     }
 
     /**
-     * @param followerUsername
-     * @return boolean
+     * Checks if the given user follows this user.
+     * 
+     * @param followerUsername The username of the possible follower.
+     * @return true if that user follows this user.
      */
     public boolean isAFollower(String followerUsername) {
-        return followers.contains(followerUsername);
+        SocialConnect platform = memberOf;
+        User follower = platform == null ? null : platform.getUser(followerUsername);
+        return follower != null && platform.isFollowing(follower, username);
     }
 
+    /**
+     * Starts following a user with the given username.
+     * 
+     * The follow is a single edge in the platform's follow graph, so the other
+     * user gains this User as a follower at the same time, and their posts that
+     * this User can now see are added to this User's timeline.
+     * 
+     * @param followingUsername The username of the user to follow.
+     * @throws IllegalArgumentException if the username is null, empty, this
+     *                                  User's own username, or not a member.
+     * @throws IllegalStateException    if this User is not registered on a
+     *                                  platform.
+     */
     public void startFollowing(String followingUsername) {
         if (followingUsername == null || followingUsername.isEmpty()) {
             throw new IllegalArgumentException("Following username cannot be empty");
@@ -327,19 +544,15 @@ public class User implements Comparable<User>, Displayable {
         if (followingUsername.equals(this.username)) {
             throw new IllegalArgumentException("Cannot follow yourself");
         }
-
-        if (!following.contains(followingUsername)) {
-            following.add(followingUsername);
-        }
+        requireMembership().follow(this, followingUsername);
     }
 
     /**
      * Stops following a user with the given username.
      * 
-     * This method removes the specified username from the list of users
-     * this User is following. If the user is logged into a SocialConnect
-     * instance, it also removes this User from the other user's list
-     * of followers.
+     * This removes the follow edge from the platform's follow graph, so this
+     * User also leaves the other user's followers, and retracts their
+     * followers-only posts from this User's timeline.
      * 
      * @param followingUsername The username of the user to stop following.
      * @throws IllegalArgumentException if the username is null or empty.
@@ -348,28 +561,46 @@ public class User implements Comparable<User>, Displayable {
         if (followingUsername == null || followingUsername.isEmpty()) {
             throw new IllegalArgumentException("Following username cannot be empty");
         }
-
-        if (following.remove(followingUsername)) {
+        SocialConnect platform = memberOf;
+        if (platform != null && platform.isMember(followingUsername)) {
+            platform.unfollow(this, followingUsername);
         }
     }
 
     /**
-     * Returns true if the given username is in the list of users this User is
-     * following,
-     * false otherwise.
+     * Returns true if this User follows the user with the given username,
+     * false otherwise. This is a constant-time lookup in the platform's follow
+     * graph.
      * 
      * @param followingUsername The username to check if this User is following.
-     * @return True if the given username is in the list of users this User is
-     *         following,
-     *         false otherwise.
+     * @return True if this User follows that user, false otherwise or if this
+     *         User is not registered on a platform.
      */
     public boolean isFollowing(String followingUsername) {
-        return following.contains(followingUsername);
+        SocialConnect platform = memberOf;
+        return platform != null && platform.isFollowing(this, followingUsername);
+    }
+
+    /**
+     * Returns the platform this user is registered on.
+     * 
+     * @return The platform
+     * @throws IllegalStateException if this user is not registered
+     */
+    private SocialConnect requireMembership() {
+        SocialConnect platform = memberOf;
+        if (platform == null) {
+            throw new IllegalStateException(username + " must be registered on a platform to follow users");
+        }
+        return platform;
     }
 
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
+        List<Post> posts = snapshotPosts();
+        List<String> followers = getFollowers();
+        List<String> following = getFollowing();
         sb.append(String.format("User: %s\n", username));
         sb.append(String.format("Followers: %d\n", followers.size()));
         sb.append(String.format("Following: %d\n", following.size()));
@@ -403,6 +634,9 @@ public class User implements Comparable<User>, Displayable {
 
     @Override
     public JPanel display() {
+        List<Post> posts = snapshotPosts();
+        List<String> followers = getFollowers();
+        List<String> following = getFollowing();
         JPanel panel = new JPanel();
         panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
 
@@ -0,0 +1,276 @@
+package project;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A trigram index over the usernames of the members of a SocialConnect
+ * platform, for substring search that does not scan the member list.
+ * <p>
+ * Every lowercased username is split into its overlapping three-character
+ * grams, and each gram keeps a sorted posting list of the user IDs whose
+ * username contains it. A query of three or more characters intersects the
+ * posting lists of its own grams, starting with the shortest, and only the
+ * few surviving candidates are checked for the full substring. Usernames are
+ * also indexed under their one- and two-character grams, so a shorter query
+ * is answered by the posting list of the query itself. Every candidate is
+ * ranked in a bounded heap, whatever the length of the query.
+ * <p>
+ * Matching ignores case. Results are ranked: an exact match first, then
+ * usernames that start with the query, then by how early the query occurs,
+ * then shorter usernames, then alphabetically.
+ * <p>
+ * The index is safe for concurrent use; searches share a read lock and only
+ * adding or removing a username takes the write lock.
+ */
+public class UsernameIndex {
+    /** Length of the indexed grams */
+    private static final int GRAM = 3;
+
+    /** Sorted user IDs of the usernames containing each gram of up to three characters, keyed by packed gram */
+    private final Map<Long, int[]> postings;
+
+    /** Number of IDs in use at the front of each posting array */
+    private final Map<Long, Integer> postingSizes;
+
+    /** Lowercased username of each indexed user, by user ID */
+    private final Map<Integer, String> names;
+
+    private final ReentrantReadWriteLock lock;
+
+    /**
+     * Creates an empty username index.
+     */
+    public UsernameIndex() {
+        this.postings = new HashMap<>();
+        this.postingSizes = new HashMap<>();
+        this.names = new HashMap<>();
+        this.lock = new ReentrantReadWriteLock();
+    }
+
+    /**
+     * Indexes a username under a user ID.
+     *
+     * @param userID   The user ID
+     * @param username The username
+     */
+    public void add(int userID, String username) {
+        String name = username.toLowerCase(Locale.ROOT);
+        lock.writeLock().lock();
+        try {
+            if (names.putIfAbsent(userID, name) != null) {
+                return;
+            }
+            for (int length = 1; length <= GRAM; length++) {
+                for (long gram : grams(name, length)) {
+                    insert(gram, userID);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a user from the index.
+     *
+     * @param userID The user ID
+     */
+    public void remove(int userID) {
+        lock.writeLock().lock();
+        try {
+            String name = names.remove(userID);
+            if (name == null) {
+                return;
+            }
+            for (int length = 1; length <= GRAM; length++) {
+                for (long gram : grams(name, length)) {
+                    delete(gram, userID);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the users whose username contains a query, ignoring case.
+     *
+     * @param query The text to look for
+     * @param limit The maximum number of results
+     * @return The matching user IDs, best match first
+     */
+    public int[] search(String query, int limit) {
+        if (query == null || query.isEmpty() || limit <= 0) {
+            return new int[0];
+        }
+        String needle = query.toLowerCase(Locale.ROOT);
+        lock.readLock().lock();
+        try {
+            return lookup(needle, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of indexed usernames.
+     *
+     * @return The size of the index
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return names.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Answers a query from the posting lists of its grams, or of the query
+     * itself if it is shorter than a trigram.
+     */
+    private int[] lookup(String needle, int limit) {
+        long[] grams = grams(needle, Math.min(GRAM, needle.length()));
+        int[][] lists = new int[grams.length][];
+        int[] sizes = new int[grams.length];
+        Integer[] order = new Integer[grams.length];
+        for (int i = 0; i < grams.length; i++) {
+            lists[i] = postings.get(grams[i]);
+            if (lists[i] == null) {
+                return new int[0];
+            }
+            sizes[i] = postingSizes.get(grams[i]);
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingInt(i -> sizes[i]));
+
+        // Intersect, shortest list first, so the candidate set only shrinks
+        int[] candidates = Arrays.copyOf(lists[order[0]], sizes[order[0]]);
+        int count = candidates.length;
+        for (int k = 1; k < order.length && count > 0; k++) {
+            int[] list = lists[order[k]];
+            int size = sizes[order[k]];
+            int kept = 0;
+            for (int c = 0; c < count; c++) {
+                if (Arrays.binarySearch(list, 0, size, candidates[c]) >= 0) {
+                    candidates[kept++] = candidates[c];
+                }
+            }
+            count = kept;
+        }
+
+        PriorityQueue<Match> best = new PriorityQueue<>(Comparator.reverseOrder());
+        for (int c = 0; c < count; c++) {
+            String name = names.get(candidates[c]);
+            int position = name.indexOf(needle);
+            if (position >= 0) {
+                offer(best, new Match(candidates[c], name, needle, position), limit);
+            }
+        }
+        return drain(best);
+    }
+
+    private static void offer(PriorityQueue<Match> best, Match match, int limit) {
+        if (best.size() < limit) {
+            best.add(match);
+        } else if (match.compareTo(best.peek()) < 0) {
+            best.poll();
+            best.add(match);
+        }
+    }
+
+    private static int[] drain(PriorityQueue<Match> best) {
+        int[] result = new int[best.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = best.poll().userID;
+        }
+        return result;
+    }
+
+    private void insert(long gram, int userID) {
+        int[] list = postings.get(gram);
+        int size = list == null ? 0 : postingSizes.get(gram);
+        if (list == null) {
+            list = new int[4];
+        }
+        int at = Arrays.binarySearch(list, 0, size, userID);
+        if (at >= 0) {
+            return; // Gram occurs more than once in the username
+        }
+        at = -at - 1;
+        if (size == list.length) {
+            list = Arrays.copyOf(list, size * 2);
+        }
+        System.arraycopy(list, at, list, at + 1, size - at);
+        list[at] = userID;
+        postings.put(gram, list);
+        postingSizes.put(gram, size + 1);
+    }
+
+    private void delete(long gram, int userID) {
+        int[] list = postings.get(gram);
+        if (list == null) {
+            return;
+        }
+        int size = postingSizes.get(gram);
+        int at = Arrays.binarySearch(list, 0, size, userID);
+        if (at < 0) {
+            return;
+        }
+        System.arraycopy(list, at + 1, list, at, size - at - 1);
+        if (size == 1) {
+            postings.remove(gram);
+            postingSizes.remove(gram);
+        } else {
+            postingSizes.put(gram, size - 1);
+        }
+    }
+
+    /**
+     * Returns the distinct grams of a given length of a lowercased string,
+     * each packed into a long as the length and up to three 16-bit characters.
+     */
+    private static long[] grams(String s, int length) {
+        int count = Math.max(0, s.length() - length + 1);
+        long[] grams = new long[count];
+        for (int i = 0; i < count; i++) {
+            long gram = length;
+            for (int j = 0; j < length; j++) {
+                gram = (gram << 16) | s.charAt(i + j);
+            }
+            grams[i] = gram;
+        }
+        return Arrays.stream(grams).distinct().toArray();
+    }
+
+    /** A verified match and its rank; smaller compares as better */
+    private static final class Match implements Comparable<Match> {
+        final int userID;
+        final String name;
+        final int rank;
+
+        Match(int userID, String name, String needle, int position) {
+            this.userID = userID;
+            this.name = name;
+            this.rank = name.equals(needle) ? -1 : position;
+        }
+
+        @Override
+        public int compareTo(Match other) {
+            if (rank != other.rank) {
+                return Integer.compare(rank, other.rank);
+            }
+            if (name.length() != other.name.length()) {
+                return Integer.compare(name.length(), other.name.length());
+            }
+            return name.compareTo(other.name);
+        }
+    }
+}
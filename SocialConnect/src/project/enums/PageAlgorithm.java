@@ -16,7 +16,10 @@ public enum PageAlgorithm {
     Newest("Newest first!"), 
     
     /** Orders posts chronologically with oldest posts first */
-    Oldest("Oldest first!");
+    Oldest("Oldest first!"),
+
+    /** Orders posts by their votes, each decayed by its age, hottest first */
+    Trending("Trending now, hottest at the top");
 
     private String description;
 
@@ -0,0 +1,156 @@
+package project.events;
+
+import project.Post;
+import project.User;
+
+/**
+ * A change made to a SocialConnect platform, as published on its
+ * {@link ChangeEventBus}.
+ * <p>
+ * Each kind of change is a nested subclass, so subscribers can pick out the
+ * events they care about with {@code instanceof}. Events are immutable and
+ * describe the change as it was when it was made; the objects they refer to
+ * may have changed again since.
+ */
+public abstract class ChangeEvent {
+    private ChangeEvent() {
+    }
+
+    /**
+     * A post, including a reshare, was logged on the platform.
+     */
+    public static final class PostCreated extends ChangeEvent {
+        private final Post post;
+
+        PostCreated(Post post) {
+            this.post = post;
+        }
+
+        /**
+         * @return The new post
+         */
+        public Post getPost() {
+            return post;
+        }
+
+        @Override
+        public String toString() {
+            return "PostCreated[" + post.getPostID() + "]";
+        }
+    }
+
+    /**
+     * A post was deleted from the platform.
+     */
+    public static final class PostDeleted extends ChangeEvent {
+        private final Post post;
+
+        PostDeleted(Post post) {
+            this.post = post;
+        }
+
+        /**
+         * @return The deleted post
+         */
+        public Post getPost() {
+            return post;
+        }
+
+        @Override
+        public String toString() {
+            return "PostDeleted[" + post.getPostID() + "]";
+        }
+    }
+
+    /**
+     * A member voted on a post.
+     */
+    public static final class VoteChanged extends ChangeEvent {
+        private final Post post;
+        private final String voter;
+        private final boolean upvote;
+        private final int voteCount;
+
+        VoteChanged(Post post, String voter, boolean upvote, int voteCount) {
+            this.post = post;
+            this.voter = voter;
+            this.upvote = upvote;
+            this.voteCount = voteCount;
+        }
+
+        /**
+         * @return The post voted on
+         */
+        public Post getPost() {
+            return post;
+        }
+
+        /**
+         * @return The username of the voter
+         */
+        public String getVoter() {
+            return voter;
+        }
+
+        /**
+         * @return true for an upvote, false for a downvote
+         */
+        public boolean isUpvote() {
+            return upvote;
+        }
+
+        /**
+         * @return The vote count of the post just after the vote
+         */
+        public int getVoteCount() {
+            return voteCount;
+        }
+
+        @Override
+        public String toString() {
+            return "VoteChanged[" + post.getPostID() + ", " + voter + (upvote ? ", up]" : ", down]");
+        }
+    }
+
+    /**
+     * A member started or stopped following another member.
+     */
+    public static final class FollowChanged extends ChangeEvent {
+        private final User follower;
+        private final User followee;
+        private final boolean following;
+
+        FollowChanged(User follower, User followee, boolean following) {
+            this.follower = follower;
+            this.followee = followee;
+            this.following = following;
+        }
+
+        /**
+         * @return The member who followed or unfollowed
+         */
+        public User getFollower() {
+            return follower;
+        }
+
+        /**
+         * @return The member who was followed or unfollowed
+         */
+        public User getFollowee() {
+            return followee;
+        }
+
+        /**
+         * @return true if the follow was added, false if it was removed
+         */
+        public boolean isFollowing() {
+            return following;
+        }
+
+        @Override
+        public String toString() {
+            return "FollowChanged[" + follower.getUsername() + (following ? " -> " : " -/> ")
+                    + followee.getUsername() + "]";
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package project.events;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import project.Post;
+import project.User;
+import project.interfaces.ChangeEventListener;
+import project.interfaces.MutationListener;
+
+/**
+ * Publishes the changes made to a SocialConnect platform as typed
+ * {@link ChangeEvent}s.
+ * <p>
+ * Every platform owns one bus, registered as one of its mutation listeners.
+ * Events are delivered synchronously, on the thread that made the change and
+ * possibly while it holds the lock of the post involved, so subscribers must
+ * return quickly. A subscriber that updates a user interface should queue the
+ * events and apply them on its own thread.
+ */
+public class ChangeEventBus implements MutationListener {
+    private final CopyOnWriteArrayList<ChangeEventListener> subscribers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Starts delivering events to a subscriber.
+     *
+     * @param subscriber The subscriber to add
+     */
+    public void subscribe(ChangeEventListener subscriber) {
+        subscribers.addIfAbsent(subscriber);
+    }
+
+    /**
+     * Stops delivering events to a subscriber.
+     *
+     * @param subscriber The subscriber to remove
+     */
+    public void unsubscribe(ChangeEventListener subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    /**
+     * Delivers an event to every subscriber.
+     *
+     * @param event The event to publish
+     */
+    public void publish(ChangeEvent event) {
+        for (ChangeEventListener subscriber : subscribers) {
+            subscriber.changed(event);
+        }
+    }
+
+    @Override
+    public void memberAdded(User user) {
+        // Membership changes have no event yet
+    }
+
+    @Override
+    public void memberRemoved(User user) {
+        // Membership changes have no event yet
+    }
+
+    @Override
+    public void postLogged(Post post) {
+        if (!subscribers.isEmpty()) {
+            publish(new ChangeEvent.PostCreated(post));
+        }
+    }
+
+    @Override
+    public void postDeleted(Post post) {
+        if (!subscribers.isEmpty()) {
+            publish(new ChangeEvent.PostDeleted(post));
+        }
+    }
+
+    @Override
+    public void voteCast(Post post, String username, boolean isUpvote) {
+        if (!subscribers.isEmpty()) {
+            // Called under the post's lock, so the count matches this vote
+            publish(new ChangeEvent.VoteChanged(post, username, isUpvote, post.getVoteCount()));
+        }
+    }
+
+    @Override
+    public void followChanged(User follower, User followee, boolean following) {
+        if (!subscribers.isEmpty()) {
+            publish(new ChangeEvent.FollowChanged(follower, followee, following));
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package project.gui;
+
+import javax.swing.JComponent;
+import javax.swing.Timer;
+import java.awt.event.HierarchyEvent;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import project.events.ChangeEvent;
+import project.events.ChangeEventBus;
+import project.interfaces.ChangeEventListener;
+
+/**
+ * Collects the change events of a platform and hands them to the GUI once per
+ * frame, on the event dispatch thread.
+ * <p>
+ * Events may arrive on any thread. The first event of a frame starts a timer;
+ * when it fires, everything queued so far is coalesced and delivered as one
+ * batch, so a burst of changes costs one repaint instead of one per change.
+ * Coalescing keeps only the last vote on each post and the last follow change
+ * between each pair of members, drops the votes on posts deleted in the same
+ * frame, and drops posts that were created and deleted in the same frame.
+ */
+class EventCoalescer implements ChangeEventListener {
+    /** Time from the first event of a frame to its delivery, in milliseconds */
+    static final int FRAME_MS = 16;
+
+    private final ConcurrentLinkedQueue<ChangeEvent> pending;
+    private final AtomicBoolean scheduled;
+    private final CopyOnWriteArrayList<Consumer<List<ChangeEvent>>> receivers;
+    private final Timer timer;
+
+    /**
+     * Creates a coalescer that subscribes to a platform's event bus.
+     *
+     * @param bus The bus to take events from
+     */
+    EventCoalescer(ChangeEventBus bus) {
+        this.pending = new ConcurrentLinkedQueue<>();
+        this.scheduled = new AtomicBoolean();
+        this.receivers = new CopyOnWriteArrayList<>();
+        this.timer = new Timer(FRAME_MS, e -> flush());
+        this.timer.setRepeats(false);
+        bus.subscribe(this);
+    }
+
+    @Override
+    public void changed(ChangeEvent event) {
+        pending.add(event);
+        if (scheduled.compareAndSet(false, true)) {
+            timer.start();
+        }
+    }
+
+    /**
+     * Delivers every frame's batch to a receiver while a component is
+     * displayable, so a screen stops receiving once it is taken down.
+     *
+     * @param component The component whose lifetime bounds the subscription
+     * @param receiver  Called on the event dispatch thread with each batch
+     */
+    void deliverWhileShowing(JComponent component, Consumer<List<ChangeEvent>> receiver) {
+        if (component.isDisplayable()) {
+            receivers.addIfAbsent(receiver);
+        }
+        component.addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.DISPLAYABILITY_CHANGED) != 0) {
+                if (component.isDisplayable()) {
+                    receivers.addIfAbsent(receiver);
+                } else {
+                    receivers.remove(receiver);
+                }
+            }
+        });
+    }
+
+    /**
+     * Drains the queue and delivers the coalesced batch.
+     */
+    private void flush() {
+        scheduled.set(false);
+        List<ChangeEvent> batch = coalesce(pending);
+        if (batch.isEmpty()) {
+            return;
+        }
+        for (Consumer<List<ChangeEvent>> receiver : receivers) {
+            receiver.accept(batch);
+        }
+    }
+
+    /**
+     * Removes the events from a queue and coalesces them, keeping the order in
+     * which the surviving changes first happened.
+     *
+     * @param queue The queued events
+     * @return The coalesced events
+     */
+    private static List<ChangeEvent> coalesce(ConcurrentLinkedQueue<ChangeEvent> queue) {
+        Map<Object, ChangeEvent> byKey = new LinkedHashMap<>();
+        ChangeEvent event;
+        while ((event = queue.poll()) != null) {
+            if (event instanceof ChangeEvent.PostCreated) {
+                int postID = ((ChangeEvent.PostCreated) event).getPost().getPostID();
+                byKey.put("post " + postID, event);
+            } else if (event instanceof ChangeEvent.PostDeleted) {
+                int postID = ((ChangeEvent.PostDeleted) event).getPost().getPostID();
+                byKey.remove("vote " + postID);
+                if (byKey.remove("post " + postID) instanceof ChangeEvent.PostCreated) {
+                    continue; // Never shown, so nothing to take down
+                }
+                byKey.put("post " + postID, event);
+            } else if (event instanceof ChangeEvent.VoteChanged) {
+                int postID = ((ChangeEvent.VoteChanged) event).getPost().getPostID();
+                byKey.put("vote " + postID, event);
+            } else if (event instanceof ChangeEvent.FollowChanged) {
+                ChangeEvent.FollowChanged change = (ChangeEvent.FollowChanged) event;
+                byKey.put("follow " + change.getFollower().getUserID() + " " + change.getFollowee().getUserID(),
+                        event);
+            } else {
+                byKey.put(new Object(), event);
+            }
+        }
+        return new ArrayList<>(byKey.values());
+    }
+}
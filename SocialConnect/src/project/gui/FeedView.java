@@ -0,0 +1,597 @@
+package project.gui;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.TableCellEditor;
+import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseMotionAdapter;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.EventObject;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import project.FeedPage;
+import project.ImagePost;
+import project.Post;
+import project.ResharedPost;
+import project.SocialConnect;
+import project.User;
+import project.events.ChangeEvent;
+import project.util.ImageCache;
+
+/**
+ * A scrolling feed of posts that only builds components for the rows in view.
+ * <p>
+ * The feed is a single-column table. One shared row component paints every
+ * visible post by being rebound to it, and a second one is the editor of the
+ * row under the mouse, so that row's buttons can be clicked. No other post
+ * gets a component, so memory and paint time depend on the viewport, not on
+ * the length of the feed. Rows are pulled from a feed source one page at a
+ * time as the user scrolls towards the end of what has been loaded.
+ * <p>
+ * While it is showing, the feed patches itself from the platform's change
+ * events: a vote repaints one row, a deleted post's row is removed and a new
+ * post the feed accepts is inserted at the top. Nothing else is rebuilt.
+ */
+class FeedView extends JScrollPane {
+    private static final long serialVersionUID = 1L;
+
+    /** Rows left below the viewport when the next page is fetched */
+    private static final int PREFETCH_ROWS = 5;
+
+    /** Widest a post card is drawn */
+    private static final int CARD_WIDTH = 600;
+
+    /** Space below each post card */
+    private static final int ROW_GAP = 10;
+
+    /** Largest size an image is drawn at */
+    private static final int IMAGE_WIDTH = 550;
+    private static final int IMAGE_HEIGHT = 400;
+
+    private final SocialConnect platform;
+    private final Function<String, FeedPage> source;
+    private final Predicate<Post> deletable;
+    private final Predicate<Post> insertable;
+    private final Consumer<Post> onReshare;
+    private final Consumer<Post> onDelete;
+
+    private final FeedModel model;
+    private final JTable table;
+    private final PostRow renderer;
+    private final PostRow editorRow;
+    private final JLabel emptyLabel;
+
+    /** Row index of every loaded post */
+    private final IdentityHashMap<Post, Integer> rowOf;
+
+    /** Images that could not be loaded, so they are not requested again */
+    private final Set<String> failedImages;
+
+    private String nextCursor;
+    private boolean exhausted;
+    private boolean loading;
+    private int measuredWidth;
+
+    /**
+     * Creates a feed view and loads its first page.
+     *
+     * @param platform     The platform whose logged-in user views the feed
+     * @param events       The change events the feed patches itself from
+     * @param source       Returns the page after a cursor, or the first page
+     *                     for a null cursor
+     * @param deletable    The posts that get a Delete button
+     * @param insertable   The newly created posts to add to the top of the
+     *                     feed
+     * @param onReshare    Called when Reshare is pressed on a post
+     * @param onDelete     Called when Delete is pressed on a post
+     * @param emptyMessage Shown instead of the feed if it has no posts
+     */
+    FeedView(SocialConnect platform, EventCoalescer events, Function<String, FeedPage> source,
+            Predicate<Post> deletable, Predicate<Post> insertable, Consumer<Post> onReshare, Consumer<Post> onDelete,
+            String emptyMessage) {
+        this.platform = platform;
+        this.source = source;
+        this.deletable = deletable;
+        this.insertable = insertable;
+        this.onReshare = onReshare;
+        this.onDelete = onDelete;
+        this.model = new FeedModel();
+        this.rowOf = new IdentityHashMap<>();
+        this.failedImages = new HashSet<>();
+        this.renderer = new PostRow(false);
+        this.editorRow = new PostRow(true);
+
+        table = new JTable(model);
+        table.setTableHeader(null);
+        table.setShowGrid(false);
+        table.setIntercellSpacing(new Dimension(0, 0));
+        table.setFillsViewportHeight(true);
+        table.setBackground(Color.WHITE);
+        table.setRowSelectionAllowed(false);
+        table.setDefaultRenderer(Object.class,
+                (t, value, selected, focused, row, column) -> renderer.bind((Post) value, rowWidth(), true));
+        table.setDefaultEditor(Object.class, new PostEditor());
+
+        // Make the row under the mouse live, so its buttons respond to the first click
+        table.addMouseMotionListener(new MouseMotionAdapter() {
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                int row = table.rowAtPoint(e.getPoint());
+                if (row >= 0 && row != table.getEditingRow()) {
+                    table.editCellAt(row, 0);
+                }
+            }
+        });
+
+        setViewportView(table);
+        setBorder(BorderFactory.createEmptyBorder(10, 0, 10, 10));
+        setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
+        getVerticalScrollBar().setUnitIncrement(16);
+        getViewport().setBackground(Color.WHITE);
+        getViewport().addChangeListener(e -> maybeLoadMore());
+        getViewport().addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                if (rowWidth() != measuredWidth) {
+                    measureRows(0, model.getRowCount());
+                }
+            }
+        });
+
+        emptyLabel = new JLabel(emptyMessage, SwingConstants.CENTER);
+        emptyLabel.setVerticalAlignment(SwingConstants.TOP);
+
+        loadMore();
+        showRowsOrEmpty();
+        events.deliverWhileShowing(this, this::changesArrived);
+    }
+
+    /**
+     * Patches the loaded rows from a frame's worth of change events.
+     *
+     * @param events The coalesced events, oldest first
+     */
+    private void changesArrived(List<ChangeEvent> events) {
+        for (ChangeEvent event : events) {
+            if (event instanceof ChangeEvent.VoteChanged) {
+                repaintPost(((ChangeEvent.VoteChanged) event).getPost());
+            } else if (event instanceof ChangeEvent.PostDeleted) {
+                removePost(((ChangeEvent.PostDeleted) event).getPost());
+            } else if (event instanceof ChangeEvent.PostCreated) {
+                Post post = ((ChangeEvent.PostCreated) event).getPost();
+                if (!rowOf.containsKey(post) && insertable.test(post)) {
+                    insertPost(post);
+                }
+            }
+        }
+        maybeLoadMore();
+        showRowsOrEmpty();
+    }
+
+    private void repaintPost(Post post) {
+        Integer row = rowOf.get(post);
+        if (row == null) {
+            return;
+        }
+        if (table.getEditingRow() == row) {
+            editorRow.refreshVotes(platform.getWhoIsLoggedIn());
+        }
+        table.repaint(table.getCellRect(row, 0, true));
+    }
+
+    private void removePost(Post post) {
+        Integer row = rowOf.remove(post);
+        if (row == null) {
+            return;
+        }
+        if (table.isEditing()) {
+            table.getCellEditor().cancelCellEditing();
+        }
+        model.remove(row);
+        for (int r = row; r < model.getRowCount(); r++) {
+            rowOf.put(model.getPost(r), r);
+        }
+    }
+
+    private void insertPost(Post post) {
+        if (table.isEditing()) {
+            table.getCellEditor().cancelCellEditing();
+        }
+        model.insertFirst(post);
+        for (int r = 0; r < model.getRowCount(); r++) {
+            rowOf.put(model.getPost(r), r);
+        }
+        measureRows(0, 1);
+    }
+
+    /**
+     * Shows the table, or the empty message if no post is loaded.
+     */
+    private void showRowsOrEmpty() {
+        Component view = model.getRowCount() == 0 ? emptyLabel : table;
+        if (getViewport().getView() != view) {
+            setViewportView(view);
+        }
+    }
+
+    /**
+     * Fetches pages while the end of the loaded rows is near the viewport.
+     */
+    private void maybeLoadMore() {
+        while (!loading && !exhausted && lastVisibleRow() >= model.getRowCount() - PREFETCH_ROWS) {
+            loadMore();
+        }
+    }
+
+    private void loadMore() {
+        if (exhausted) {
+            return;
+        }
+        loading = true;
+        try {
+            FeedPage page = source.apply(nextCursor);
+            nextCursor = page.getNextCursor();
+            exhausted = !page.hasMore();
+            int first = model.getRowCount();
+            List<Post> fresh = new ArrayList<>(page.getPosts().size());
+            for (Post post : page.getPosts()) {
+                // A post inserted from a change event may turn up in a later page
+                if (!rowOf.containsKey(post)) {
+                    rowOf.put(post, first + fresh.size());
+                    fresh.add(post);
+                }
+            }
+            model.append(fresh);
+            measureRows(first, model.getRowCount());
+        } finally {
+            loading = false;
+        }
+    }
+
+    private int lastVisibleRow() {
+        Rectangle visible = table.getVisibleRect();
+        if (visible.height <= 0) {
+            return -1;
+        }
+        int row = table.rowAtPoint(new Point(0, visible.y + visible.height - 1));
+        return row < 0 ? model.getRowCount() - 1 : row;
+    }
+
+    /**
+     * Sets the heights of a range of rows from the posts they show.
+     */
+    private void measureRows(int from, int to) {
+        if (table.isEditing() && table.getEditingRow() >= from) {
+            table.getCellEditor().cancelCellEditing();
+        }
+        int width = rowWidth();
+        measuredWidth = width;
+        for (int row = from; row < to; row++) {
+            table.setRowHeight(row, renderer.measure(model.getPost(row), width));
+        }
+    }
+
+    private int rowWidth() {
+        int width = getViewport().getWidth();
+        return width > 0 ? width : CARD_WIDTH + 20;
+    }
+
+    /**
+     * Called when the rendition of an image has been produced or has failed.
+     * Image rows have a fixed height, so the row only needs repainting.
+     */
+    private void imageReady(Post post) {
+        Integer row = rowOf.get(post);
+        if (row != null) {
+            table.repaint(table.getCellRect(row, 0, true));
+        }
+    }
+
+    /** The loaded posts */
+    private static final class FeedModel extends AbstractTableModel {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Post> rows = new ArrayList<>();
+
+        void append(List<Post> posts) {
+            if (!posts.isEmpty()) {
+                int first = rows.size();
+                rows.addAll(posts);
+                fireTableRowsInserted(first, rows.size() - 1);
+            }
+        }
+
+        void insertFirst(Post post) {
+            rows.add(0, post);
+            fireTableRowsInserted(0, 0);
+        }
+
+        void remove(int row) {
+            rows.remove(row);
+            fireTableRowsDeleted(row, row);
+        }
+
+        Post getPost(int row) {
+            return rows.get(row);
+        }
+
+        @Override
+        public int getRowCount() {
+            return rows.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return 1;
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            return rows.get(row);
+        }
+
+        @Override
+        public boolean isCellEditable(int row, int column) {
+            return true;
+        }
+    }
+
+    /** Puts the live row component over the row being hovered */
+    private final class PostEditor extends AbstractCellEditor implements TableCellEditor {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Object getCellEditorValue() {
+            return editorRow.post;
+        }
+
+        @Override
+        public Component getTableCellEditorComponent(JTable table, Object value, boolean selected, int row,
+                int column) {
+            return editorRow.bind((Post) value, rowWidth(), true);
+        }
+
+        @Override
+        public boolean isCellEditable(EventObject e) {
+            return true;
+        }
+
+        @Override
+        public boolean shouldSelectCell(EventObject e) {
+            return false;
+        }
+    }
+
+    /**
+     * The component for one post card. It is rebound to a different post for
+     * every row it paints or edits.
+     */
+    private final class PostRow extends JPanel {
+        private static final long serialVersionUID = 1L;
+
+        private final JPanel card = new JPanel();
+        private final JPanel headerPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        private final JLabel usernameLabel = new JLabel();
+        private final JLabel audienceLabel = new JLabel();
+        private final JLabel imageLabel = new JLabel();
+        private final JTextArea textArea = new JTextArea();
+        private final JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        private final JButton upvoteButton = new JButton("▲");
+        private final JLabel voteCountLabel = new JLabel();
+        private final JButton downvoteButton = new JButton("▼");
+        private final JButton reshareButton = new JButton("Reshare");
+        private final JButton deleteButton = new JButton("Delete");
+
+        /** The post this component currently shows */
+        private Post post;
+
+        PostRow(boolean live) {
+            super(new FlowLayout(FlowLayout.CENTER, 0, 0));
+            setBackground(Color.WHITE);
+            setBorder(BorderFactory.createEmptyBorder(0, 0, ROW_GAP, 0));
+
+            card.setLayout(new BoxLayout(card, BoxLayout.Y_AXIS));
+            card.setBackground(Color.WHITE);
+            card.setBorder(BorderFactory.createCompoundBorder(
+                    BorderFactory.createLineBorder(Color.LIGHT_GRAY),
+                    BorderFactory.createEmptyBorder(10, 10, 10, 10)));
+            add(card);
+
+            // Post header (username and audience)
+            headerPanel.setBackground(Color.WHITE);
+            headerPanel.setAlignmentX(Component.LEFT_ALIGNMENT);
+            usernameLabel.setFont(new Font("Arial", Font.BOLD, 14));
+            audienceLabel.setForeground(Color.GRAY);
+            headerPanel.add(usernameLabel);
+            headerPanel.add(audienceLabel);
+            card.add(headerPanel);
+
+            // Post content
+            imageLabel.setHorizontalAlignment(SwingConstants.CENTER);
+            imageLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+            imageLabel.setBorder(BorderFactory.createEmptyBorder(10, 0, 10, 0));
+            card.add(imageLabel);
+            textArea.setWrapStyleWord(true);
+            textArea.setLineWrap(true);
+            textArea.setEditable(false);
+            textArea.setBackground(Color.WHITE);
+            textArea.setAlignmentX(Component.LEFT_ALIGNMENT);
+            card.add(textArea);
+
+            // Voting and action buttons
+            buttonPanel.setBackground(Color.WHITE);
+            buttonPanel.setAlignmentX(Component.LEFT_ALIGNMENT);
+            upvoteButton.setFont(new Font("Arial", Font.PLAIN, 16));
+            downvoteButton.setFont(new Font("Arial", Font.PLAIN, 16));
+            voteCountLabel.setFont(new Font("Arial", Font.BOLD, 14));
+            voteCountLabel.setBorder(BorderFactory.createEmptyBorder(0, 5, 0, 5));
+            reshareButton.setBackground(new Color(40, 167, 69));
+            reshareButton.setForeground(Color.WHITE);
+            deleteButton.setBackground(new Color(220, 53, 69));
+            deleteButton.setForeground(Color.WHITE);
+            buttonPanel.add(upvoteButton);
+            buttonPanel.add(voteCountLabel);
+            buttonPanel.add(downvoteButton);
+            buttonPanel.add(reshareButton);
+            buttonPanel.add(deleteButton);
+            card.add(buttonPanel);
+
+            if (live) {
+                upvoteButton.addActionListener(e -> vote(true));
+                downvoteButton.addActionListener(e -> vote(false));
+                reshareButton.addActionListener(e -> {
+                    Post target = post;
+                    stopEditing();
+                    onReshare.accept(target);
+                });
+                deleteButton.addActionListener(e -> {
+                    Post target = post;
+                    stopEditing();
+                    onDelete.accept(target);
+                });
+            }
+        }
+
+        /**
+         * Shows a post at the given row width. Only a row being painted or
+         * edited starts decoding its image; one being measured shows a
+         * placeholder of the same fixed height.
+         *
+         * @return This component
+         */
+        PostRow bind(Post post, int rowWidth, boolean loadImage) {
+            this.post = post;
+            User viewer = platform.getWhoIsLoggedIn();
+            boolean own = viewer != null && post.getOwner().equals(viewer.getUsername());
+
+            int cardWidth = Math.min(CARD_WIDTH, rowWidth - 20);
+            Insets insets = card.getInsets();
+            int contentWidth = Math.max(100, cardWidth - insets.left - insets.right);
+
+            // A reshare shows the content of the root of its chain
+            Post shown = post;
+            String audience = " • " + post.getAudience().toString();
+            if (post instanceof ResharedPost) {
+                shown = ((ResharedPost) post).getOriginalPost();
+                audience += " • reshared from @" + shown.getOwner();
+            }
+            usernameLabel.setText("@" + post.getOwner());
+            audienceLabel.setText(audience);
+
+            if (shown instanceof ImagePost) {
+                imageLabel.setVisible(true);
+                bindImage(post, (ImagePost) shown, Math.min(IMAGE_WIDTH, contentWidth), loadImage);
+                textArea.setText(((ImagePost) shown).caption);
+            } else {
+                imageLabel.setVisible(false);
+                textArea.setText(post.getText());
+            }
+
+            upvoteButton.setVisible(!own);
+            voteCountLabel.setVisible(!own);
+            downvoteButton.setVisible(!own);
+            if (!own) {
+                refreshVotes(viewer);
+            }
+            deleteButton.setVisible(deletable.test(post));
+
+            // Fix the width of every part so the wrapped text knows its height
+            textArea.setSize(contentWidth, Short.MAX_VALUE);
+            int height = insets.top + insets.bottom;
+            for (JComponent part : new JComponent[] { headerPanel, imageLabel, textArea, buttonPanel }) {
+                if (part.isVisible()) {
+                    int partHeight = part.getPreferredSize().height;
+                    part.setMaximumSize(new Dimension(contentWidth, partHeight));
+                    height += partHeight;
+                }
+            }
+            card.setPreferredSize(new Dimension(cardWidth, height));
+            return this;
+        }
+
+        /**
+         * Returns the row height needed to show a post at the given row width.
+         */
+        int measure(Post post, int rowWidth) {
+            return bind(post, rowWidth, false).getPreferredSize().height;
+        }
+
+        private void bindImage(Post rowPost, ImagePost imagePost, int width, boolean load) {
+            String path = imagePost.imagePath;
+            // Every image gets the full image height, so a row's height does not depend on its image
+            Insets insets = imageLabel.getInsets();
+            imageLabel.setPreferredSize(new Dimension(width, IMAGE_HEIGHT + insets.top + insets.bottom));
+            imageLabel.setForeground(Color.BLACK);
+            if (failedImages.contains(path)) {
+                imageLabel.setIcon(null);
+                imageLabel.setText("Error loading image");
+                imageLabel.setForeground(Color.RED);
+                return;
+            }
+            ImageCache cache = ImageCache.shared();
+            BufferedImage rendition = cache.getRenditionIfPresent(path, width, IMAGE_HEIGHT);
+            if (rendition != null) {
+                imageLabel.setText(null);
+                imageLabel.setIcon(new ImageIcon(rendition));
+                return;
+            }
+            imageLabel.setIcon(null);
+            imageLabel.setText("Loading image...");
+            if (!load) {
+                return;
+            }
+            cache.loadRendition(path, width, IMAGE_HEIGHT).whenComplete((image, error) -> SwingUtilities.invokeLater(() -> {
+                if (image == null) {
+                    failedImages.add(path);
+                }
+                imageReady(rowPost);
+            }));
+        }
+
+        private void vote(boolean isUpvote) {
+            User viewer = platform.getWhoIsLoggedIn();
+            post.vote(viewer, isUpvote);
+            refreshVotes(viewer);
+        }
+
+        private void refreshVotes(User viewer) {
+            voteCountLabel.setText(String.valueOf(post.getVoteCount()));
+            setVoteState(upvoteButton, post.hasVoted(viewer, true), true);
+            setVoteState(downvoteButton, post.hasVoted(viewer, false), false);
+        }
+
+        private void stopEditing() {
+            if (table.isEditing()) {
+                table.getCellEditor().stopCellEditing();
+            }
+        }
+    }
+
+    /**
+     * Updates the visual state of a voting button based on the user's vote status.
+     *
+     * @param button   The button to update (either upvote or downvote)
+     * @param isActive Whether the user has an active vote in this direction
+     * @param isUpvote Whether this is an upvote button (true) or downvote button
+     *                 (false)
+     */
+    private static void setVoteState(JButton button, boolean isActive, boolean isUpvote) {
+        if (isActive) {
+            button.setBackground(isUpvote ? new Color(144, 238, 144) : new Color(255, 182, 193));
+            button.setOpaque(true);
+        } else {
+            button.setBackground(Color.WHITE);
+            button.setOpaque(false);
+        }
+    }
+}
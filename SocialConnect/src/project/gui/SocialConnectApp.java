@@ -1,15 +1,41 @@
 package project.gui;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+
 import project.*;
 import project.enums.PageAlgorithm;
+import project.storage.StorageEngine;
 
 /**
  * Main class to launch the SocialConnect application GUI.
  */
 public class SocialConnectApp {
+    /** Directory the platform is stored in, relative to the working directory */
+    private static final String DATA_DIR = "socialconnect-data";
+
     public static void main(String[] args) {
         // Create SocialConnect instance
         SocialConnect SocialConnect = new SocialConnect("SocialConnect Platform", PageAlgorithm.Newest);
+
+        // Load the stored platform and keep journaling changes until exit
+        StorageEngine storage;
+        try {
+            storage = StorageEngine.open(SocialConnect, Paths.get(DATA_DIR));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load " + DATA_DIR, e);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                storage.close();
+            } catch (IOException e) {
+                System.err.println("Error closing storage: " + e.getMessage());
+            }
+        }));
+
+        // Publish the operation metrics for JConsole and other JMX clients
+        SocialConnect.getMetrics().registerMBeans(SocialConnect.getName());
         
         // Launch GUI
         javax.swing.SwingUtilities.invokeLater(() -> {
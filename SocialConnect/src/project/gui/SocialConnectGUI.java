@@ -21,14 +21,16 @@ package project.gui;
 import project.Post;
 import project.RegularPost;
 import project.ResharedPost;
-import project.ImagePost;
 import project.SocialConnect;
 import project.User;
 import project.enums.PageAlgorithm;
 import project.enums.PostAudience;
+import project.events.ChangeEvent;
 
 import javax.swing.*;
 import javax.swing.border.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.awt.event.*;
 import java.awt.image.BufferedImage;
@@ -58,6 +60,18 @@ public class SocialConnectGUI {
     private JButton backButton;
     private ArrayList<Post> posts; // List to store all posts
 
+    /** Batches the platform's change events so screens patch themselves once per frame */
+    private final EventCoalescer events;
+
+    /** Number of posts fetched per feed page */
+    private static final int FEED_PAGE_SIZE = 20;
+
+    /** Most members listed for a user search */
+    private static final int SEARCH_RESULT_LIMIT = 20;
+
+    /** Pause in typing after which the user search runs, in milliseconds */
+    private static final int SEARCH_DELAY_MS = 150;
+
     /**
      * Constructs a new SocialConnectGUI instance.
      * 
@@ -65,6 +79,7 @@ public class SocialConnectGUI {
      */
     public SocialConnectGUI(SocialConnect SocialConnect) {
         this.SocialConnect = SocialConnect;
+        this.events = new EventCoalescer(SocialConnect.getEventBus());
         this.frame = new JFrame("SocialConnect");
         this.frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         this.frame.setSize(800, 600);
@@ -373,24 +388,19 @@ public class SocialConnectGUI {
 
         panel.add(controlPanel, BorderLayout.WEST);
 
-        // Posts Panel (Center)
-        JPanel postsPanel = new JPanel();
-        postsPanel.setLayout(new BoxLayout(postsPanel, BoxLayout.Y_AXIS));
-        postsPanel.setBackground(Color.WHITE);
-        JScrollPane scrollPane = new JScrollPane(postsPanel);
-        scrollPane.setBorder(BorderFactory.createEmptyBorder(10, 0, 10, 10));
-        scrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
-        scrollPane.getVerticalScrollBar().setUnitIncrement(16);
-        panel.add(scrollPane, BorderLayout.CENTER);
-
-        // Display initial posts
-        displayPosts(postsPanel, (PageAlgorithm) sortComboBox.getSelectedItem());
+        // Posts feed (Center)
+        JPanel dashboardPanel = panel;
+        FeedView[] feed = { createFeedView((PageAlgorithm) sortComboBox.getSelectedItem()) };
+        dashboardPanel.add(feed[0], BorderLayout.CENTER);
 
-        // Add listeners
+        // Add listeners; a new order only replaces the feed, not the dashboard
         sortComboBox.addActionListener(e -> {
             PageAlgorithm selectedAlgorithm = (PageAlgorithm) sortComboBox.getSelectedItem();
-            SocialConnect.setSortBy(selectedAlgorithm);
-            refreshDashboard();
+            dashboardPanel.remove(feed[0]);
+            feed[0] = createFeedView(selectedAlgorithm);
+            dashboardPanel.add(feed[0], BorderLayout.CENTER);
+            dashboardPanel.revalidate();
+            dashboardPanel.repaint();
         });
 
         createPostButton.addActionListener(e -> {
@@ -434,34 +444,49 @@ public class SocialConnectGUI {
     }
 
     /**
-     * Displays all visible posts in the specified panel.
-     * Posts are sorted according to the current sorting algorithm and filtered
-     * based on
-     * the viewing user's permissions (followers-only posts are only shown to
-     * followers).
+     * Creates the feed of all posts visible to the logged-in user.
+     * Posts are sorted according to the given sorting algorithm and filtered
+     * based on the viewing user's permissions (followers-only posts are only
+     * shown to followers). Pages are fetched as the user scrolls, and new
+     * posts the user can see are added to the top of a Newest feed as they
+     * are made.
      *
-     * @param panel  The panel where posts should be displayed
      * @param sortBy The algorithm to use for sorting posts
+     * @return The feed view
      */
-    private void displayPosts(JPanel panel, PageAlgorithm sortBy) {
-        panel.removeAll();
+    private FeedView createFeedView(PageAlgorithm sortBy) {
         SocialConnect.setSortBy(sortBy);
-        List<Post> posts = SocialConnect.getVisiblePosts(SocialConnect.getWhoIsLoggedIn());
+        User viewer = SocialConnect.getWhoIsLoggedIn();
+        return new FeedView(SocialConnect, events,
+                cursor -> SocialConnect.getFeedPage(viewer, FEED_PAGE_SIZE, cursor),
+                post -> post.getOwner().equals(viewer.getUsername()),
+                post -> sortBy == PageAlgorithm.Newest && post.canView(viewer),
+                this::createReshareDialog,
+                this::confirmDeletePost,
+                "No posts to display");
+    }
 
-        if (posts.isEmpty()) {
-            JLabel noPostsLabel = new JLabel("No posts to display");
-            noPostsLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-            panel.add(noPostsLabel);
-        } else {
-            for (Post post : posts) {
-                panel.add(
-                        createPostPanel(post, post.getOwner().equals(SocialConnect.getWhoIsLoggedIn().getUsername())));
-                panel.add(Box.createVerticalStrut(10));
-            }
+    /**
+     * Asks for confirmation and deletes the post. The feeds on screen drop its
+     * row when the deletion event arrives.
+     *
+     * @param post The post to delete
+     */
+    private void confirmDeletePost(Post post) {
+        String message = "Are you sure you want to delete this post?";
+        int reshares = post instanceof ResharedPost ? 0 : post.getReshareCount();
+        if (reshares > 0) {
+            message += "\nIts " + reshares + (reshares == 1 ? " reshare" : " reshares") + " will be deleted too.";
+        }
+        int choice = JOptionPane.showConfirmDialog(
+                frame,
+                message,
+                "Confirm Delete",
+                JOptionPane.YES_NO_OPTION);
+
+        if (choice == JOptionPane.YES_OPTION) {
+            SocialConnect.deletePost(post);
         }
-
-        panel.revalidate();
-        panel.repaint();
     }
 
     /**
@@ -563,29 +588,12 @@ public class SocialConnectGUI {
         panel.add(titleLabel);
         panel.add(Box.createVerticalStrut(20));
 
-        // Get user's posts
-        List<Post> userPosts = SocialConnect.getUserPosts(SocialConnect.getWhoIsLoggedIn().getUsername());
-
-        if (userPosts.isEmpty()) {
-            JLabel noPostsLabel = new JLabel("You haven't created any posts yet!");
-            noPostsLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-            panel.add(noPostsLabel);
-        } else {
-            // Create a scrollable panel for posts
-            JPanel postsPanel = new JPanel();
-            postsPanel.setLayout(new BoxLayout(postsPanel, BoxLayout.Y_AXIS));
-
-            for (Post post : userPosts) {
-                JPanel postPanel = createPostPanel(post, true);
-                postsPanel.add(postPanel);
-                postsPanel.add(Box.createVerticalStrut(10));
-            }
-
-            JScrollPane scrollPane = new JScrollPane(postsPanel);
-            scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
-            scrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
-            panel.add(scrollPane);
-        }
+        // Only the posts in view get components, and they are fetched a page at a time
+        String username = SocialConnect.getWhoIsLoggedIn().getUsername();
+        panel.add(new FeedView(SocialConnect, events,
+                cursor -> SocialConnect.getUserPostsPage(username, FEED_PAGE_SIZE, cursor), post -> true,
+                post -> false, this::createReshareDialog, this::confirmDeletePost,
+                "You haven't created any posts yet!"));
 
         // Back button
         backButton = new JButton("Back to Dashboard");
@@ -606,197 +614,6 @@ public class SocialConnectGUI {
         frame.repaint();
     }
 
-    /**
-     * Creates a panel for displaying a single post in the feed.
-     * This method handles both regular text posts and image posts, including
-     * voting buttons, reshare functionality, and delete options for owned posts.
-     *
-     * @param post             The Post object to display
-     * @param showDeleteButton Whether to show the delete button (true for user's
-     *                         own posts)
-     * @return JPanel containing the formatted post with all interactive elements
-     */
-    private JPanel createPostPanel(Post post, boolean showDeleteButton) {
-        JPanel postPanel = new JPanel();
-        postPanel.setLayout(new BoxLayout(postPanel, BoxLayout.Y_AXIS));
-        postPanel.setBackground(Color.WHITE);
-        postPanel.setBorder(BorderFactory.createCompoundBorder(
-                BorderFactory.createLineBorder(Color.LIGHT_GRAY),
-                BorderFactory.createEmptyBorder(10, 10, 10, 10)));
-        postPanel.setMaximumSize(new Dimension(600, Integer.MAX_VALUE));
-        postPanel.setAlignmentX(Component.CENTER_ALIGNMENT);
-
-        // Post header (username and audience)
-        JPanel headerPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-        headerPanel.setBackground(Color.WHITE);
-        headerPanel.setMaximumSize(new Dimension(580, Integer.MAX_VALUE));
-        JLabel usernameLabel = new JLabel("@" + post.getOwner());
-        usernameLabel.setFont(new Font("Arial", Font.BOLD, 14));
-        JLabel audienceLabel = new JLabel(" • " + post.getAudience().toString());
-        audienceLabel.setForeground(Color.GRAY);
-        headerPanel.add(usernameLabel);
-        headerPanel.add(audienceLabel);
-        postPanel.add(headerPanel);
-
-        // Post content
-        JPanel contentPanel = new JPanel();
-        contentPanel.setLayout(new BoxLayout(contentPanel, BoxLayout.Y_AXIS));
-        contentPanel.setBackground(Color.WHITE);
-        contentPanel.setMaximumSize(new Dimension(580, Integer.MAX_VALUE));
-        contentPanel.setAlignmentX(Component.LEFT_ALIGNMENT);
-
-        if (post instanceof ImagePost) {
-            ImagePost imagePost = (ImagePost) post;
-            try {
-                // Load and scale the image
-                BufferedImage img = ImageIO.read(new File(imagePost.imagePath));
-                if (img != null) {
-                    int maxWidth = 550; // Increased max width
-                    int maxHeight = 400; // Increased max height
-                    int scaledWidth, scaledHeight;
-                    double ratio = (double) img.getWidth() / img.getHeight();
-
-                    if (ratio > 1) {
-                        scaledWidth = maxWidth;
-                        scaledHeight = (int) (maxWidth / ratio);
-                    } else {
-                        scaledHeight = maxHeight;
-                        scaledWidth = (int) (maxHeight * ratio);
-                    }
-
-                    Image scaledImg = img.getScaledInstance(scaledWidth, scaledHeight, Image.SCALE_SMOOTH);
-                    JLabel imageLabel = new JLabel(new ImageIcon(scaledImg));
-                    imageLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-                    contentPanel.add(Box.createVerticalStrut(10));
-                    contentPanel.add(imageLabel);
-                    contentPanel.add(Box.createVerticalStrut(10));
-                }
-
-                // Add caption
-                JTextArea captionArea = new JTextArea(imagePost.caption);
-                captionArea.setWrapStyleWord(true);
-                captionArea.setLineWrap(true);
-                captionArea.setEditable(false);
-                captionArea.setBackground(Color.WHITE);
-                captionArea.setMaximumSize(new Dimension(550, Integer.MAX_VALUE));
-                captionArea.setAlignmentX(Component.LEFT_ALIGNMENT);
-                contentPanel.add(captionArea);
-            } catch (IOException e) {
-                JLabel errorLabel = new JLabel("Error loading image");
-                errorLabel.setForeground(Color.RED);
-                contentPanel.add(errorLabel);
-            }
-        } else {
-            JTextArea textArea = new JTextArea(post.getText());
-            textArea.setWrapStyleWord(true);
-            textArea.setLineWrap(true);
-            textArea.setEditable(false);
-            textArea.setBackground(Color.WHITE);
-            textArea.setMaximumSize(new Dimension(550, Integer.MAX_VALUE));
-            textArea.setAlignmentX(Component.LEFT_ALIGNMENT);
-            contentPanel.add(textArea);
-        }
-        postPanel.add(contentPanel);
-
-        // Voting and action buttons
-        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-        buttonPanel.setBackground(Color.WHITE);
-
-        // Only show voting buttons if it's not the user's own post
-        if (!post.getOwner().equals(SocialConnect.getWhoIsLoggedIn().getUsername())) {
-            // Upvote button
-            JButton upvoteButton = new JButton("▲");
-            upvoteButton.setFont(new Font("Arial", Font.PLAIN, 16));
-            updateVoteButtonState(upvoteButton, post.hasVoted(SocialConnect.getWhoIsLoggedIn(), true), true);
-
-            // Downvote button
-            JButton downvoteButton = new JButton("▼");
-            downvoteButton.setFont(new Font("Arial", Font.PLAIN, 16));
-            updateVoteButtonState(downvoteButton, post.hasVoted(SocialConnect.getWhoIsLoggedIn(), false), false);
-
-            // Vote count label
-            JLabel voteCountLabel = new JLabel(String.valueOf(post.getVoteCount()));
-            voteCountLabel.setFont(new Font("Arial", Font.BOLD, 14));
-            voteCountLabel.setBorder(BorderFactory.createEmptyBorder(0, 5, 0, 5));
-
-            buttonPanel.add(upvoteButton);
-            buttonPanel.add(voteCountLabel);
-            buttonPanel.add(downvoteButton);
-
-            // Add voting functionality
-            upvoteButton.addActionListener(e -> {
-                post.vote(SocialConnect.getWhoIsLoggedIn(), true);
-                voteCountLabel.setText(String.valueOf(post.getVoteCount()));
-                updateVoteButtonState(upvoteButton, post.hasVoted(SocialConnect.getWhoIsLoggedIn(), true), true);
-                updateVoteButtonState(downvoteButton, post.hasVoted(SocialConnect.getWhoIsLoggedIn(), false), false);
-            });
-
-            downvoteButton.addActionListener(e -> {
-                post.vote(SocialConnect.getWhoIsLoggedIn(), false);
-                voteCountLabel.setText(String.valueOf(post.getVoteCount()));
-                updateVoteButtonState(upvoteButton, post.hasVoted(SocialConnect.getWhoIsLoggedIn(), true), true);
-                updateVoteButtonState(downvoteButton, post.hasVoted(SocialConnect.getWhoIsLoggedIn(), false), false);
-            });
-        }
-
-        // Reshare button
-        JButton reshareButton = new JButton("Reshare");
-        reshareButton.setBackground(new Color(40, 167, 69));
-        reshareButton.setForeground(Color.WHITE);
-        buttonPanel.add(reshareButton);
-
-        // Delete button if it's the user's own post
-        if (showDeleteButton) {
-            JButton deleteButton = new JButton("Delete");
-            deleteButton.setBackground(new Color(220, 53, 69));
-            deleteButton.setForeground(Color.WHITE);
-            buttonPanel.add(deleteButton);
-
-            deleteButton.addActionListener(e -> {
-                int choice = JOptionPane.showConfirmDialog(
-                        frame,
-                        "Are you sure you want to delete this post?",
-                        "Confirm Delete",
-                        JOptionPane.YES_NO_OPTION);
-
-                if (choice == JOptionPane.YES_OPTION) {
-                    SocialConnect.deletePost(post);
-                    frame.getContentPane().removeAll();
-                    createDashboardPanel();
-                    frame.revalidate();
-                    frame.repaint();
-                }
-            });
-        }
-
-        postPanel.add(buttonPanel);
-
-        // Add action listener for reshare button
-        reshareButton.addActionListener(e -> createReshareDialog(post));
-
-        return postPanel;
-    }
-
-    /**
-     * Updates the visual state of a voting button based on the user's vote status.
-     * Changes the button's background and foreground colors to indicate if the user
-     * has voted in that direction.
-     *
-     * @param button   The button to update (either upvote or downvote)
-     * @param isActive Whether the user has an active vote in this direction
-     * @param isUpvote Whether this is an upvote button (true) or downvote button
-     *                 (false)
-     */
-    private void updateVoteButtonState(JButton button, boolean isActive, boolean isUpvote) {
-        if (isActive) {
-            button.setBackground(isUpvote ? new Color(144, 238, 144) : new Color(255, 182, 193));
-            button.setOpaque(true);
-        } else {
-            button.setBackground(Color.WHITE);
-            button.setOpaque(false);
-        }
-    }
-
     /**
      * Creates a dialog for resharing an existing post.
      * This dialog allows users to add their own comment to the original post
@@ -1023,6 +840,8 @@ public class SocialConnectGUI {
         panel.add(backButton, gbc);
 
         updateFollowlists(followingPanel, followersPanel);
+        events.deliverWhileShowing(panel,
+                batch -> followsChanged(batch, resultsPanel, followingPanel, followersPanel));
 
         searchButton.addActionListener(new ActionListener() {
             @Override
@@ -1032,81 +851,31 @@ public class SocialConnectGUI {
                     JOptionPane.showMessageDialog(panel, "Please enter a username to search for.");
                     return;
                 }
+                showSearchResults(searchTerm, resultsPanel, followingPanel, followersPanel);
+            }
+        });
 
-                resultsPanel.removeAll();
-                boolean foundUsers = false;
-
-                for (User member : SocialConnect.getMembers()) {
-                    if (member.getUsername().contains(searchTerm) &&
-                            !member.getUsername().equals(SocialConnect.getWhoIsLoggedIn().getUsername())) {
-                        foundUsers = true;
-                        JPanel userPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-                        userPanel.setBackground(Color.WHITE);
-                        // Make sure items don't stretch vertically in BoxLayout
-                        userPanel.setMaximumSize(new Dimension(Integer.MAX_VALUE, 40));
-
-                        JLabel usernameLabel = new JLabel(member.getUsername() + " ");
-                        JButton followButton = new JButton(
-                                SocialConnect.getWhoIsLoggedIn().isFollowing(member.getUsername()) ? "Unfollow"
-                                        : "Follow");
-
-                        if (SocialConnect.getWhoIsLoggedIn().isFollowing(member.getUsername())) {
-                            followButton.setBackground(new Color(220, 53, 69)); // Red for Unfollow
-                        } else {
-                            followButton.setBackground(new Color(40, 167, 69)); // Green for Follow
-                        }
-                        followButton.setForeground(Color.WHITE);
-
-                        followButton.addActionListener(new ActionListener() {
-                            @Override
-                            public void actionPerformed(ActionEvent e) {
-                                User currentUser = SocialConnect.getWhoIsLoggedIn();
-                                String targetUsername = member.getUsername();
-
-                                if (followButton.getText().equals("Follow")) {
-                                    try {
-                                        currentUser.startFollowing(targetUsername);
-                                        member.addFollower(currentUser.getUsername());
-                                        followButton.setText("Unfollow");
-                                        followButton.setBackground(new Color(220, 53, 69));
-                                    } catch (IllegalArgumentException ex) {
-                                        JOptionPane.showMessageDialog(frame, ex.getMessage(), "Error",
-                                                JOptionPane.ERROR_MESSAGE);
-                                        return;
-                                    }
-                                } else {
-                                    try {
-                                        currentUser.stopFollowing(targetUsername);
-                                        member.removeFollower(currentUser.getUsername());
-                                        followButton.setText("Follow");
-                                        followButton.setBackground(new Color(40, 167, 69));
-                                    } catch (IllegalArgumentException ex) {
-                                        JOptionPane.showMessageDialog(frame, ex.getMessage(), "Error",
-                                                JOptionPane.ERROR_MESSAGE);
-                                        return;
-                                    }
-                                }
-                                updateFollowlists(followingPanel, followersPanel);
-                            }
-                        });
-
-                        userPanel.add(usernameLabel);
-                        userPanel.add(followButton);
-                        resultsPanel.add(userPanel);
-                    }
-                }
+        // Search as you type, once typing pauses
+        Timer searchTimer = new Timer(SEARCH_DELAY_MS,
+                e -> showSearchResults(searchField.getText().trim(), resultsPanel, followingPanel, followersPanel));
+        searchTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
 
-                if (!foundUsers) {
-                    JPanel noResultsPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-                    noResultsPanel.setBackground(Color.WHITE);
-                    noResultsPanel.add(new JLabel("No users found matching: " + searchTerm));
-                    resultsPanel.add(noResultsPanel);
-                }
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
 
-                resultsPanel.revalidate();
-                resultsPanel.repaint();
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                searchTimer.restart();
             }
         });
+        searchField.addActionListener(e -> searchButton.doClick());
 
         backButton.addActionListener(new ActionListener() {
             @Override
@@ -1119,110 +888,281 @@ public class SocialConnectGUI {
         });
     }
 
+    /**
+     * Lists the members whose username matches a search term, each with a
+     * follow or unfollow button. Matches come ranked from the platform's
+     * username index, so only the shown members are ever looked at.
+     *
+     * @param searchTerm     The text to look for; an empty term clears the
+     *                       results
+     * @param resultsPanel   The panel to fill
+     * @param followingPanel The list of followed members
+     * @param followersPanel The list of followers
+     */
+    private void showSearchResults(String searchTerm, JPanel resultsPanel, JPanel followingPanel,
+            JPanel followersPanel) {
+        resultsPanel.removeAll();
+        User currentUser = SocialConnect.getWhoIsLoggedIn();
+        if (searchTerm.isEmpty() || currentUser == null) {
+            resultsPanel.revalidate();
+            resultsPanel.repaint();
+            return;
+        }
+
+        int shown = 0;
+        // One extra, in case the current user is among the matches
+        for (User member : SocialConnect.searchMembers(searchTerm, SEARCH_RESULT_LIMIT + 1)) {
+            if (member.getUsername().equals(currentUser.getUsername()) || shown == SEARCH_RESULT_LIMIT) {
+                continue;
+            }
+            shown++;
+            JPanel userPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+            userPanel.setName(member.getUsername());
+            userPanel.setBackground(Color.WHITE);
+            // Make sure items don't stretch vertically in BoxLayout
+            userPanel.setMaximumSize(new Dimension(Integer.MAX_VALUE, 40));
+
+            JLabel usernameLabel = new JLabel(member.getUsername() + " ");
+            JButton followButton = new JButton();
+            setFollowButton(followButton, currentUser.isFollowing(member.getUsername()));
+            followButton.setForeground(Color.WHITE);
+
+            followButton.addActionListener(new ActionListener() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    String targetUsername = member.getUsername();
+                    // The button and both lists are patched when the follow event arrives
+                    try {
+                        if (followButton.getText().equals("Follow")) {
+                            currentUser.startFollowing(targetUsername);
+                        } else {
+                            currentUser.stopFollowing(targetUsername);
+                        }
+                    } catch (IllegalArgumentException ex) {
+                        JOptionPane.showMessageDialog(frame, ex.getMessage(), "Error",
+                                JOptionPane.ERROR_MESSAGE);
+                    }
+                }
+            });
+
+            userPanel.add(usernameLabel);
+            userPanel.add(followButton);
+            resultsPanel.add(userPanel);
+        }
+
+        if (shown == 0) {
+            JPanel noResultsPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+            noResultsPanel.setBackground(Color.WHITE);
+            noResultsPanel.add(new JLabel("No users found matching: " + searchTerm));
+            resultsPanel.add(noResultsPanel);
+        }
+
+        resultsPanel.revalidate();
+        resultsPanel.repaint();
+    }
+
+    /**
+     * Fills the lists of the members the logged-in user follows and of the
+     * members who follow them. Later changes patch single rows through
+     * {@link #followsChanged}.
+     *
+     * @param followingPanel The list of followed members
+     * @param followersPanel The list of followers
+     */
     private void updateFollowlists(JPanel followingPanel, JPanel followersPanel) {
         User currentUser = SocialConnect.getWhoIsLoggedIn();
         followingPanel.removeAll();
         followersPanel.removeAll();
 
         // Following list (people I follow)
-        ArrayList<String> following = currentUser.getFollowing();
-        if (following.isEmpty()) {
-            JLabel noFollowingLabel = new JLabel("Not following anyone");
-            noFollowingLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
-            followingPanel.add(noFollowingLabel);
-        } else {
-            for (String username : following) {
-                JPanel userPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-                userPanel.setBackground(Color.WHITE);
-                userPanel.setMaximumSize(new Dimension(Integer.MAX_VALUE, 40));
+        for (String username : currentUser.getFollowing()) {
+            followingPanel.add(followingRow(username));
+        }
+        showPlaceholderIfEmpty(followingPanel, "Not following anyone");
 
-                JLabel usernameLabel = new JLabel(username);
-                JButton unfollowButton = new JButton("Unfollow");
-                unfollowButton.setBackground(new Color(220, 53, 69));
-                unfollowButton.setForeground(Color.WHITE);
+        // Followers list (people who follow me)
+        for (String username : currentUser.getFollowers()) {
+            followersPanel.add(followerRow(username));
+        }
+        showPlaceholderIfEmpty(followersPanel, "No followers yet");
 
-                unfollowButton.addActionListener(e -> {
-                    try {
-                        currentUser.stopFollowing(username);
-                        // Find and update the user being unfollowed
-                        for (User member : SocialConnect.getMembers()) {
-                            if (member.getUsername().equals(username)) {
-                                member.removeFollower(currentUser.getUsername());
-                                break;
-                            }
+        followingPanel.revalidate();
+        followingPanel.repaint();
+        followersPanel.revalidate();
+        followersPanel.repaint();
+    }
+
+    /**
+     * Patches the connection lists and search results from a frame's worth of
+     * change events. Only the rows of the members whose follow changed are
+     * touched.
+     *
+     * @param events         The coalesced events
+     * @param resultsPanel   The search results
+     * @param followingPanel The list of followed members
+     * @param followersPanel The list of followers
+     */
+    private void followsChanged(List<ChangeEvent> events, JPanel resultsPanel, JPanel followingPanel,
+            JPanel followersPanel) {
+        User currentUser = SocialConnect.getWhoIsLoggedIn();
+        if (currentUser == null) {
+            return;
+        }
+        for (ChangeEvent event : events) {
+            if (!(event instanceof ChangeEvent.FollowChanged)) {
+                continue;
+            }
+            ChangeEvent.FollowChanged change = (ChangeEvent.FollowChanged) event;
+            String follower = change.getFollower().getUsername();
+            String followee = change.getFollowee().getUsername();
+            if (follower.equals(currentUser.getUsername())) {
+                // Read the current state; the event may be older than the last change
+                boolean following = currentUser.isFollowing(followee);
+                removeRow(followingPanel, followee);
+                if (following) {
+                    followingPanel.add(followingRow(followee));
+                }
+                showPlaceholderIfEmpty(followingPanel, "Not following anyone");
+                int at = indexOfRow(followersPanel, followee);
+                if (at >= 0) {
+                    followersPanel.remove(at);
+                    followersPanel.add(followerRow(followee), at);
+                }
+                int result = indexOfRow(resultsPanel, followee);
+                if (result >= 0) {
+                    for (Component part : ((JPanel) resultsPanel.getComponent(result)).getComponents()) {
+                        if (part instanceof JButton) {
+                            setFollowButton((JButton) part, following);
                         }
-                        updateFollowlists(followingPanel, followersPanel);
-                    } catch (IllegalArgumentException ex) {
-                        JOptionPane.showMessageDialog(frame, ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
                     }
-                });
-
-                userPanel.add(usernameLabel);
-                userPanel.add(unfollowButton);
-                followingPanel.add(userPanel);
+                }
+            } else if (followee.equals(currentUser.getUsername())) {
+                removeRow(followersPanel, follower);
+                if (change.getFollower().isFollowing(currentUser.getUsername())) {
+                    followersPanel.add(followerRow(follower));
+                }
+                showPlaceholderIfEmpty(followersPanel, "No followers yet");
             }
         }
+        for (JPanel list : new JPanel[] { resultsPanel, followingPanel, followersPanel }) {
+            list.revalidate();
+            list.repaint();
+        }
+    }
 
-        // Followers list (people who follow me)
-        ArrayList<String> followers = currentUser.getFollowers();
-        if (followers.isEmpty()) {
-            JLabel noFollowersLabel = new JLabel("No followers yet");
-            noFollowersLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
-            followersPanel.add(noFollowersLabel);
-        } else {
-            for (String username : followers) {
-                JPanel userPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-                userPanel.setBackground(Color.WHITE);
-                userPanel.setMaximumSize(new Dimension(Integer.MAX_VALUE, 40));
-
-                JLabel usernameLabel = new JLabel(username);
-
-                // Only show Follow Back button if we're not already following them
-                if (!currentUser.isFollowing(username)) {
-                    JButton followBackButton = new JButton("Follow Back");
-                    followBackButton.setBackground(new Color(40, 167, 69));
-                    followBackButton.setForeground(Color.WHITE);
-
-                    followBackButton.addActionListener(e -> {
-                        try {
-                            currentUser.startFollowing(username);
-                            // Find and update the user being followed
-                            for (User member : SocialConnect.getMembers()) {
-                                if (member.getUsername().equals(username)) {
-                                    member.addFollower(currentUser.getUsername());
-                                    break;
-                                }
-                            }
-                            updateFollowlists(followingPanel, followersPanel);
-                        } catch (IllegalArgumentException ex) {
-                            JOptionPane.showMessageDialog(frame, ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-                        }
-                    });
+    /**
+     * Builds the row of a followed member, with an Unfollow button.
+     */
+    private JPanel followingRow(String username) {
+        JPanel userPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        userPanel.setName(username);
+        userPanel.setBackground(Color.WHITE);
+        userPanel.setMaximumSize(new Dimension(Integer.MAX_VALUE, 40));
+
+        JLabel usernameLabel = new JLabel(username);
+        JButton unfollowButton = new JButton("Unfollow");
+        unfollowButton.setBackground(new Color(220, 53, 69));
+        unfollowButton.setForeground(Color.WHITE);
+
+        unfollowButton.addActionListener(e -> {
+            try {
+                SocialConnect.getWhoIsLoggedIn().stopFollowing(username);
+            } catch (IllegalArgumentException ex) {
+                JOptionPane.showMessageDialog(frame, ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        });
 
-                    userPanel.add(usernameLabel);
-                    userPanel.add(followBackButton);
-                } else {
-                    userPanel.add(usernameLabel);
-                    JLabel followingLabel = new JLabel("(Following)");
-                    followingLabel.setForeground(new Color(40, 167, 69));
-                    userPanel.add(followingLabel);
+        userPanel.add(usernameLabel);
+        userPanel.add(unfollowButton);
+        return userPanel;
+    }
+
+    /**
+     * Builds the row of a follower, with a Follow Back button unless the
+     * logged-in user already follows them.
+     */
+    private JPanel followerRow(String username) {
+        User currentUser = SocialConnect.getWhoIsLoggedIn();
+        JPanel userPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        userPanel.setName(username);
+        userPanel.setBackground(Color.WHITE);
+        userPanel.setMaximumSize(new Dimension(Integer.MAX_VALUE, 40));
+
+        JLabel usernameLabel = new JLabel(username);
+        userPanel.add(usernameLabel);
+
+        // Only show Follow Back button if we're not already following them
+        if (!currentUser.isFollowing(username)) {
+            JButton followBackButton = new JButton("Follow Back");
+            followBackButton.setBackground(new Color(40, 167, 69));
+            followBackButton.setForeground(Color.WHITE);
+
+            followBackButton.addActionListener(e -> {
+                try {
+                    currentUser.startFollowing(username);
+                } catch (IllegalArgumentException ex) {
+                    JOptionPane.showMessageDialog(frame, ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
                 }
-                followersPanel.add(userPanel);
+            });
+            userPanel.add(followBackButton);
+        } else {
+            JLabel followingLabel = new JLabel("(Following)");
+            followingLabel.setForeground(new Color(40, 167, 69));
+            userPanel.add(followingLabel);
+        }
+        return userPanel;
+    }
+
+    /**
+     * Shows a follow button as Follow or Unfollow.
+     */
+    private static void setFollowButton(JButton button, boolean following) {
+        button.setText(following ? "Unfollow" : "Follow");
+        button.setBackground(following ? new Color(220, 53, 69) // Red for Unfollow
+                : new Color(40, 167, 69)); // Green for Follow
+    }
+
+    /**
+     * Returns the position of the row of a member in a list, or -1.
+     */
+    private static int indexOfRow(JPanel list, String username) {
+        for (int i = 0; i < list.getComponentCount(); i++) {
+            if (username.equals(list.getComponent(i).getName())) {
+                return i;
             }
         }
+        return -1;
+    }
 
-        followingPanel.revalidate();
-        followingPanel.repaint();
-        followersPanel.revalidate();
-        followersPanel.repaint();
+    private static void removeRow(JPanel list, String username) {
+        int at = indexOfRow(list, username);
+        if (at >= 0) {
+            list.remove(at);
+        }
+    }
+
+    /**
+     * Adds a placeholder label to an empty list, or takes it away once the list
+     * has rows. Rows are named after their member; the placeholder is not.
+     */
+    private static void showPlaceholderIfEmpty(JPanel list, String text) {
+        for (Component child : list.getComponents()) {
+            if (child.getName() == null) {
+                list.remove(child);
+            }
+        }
+        if (list.getComponentCount() == 0) {
+            JLabel placeholder = new JLabel(text);
+            placeholder.setAlignmentX(Component.LEFT_ALIGNMENT);
+            list.add(placeholder);
+        }
     }
 
     private void displayPosts(JPanel panel) {
         panel.removeAll();
-        for (Post post : SocialConnect.getPosts()) {
-            JPanel postPanel = createPostPanel(post, false);
-            panel.add(postPanel);
-        }
+        panel.add(new FeedView(SocialConnect, events, cursor -> SocialConnect.getPostsPage(FEED_PAGE_SIZE, cursor),
+                post -> false, post -> false, this::createReshareDialog, this::confirmDeletePost,
+                "No posts to display"));
         panel.revalidate();
         panel.repaint();
     }
@@ -1434,13 +1374,6 @@ public class SocialConnectGUI {
         createImagePostPanel();
     }
 
-    private void refreshDashboard() {
-        frame.getContentPane().removeAll();
-        createDashboardPanel();
-        frame.revalidate();
-        frame.repaint();
-    }
-
     public static void main(String[] args) {
         SwingUtilities.invokeLater(() -> {
             try {
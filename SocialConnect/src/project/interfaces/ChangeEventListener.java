@@ -0,0 +1,20 @@
+package project.interfaces;
+
+import project.events.ChangeEvent;
+
+/**
+ * Interface for objects that subscribe to the change events of a
+ * SocialConnect platform.
+ *
+ * Events are delivered on the thread that made the change, possibly while it
+ * holds a lock on the post involved, so implementations must return quickly
+ * and must not change the platform.
+ */
+public interface ChangeEventListener {
+    /**
+     * Called for every change published on the bus.
+     *
+     * @param event The change
+     */
+    void changed(ChangeEvent event);
+}
@@ -0,0 +1,61 @@
+package project.interfaces;
+
+import project.Post;
+import project.User;
+
+/**
+ * Interface for objects that want to be told about every change made to a
+ * SocialConnect platform, for example to write it to durable storage.
+ *
+ * Each method is called after the change has been applied, on the thread that
+ * made it, and only if the change actually modified the platform. Methods
+ * should return quickly; implementations that do slow work should hand it to
+ * another thread.
+ */
+public interface MutationListener {
+    /**
+     * Called when a user becomes a member of the platform.
+     *
+     * @param user The new member
+     */
+    void memberAdded(User user);
+
+    /**
+     * Called when a member is removed from the platform.
+     *
+     * @param user The removed member
+     */
+    void memberRemoved(User user);
+
+    /**
+     * Called when a post, including a reshare, is logged on the platform.
+     *
+     * @param post The logged post
+     */
+    void postLogged(Post post);
+
+    /**
+     * Called when a post is deleted from the platform.
+     *
+     * @param post The deleted post
+     */
+    void postDeleted(Post post);
+
+    /**
+     * Called when a vote is cast on a logged post.
+     *
+     * @param post     The post voted on
+     * @param username The username of the voter
+     * @param isUpvote True for an upvote, false for a downvote
+     */
+    void voteCast(Post post, String username, boolean isUpvote);
+
+    /**
+     * Called when a member starts or stops following another member.
+     *
+     * @param follower  The member who follows or unfollows
+     * @param followee  The member being followed or unfollowed
+     * @param following true if the follow was added, false if it was removed
+     */
+    void followChanged(User follower, User followee, boolean following);
+}
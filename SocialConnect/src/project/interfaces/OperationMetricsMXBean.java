@@ -0,0 +1,76 @@
+package project.interfaces;
+
+/**
+ * Management interface of the metrics of one operation, as registered with
+ * the platform MBean server. Latencies are reported in microseconds.
+ */
+public interface OperationMetricsMXBean {
+    /**
+     * Returns the name of the operation.
+     *
+     * @return The operation name
+     */
+    String getName();
+
+    /**
+     * Returns the number of calls measured.
+     *
+     * @return The call count
+     */
+    long getCount();
+
+    /**
+     * Returns the number of calls that were refused or failed, e.g. logins
+     * with a wrong password or votes by members who had already voted.
+     *
+     * @return The failure count
+     */
+    long getFailures();
+
+    /**
+     * Returns the mean latency.
+     *
+     * @return The mean in microseconds
+     */
+    double getMeanMicros();
+
+    /**
+     * Returns the median latency.
+     *
+     * @return The 50th percentile in microseconds
+     */
+    double getMedianMicros();
+
+    /**
+     * Returns the 90th percentile latency.
+     *
+     * @return The 90th percentile in microseconds
+     */
+    double getP90Micros();
+
+    /**
+     * Returns the 99th percentile latency.
+     *
+     * @return The 99th percentile in microseconds
+     */
+    double getP99Micros();
+
+    /**
+     * Returns the 99.9th percentile latency.
+     *
+     * @return The 99.9th percentile in microseconds
+     */
+    double getP999Micros();
+
+    /**
+     * Returns the largest latency.
+     *
+     * @return The maximum in microseconds
+     */
+    double getMaxMicros();
+
+    /**
+     * Forgets every call measured so far.
+     */
+    void reset();
+}
@@ -0,0 +1,169 @@
+package project.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of latencies in nanoseconds, in the style of an HDR
+ * histogram: values are counted in log-linear buckets, so every value from one
+ * nanosecond to hundreds of years is kept with a relative error of at most
+ * 1/{@value #HALF_BUCKET}, in a fixed amount of memory.
+ * <p>
+ * Values below {@value #SUB_BUCKETS} each have a bucket of their own. Above
+ * that, every power of two is split into {@value #HALF_BUCKET} equal buckets,
+ * found with a shift and a leading-zero count. Recording a value is a few
+ * atomic increments and never allocates, so it is cheap enough for hot paths
+ * and safe to call from any number of threads.
+ * <p>
+ * Percentiles are reported as the highest value of the bucket they fall in,
+ * capped at the largest value recorded, so they never understate a latency.
+ * Reads taken while values are being recorded may be slightly inconsistent
+ * with each other, which is fine for monitoring.
+ */
+public class LatencyHistogram {
+    /** Bits of precision kept for each value */
+    static final int SUB_BUCKET_BITS = 7;
+
+    /** Number of values below which every value has its own bucket */
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** Number of buckets each later power of two is split into */
+    static final int HALF_BUCKET = SUB_BUCKETS / 2;
+
+    /** Enough buckets for every non-negative long */
+    private static final int BUCKETS = index(Long.MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts;
+    private final LongAdder count;
+    private final LongAdder sum;
+    private final LongAccumulator max;
+
+    /**
+     * Creates an empty histogram.
+     */
+    public LatencyHistogram() {
+        this.counts = new AtomicLongArray(BUCKETS);
+        this.count = new LongAdder();
+        this.sum = new LongAdder();
+        this.max = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * Records a latency. Negative values, which a clock step can produce, are
+     * recorded as zero.
+     *
+     * @param nanos The latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(index(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Returns the number of values recorded.
+     *
+     * @return The count
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the mean of the values recorded.
+     *
+     * @return The mean in nanoseconds, or 0 if nothing was recorded
+     */
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Returns the largest value recorded.
+     *
+     * @return The maximum in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the value below which a given percentage of the recorded values
+     * fall.
+     *
+     * @param percentile The percentage, from 0 to 100
+     * @return The value in nanoseconds, or 0 if nothing was recorded
+     * @throws IllegalArgumentException if percentile is outside 0 to 100
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        }
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestEquivalentValue(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Forgets every value recorded. Values recorded while the reset runs may
+     * be partly kept.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    /**
+     * Returns the bucket a value is counted in.
+     *
+     * @param value A non-negative value
+     * @return The bucket index
+     */
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+        int top = (int) (value >>> shift); // HALF_BUCKET to SUB_BUCKETS - 1
+        return SUB_BUCKETS + (shift - 1) * HALF_BUCKET + (top - HALF_BUCKET);
+    }
+
+    /**
+     * Returns the largest value counted in a bucket.
+     *
+     * @param index The bucket index
+     * @return The highest value that maps to the bucket
+     */
+    static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / HALF_BUCKET + 1;
+        long top = (index - SUB_BUCKETS) % HALF_BUCKET + HALF_BUCKET;
+        long highest = ((top + 1) << shift) - 1;
+        return highest < 0 ? Long.MAX_VALUE : highest;
+    }
+}
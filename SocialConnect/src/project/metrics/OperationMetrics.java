@@ -0,0 +1,127 @@
+package project.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import project.interfaces.OperationMetricsMXBean;
+
+/**
+ * Counts the calls of one operation and records how long they take.
+ * <p>
+ * A call is measured by taking {@link #start()} before it and passing the
+ * result to {@link #stop(long)} or {@link #stop(long, boolean)} after it,
+ * usually in a {@code finally} block. Both are a clock read and a few
+ * lock-free increments, so they can wrap hot paths.
+ */
+public class OperationMetrics implements OperationMetricsMXBean {
+    private final String name;
+    private final LatencyHistogram latency;
+    private final LongAdder failures;
+
+    /**
+     * Creates the metrics of an operation.
+     *
+     * @param name The name of the operation, e.g. {@code "login"}
+     */
+    public OperationMetrics(String name) {
+        this.name = name;
+        this.latency = new LatencyHistogram();
+        this.failures = new LongAdder();
+    }
+
+    /**
+     * Marks the start of a call.
+     *
+     * @return The start time to pass to {@link #stop(long)}
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records a call that succeeded.
+     *
+     * @param start The value {@link #start()} returned for the call
+     */
+    public void stop(long start) {
+        latency.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Records a call and whether it succeeded.
+     *
+     * @param start     The value {@link #start()} returned for the call
+     * @param succeeded false if the call was refused or failed
+     */
+    public void stop(long start, boolean succeeded) {
+        latency.record(System.nanoTime() - start);
+        if (!succeeded) {
+            failures.increment();
+        }
+    }
+
+    /**
+     * Returns the latencies recorded so far.
+     *
+     * @return The latency histogram, in nanoseconds
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    @Override
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        return latency.getMean() / 1000;
+    }
+
+    @Override
+    public double getMedianMicros() {
+        return latency.getValueAtPercentile(50) / 1000.0;
+    }
+
+    @Override
+    public double getP90Micros() {
+        return latency.getValueAtPercentile(90) / 1000.0;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return latency.getValueAtPercentile(99) / 1000.0;
+    }
+
+    @Override
+    public double getP999Micros() {
+        return latency.getValueAtPercentile(99.9) / 1000.0;
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return latency.getMax() / 1000.0;
+    }
+
+    @Override
+    public void reset() {
+        latency.reset();
+        failures.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-16s %10d %8d %10.1f %10.1f %10.1f %10.1f %10.1f", name, getCount(), getFailures(),
+                getMeanMicros(), getMedianMicros(), getP99Micros(), getP999Micros(), getMaxMicros());
+    }
+}
@@ -0,0 +1,178 @@
+package project.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import project.util.ImageCache;
+
+/**
+ * The operation metrics of a SocialConnect platform: logins, feed builds,
+ * sorting, votes and deletes, together with the image decodes of the shared
+ * {@link ImageCache}.
+ * <p>
+ * The metrics are always recorded. They can be published as MXBeans under the
+ * {@value #DOMAIN} domain, one per operation, for a JMX console such as
+ * JConsole to read, and printed as a table with {@link #dump()} when there is
+ * no console to attach.
+ */
+public class PlatformMetrics {
+    /** JMX domain the metrics are registered under */
+    public static final String DOMAIN = "project.SocialConnect";
+
+    private final OperationMetrics login = new OperationMetrics("login");
+    private final OperationMetrics visiblePosts = new OperationMetrics("getVisiblePosts");
+    private final OperationMetrics sortPosts = new OperationMetrics("sortPosts");
+    private final OperationMetrics feedPage = new OperationMetrics("getFeedPage");
+    private final OperationMetrics votes = new OperationMetrics("vote");
+    private final OperationMetrics deletes = new OperationMetrics("deletePost");
+
+    /** The names this instance registered, so they can be unregistered */
+    private final List<ObjectName> registered = new ArrayList<>();
+
+    /**
+     * Returns the metrics of logins; failures are rejected credentials.
+     *
+     * @return The login metrics
+     */
+    public OperationMetrics getLogin() {
+        return login;
+    }
+
+    /**
+     * Returns the metrics of reading the visible posts of a viewer.
+     *
+     * @return The getVisiblePosts metrics
+     */
+    public OperationMetrics getVisiblePosts() {
+        return visiblePosts;
+    }
+
+    /**
+     * Returns the metrics of sorting posts that are not read from a timeline.
+     *
+     * @return The sortPosts metrics
+     */
+    public OperationMetrics getSortPosts() {
+        return sortPosts;
+    }
+
+    /**
+     * Returns the metrics of reading one page of a feed.
+     *
+     * @return The getFeedPage metrics
+     */
+    public OperationMetrics getFeedPage() {
+        return feedPage;
+    }
+
+    /**
+     * Returns the metrics of upvotes and downvotes; failures are refused
+     * votes.
+     *
+     * @return The vote metrics
+     */
+    public OperationMetrics getVotes() {
+        return votes;
+    }
+
+    /**
+     * Returns the metrics of deleting posts, including the reshares deleted
+     * along with an original.
+     *
+     * @return The deletePost metrics
+     */
+    public OperationMetrics getDeletes() {
+        return deletes;
+    }
+
+    /**
+     * Returns every operation measured, image decodes last.
+     *
+     * @return The operation metrics
+     */
+    public List<OperationMetrics> getOperations() {
+        return Collections.unmodifiableList(Arrays.asList(login, visiblePosts, sortPosts, feedPage, votes, deletes,
+                ImageCache.getDecodeMetrics()));
+    }
+
+    /**
+     * Registers an MXBean for every operation with the platform MBean server.
+     * The image decode metrics are shared by all platforms and registered by
+     * the first one only.
+     *
+     * @param platformName The name of the platform, used in the object names
+     * @throws IllegalStateException if the beans of this platform are already
+     *                               registered or registration fails
+     */
+    public synchronized void registerMBeans(String platformName) {
+        if (!registered.isEmpty()) {
+            throw new IllegalStateException("The metrics are already registered");
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            for (OperationMetrics operation : getOperations()) {
+                if (operation == ImageCache.getDecodeMetrics()) {
+                    ObjectName name = new ObjectName(DOMAIN + ":type=ImageCache,name=" + operation.getName());
+                    if (!server.isRegistered(name)) {
+                        server.registerMBean(operation, name);
+                    }
+                    continue;
+                }
+                ObjectName name = new ObjectName(DOMAIN + ":type=Operation,platform=" + ObjectName.quote(platformName)
+                        + ",name=" + operation.getName());
+                server.registerMBean(operation, name);
+                registered.add(name);
+            }
+        } catch (JMException e) {
+            unregisterMBeans();
+            throw new IllegalStateException("Could not register the metrics of " + platformName, e);
+        }
+    }
+
+    /**
+     * Unregisters the MXBeans registered by {@link #registerMBeans(String)}.
+     */
+    public synchronized void unregisterMBeans() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName name : registered) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                // Already gone
+            }
+        }
+        registered.clear();
+    }
+
+    /**
+     * Resets every operation of this platform. The shared image decode
+     * metrics are left alone.
+     */
+    public void reset() {
+        for (OperationMetrics operation : Arrays.asList(login, visiblePosts, sortPosts, feedPage, votes, deletes)) {
+            operation.reset();
+        }
+    }
+
+    /**
+     * Formats every operation as one row of a table, for headless runs.
+     *
+     * @return The table, with latencies in microseconds
+     */
+    public String dump() {
+        StringBuilder table = new StringBuilder();
+        table.append(String.format("%-16s %10s %8s %10s %10s %10s %10s %10s%n", "operation", "count", "failed",
+                "mean us", "p50 us", "p99 us", "p99.9 us", "max us"));
+        for (OperationMetrics operation : getOperations()) {
+            table.append(operation).append(System.lineSeparator());
+        }
+        return table.toString();
+    }
+}
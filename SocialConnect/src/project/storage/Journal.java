@@ -0,0 +1,250 @@
+package project.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only log of platform mutations, split into segment files.
+ * <p>
+ * Every record gets the next log sequence number (LSN) and is written as one
+ * frame: the payload length, a CRC32 of the payload, and the payload itself,
+ * which starts with the LSN and the record type. Segments are named after the
+ * first LSN they may hold, so the segments that only hold records covered by
+ * a snapshot can be found and deleted by name.
+ * <p>
+ * A crash can leave a partly written frame at the end of the newest segment.
+ * It is detected by its length or checksum when the journal is opened and cut
+ * off; damage anywhere else is reported as an error.
+ * <p>
+ * This class is thread-safe.
+ */
+final class Journal {
+    /** Size of the length and checksum in front of every payload */
+    private static final int HEADER_BYTES = 8;
+
+    /** Largest payload accepted when reading, to reject garbage lengths */
+    private static final int MAX_PAYLOAD_BYTES = 64 * 1024 * 1024;
+
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".log";
+
+    /** Receives the records read back from the journal */
+    interface RecordHandler {
+        /**
+         * Handles one record.
+         *
+         * @param lsn  The sequence number of the record
+         * @param type The record type
+         * @param body The fields of the record
+         * @throws IOException if the record cannot be decoded
+         */
+        void record(long lsn, byte type, DataInputStream body) throws IOException;
+    }
+
+    private final Path dir;
+    private final boolean syncEveryWrite;
+
+    /** Segment records are appended to; guarded by this */
+    private FileChannel segment;
+
+    /** Sequence number of the last record appended; guarded by this */
+    private long lastLsn;
+
+    private Journal(Path dir, boolean syncEveryWrite, long lastLsn) throws IOException {
+        this.dir = dir;
+        this.syncEveryWrite = syncEveryWrite;
+        this.lastLsn = lastLsn;
+        this.segment = openSegment(lastLsn + 1);
+    }
+
+    /**
+     * Opens the journal in a directory, handing every record after a given LSN
+     * to a handler before new records can be appended.
+     *
+     * @param dir            The directory of the segment files
+     * @param syncEveryWrite Whether every append is forced to disk
+     * @param afterLsn       The LSN already covered by a snapshot
+     * @param handler        Receives the records after afterLsn, in order
+     * @return The journal, ready for appends
+     * @throws IOException if a segment cannot be read or is damaged
+     */
+    static Journal open(Path dir, boolean syncEveryWrite, long afterLsn, RecordHandler handler) throws IOException {
+        long lastLsn = afterLsn;
+        List<Path> segments = listSegments(dir);
+        for (int i = 0; i < segments.size(); i++) {
+            lastLsn = Math.max(lastLsn, replay(segments.get(i), i == segments.size() - 1, afterLsn, handler));
+        }
+        return new Journal(dir, syncEveryWrite, lastLsn);
+    }
+
+    /**
+     * Appends a record.
+     *
+     * @param type The record type
+     * @param body The fields of the record
+     * @return The LSN given to the record
+     * @throws IOException if the record cannot be written
+     */
+    synchronized long append(byte type, byte[] body) throws IOException {
+        long lsn = lastLsn + 1;
+        ByteBuffer payload = ByteBuffer.allocate(Long.BYTES + 1 + body.length);
+        payload.putLong(lsn).put(type).put(body);
+        CRC32 crc = new CRC32();
+        crc.update(payload.array());
+
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_BYTES + payload.capacity());
+        frame.putInt(payload.capacity()).putInt((int) crc.getValue()).put(payload.array());
+        frame.flip();
+        while (frame.hasRemaining()) {
+            segment.write(frame);
+        }
+        if (syncEveryWrite) {
+            segment.force(false);
+        }
+        lastLsn = lsn;
+        return lsn;
+    }
+
+    /**
+     * Starts a new segment, so every record appended so far is in older
+     * segments.
+     *
+     * @return The LSN of the last record in the older segments
+     * @throws IOException if the new segment cannot be created
+     */
+    synchronized long rotate() throws IOException {
+        segment.force(false);
+        segment.close();
+        segment = openSegment(lastLsn + 1);
+        return lastLsn;
+    }
+
+    /**
+     * Deletes the segments that only hold records up to an LSN.
+     *
+     * @param lsn The last LSN that is no longer needed
+     * @throws IOException if a segment cannot be deleted
+     */
+    synchronized void deleteThrough(long lsn) throws IOException {
+        List<Path> segments = listSegments(dir);
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (startLsn(segments.get(i + 1)) <= lsn + 1) {
+                Files.deleteIfExists(segments.get(i));
+            }
+        }
+    }
+
+    /**
+     * Returns the LSN of the last record appended.
+     *
+     * @return The last LSN, or the snapshot LSN if nothing was appended since
+     */
+    synchronized long getLastLsn() {
+        return lastLsn;
+    }
+
+    /**
+     * Forces the journal to disk and closes it.
+     *
+     * @throws IOException if closing fails
+     */
+    synchronized void close() throws IOException {
+        if (segment.isOpen()) {
+            segment.force(false);
+            segment.close();
+        }
+    }
+
+    private FileChannel openSegment(long startLsn) throws IOException {
+        return FileChannel.open(dir.resolve(String.format("%s%020d%s", PREFIX, startLsn, SUFFIX)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Reads one segment, cutting off a damaged tail if it is the newest one.
+     *
+     * @return The last LSN in the segment, or 0 if it is empty
+     */
+    private static long replay(Path file, boolean newest, long afterLsn, RecordHandler handler) throws IOException {
+        long lastLsn = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            long position = 0;
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (position < size) {
+                header.clear();
+                int length = -1;
+                byte[] payload = null;
+                if (readFully(channel, header, position)) {
+                    header.flip();
+                    length = header.getInt();
+                    int checksum = header.getInt();
+                    if (length > Long.BYTES && length <= MAX_PAYLOAD_BYTES) {
+                        ByteBuffer data = ByteBuffer.allocate(length);
+                        if (readFully(channel, data, position + HEADER_BYTES)) {
+                            CRC32 crc = new CRC32();
+                            crc.update(data.array());
+                            if ((int) crc.getValue() == checksum) {
+                                payload = data.array();
+                            }
+                        }
+                    }
+                }
+                if (payload == null) {
+                    if (!newest) {
+                        throw new IOException("Damaged record in " + file + " at offset " + position);
+                    }
+                    channel.truncate(position); // Torn write from a crash
+                    break;
+                }
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+                long lsn = in.readLong();
+                byte type = in.readByte();
+                if (lsn > afterLsn) {
+                    handler.record(lsn, type, in);
+                }
+                lastLsn = lsn;
+                position += HEADER_BYTES + length;
+            }
+        }
+        return lastLsn;
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<Path> listSegments(Path dir) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, PREFIX + "*" + SUFFIX)) {
+            for (Path file : stream) {
+                segments.add(file);
+            }
+        }
+        // Zero-padded start LSNs sort by name
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private static long startLsn(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
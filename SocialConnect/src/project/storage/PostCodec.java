@@ -0,0 +1,274 @@
+package project.storage;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import project.Content;
+import project.ImagePost;
+import project.Post;
+import project.RegularPost;
+import project.ResharedPost;
+import project.SocialConnect;
+import project.enums.PostAudience;
+import project.enums.PostDataType;
+
+/**
+ * Binary encoding of posts, shared by the journal and the snapshots.
+ * <p>
+ * A post is written as its kind, ID, owner, audience, creation time and last
+ * vote time, followed by the fields of its kind and then its voters. A reshare
+ * refers to the root original of its chain by ID, followed by the ID of the
+ * post it was made from and its depth in the chain. Posts written in earlier
+ * formats lack the two times, which become the current time, or refer to the
+ * post a reshare was made from instead of its root; such a reshare is
+ * flattened as it is read. In the journal, and in a snapshot if the root is
+ * not part of the snapshot, the root is also written inline, so the reshare
+ * can be restored even if the root has been deleted by the time it is read
+ * back.
+ * <p>
+ * Voters are written by name in the journal. Snapshots pass a member index, so
+ * each voter who is a member takes a single int.
+ */
+final class PostCodec {
+    private static final byte REGULAR = 0;
+    private static final byte IMAGE = 1;
+    private static final byte RESHARE = 2;
+
+    /** Format of posts written before posts carried their times */
+    static final int UNTIMED = 1;
+
+    /** Format of posts written before reshare chains were flattened */
+    static final int TIMED = 2;
+
+    /** The format written by {@link #write} */
+    static final int CURRENT = 3;
+
+    /** A decoded post together with the votes to cast once it is logged */
+    static final class Decoded {
+        final Post post;
+        final List<String> upvoters;
+        final List<String> downvoters;
+
+        Decoded(Post post, List<String> upvoters, List<String> downvoters) {
+            this.post = post;
+            this.upvoters = upvoters;
+            this.downvoters = downvoters;
+        }
+
+        /**
+         * Casts the decoded votes on the post. Only the time of the last vote
+         * is stored, so every vote is cast at that time.
+         */
+        void applyVotes() {
+            long votedAt = post.getLastVoteAt() > 0 ? post.getLastVoteAt() : post.getCreatedAt();
+            for (String voter : upvoters) {
+                post.upvote(voter, votedAt);
+            }
+            for (String voter : downvoters) {
+                post.downvote(voter, votedAt);
+            }
+        }
+    }
+
+    private PostCodec() {
+    }
+
+    /**
+     * Writes a post and its voters.
+     *
+     * @param out         The output
+     * @param post        The post
+     * @param written     The posts written before this one, whose reshares
+     *                    can refer to them by ID, or null to write every root
+     *                    inline
+     * @param memberIndex Position of each member in the snapshot, or null to
+     *                    write voters by name
+     * @throws IOException if writing fails
+     */
+    static void write(DataOutput out, Post post, Predicate<Post> written, Map<String, Integer> memberIndex)
+            throws IOException {
+        if (post instanceof ResharedPost) {
+            out.writeByte(RESHARE);
+        } else if (post instanceof ImagePost) {
+            out.writeByte(IMAGE);
+        } else {
+            out.writeByte(REGULAR);
+        }
+        out.writeInt(post.getPostID());
+        writeString(out, post.getOwner());
+        writeString(out, post.getAudience().name());
+        out.writeLong(post.getCreatedAt());
+        out.writeLong(post.getLastVoteAt());
+
+        if (post instanceof ResharedPost) {
+            Post original = ((ResharedPost) post).getOriginalPost();
+            out.writeInt(original.getPostID());
+            boolean inline = written == null || !written.test(original);
+            out.writeBoolean(inline);
+            if (inline) {
+                write(out, original, written, memberIndex);
+            }
+            out.writeInt(((ResharedPost) post).getResharedPostID());
+            out.writeInt(((ResharedPost) post).getDepth());
+        } else if (post instanceof ImagePost) {
+            ImagePost image = (ImagePost) post;
+            writeString(out, image.imagePath);
+            writeString(out, image.caption);
+        } else {
+            List<Content> contents = ((RegularPost) post).getContents();
+            out.writeInt(contents.size());
+            for (Content content : contents) {
+                out.writeByte(content.getTypeOfData().ordinal());
+                writeString(out, content.getData());
+            }
+        }
+
+        writeVoters(out, post.getUpvoters(), memberIndex);
+        writeVoters(out, post.getDownvoters(), memberIndex);
+    }
+
+    /**
+     * Reads a post written by {@link #write}. The post is not logged and its
+     * votes are not cast.
+     *
+     * @param in          The input
+     * @param platform    The platform that holds the original of a reshare
+     * @param memberNames The members in snapshot order, or null if voters were
+     *                    written by name
+     * @param format      The format the post was written in, one of
+     *                    {@link #UNTIMED}, {@link #TIMED} and {@link #CURRENT}
+     * @return The decoded post and its voters
+     * @throws IOException if reading fails or the original of a reshare is
+     *                     missing
+     */
+    static Decoded read(DataInput in, SocialConnect platform, List<String> memberNames, int format)
+            throws IOException {
+        boolean timed = format >= TIMED;
+        byte kind = in.readByte();
+        int postID = in.readInt();
+        String owner = readString(in);
+        PostAudience audience = PostAudience.valueOf(readString(in));
+        long createdAt = timed ? in.readLong() : System.currentTimeMillis();
+        long lastVoteAt = timed ? in.readLong() : 0;
+
+        Post post;
+        switch (kind) {
+            case RESHARE: {
+                int originalID = in.readInt();
+                Post original = platform.getPost(originalID);
+                if (in.readBoolean()) {
+                    Decoded inline = read(in, platform, memberNames, format);
+                    if (original == null) {
+                        inline.applyVotes();
+                        original = inline.post;
+                    }
+                }
+                if (original == null) {
+                    throw new IOException("Original post " + originalID + " of reshare " + postID + " is missing");
+                }
+                if (format >= CURRENT) {
+                    int resharedPostID = in.readInt();
+                    post = new ResharedPost(audience.name(), original, resharedPostID, in.readInt(), owner, postID);
+                } else {
+                    // The original is the post it was made from, which flattens to its root
+                    post = new ResharedPost(audience.name(), original, owner, postID);
+                }
+                break;
+            }
+            case IMAGE:
+                post = new ImagePost(audience, owner, readString(in), readString(in), postID);
+                break;
+            case REGULAR: {
+                int count = in.readInt();
+                List<Content> contents = new ArrayList<>(count);
+                PostDataType[] types = PostDataType.values();
+                for (int i = 0; i < count; i++) {
+                    PostDataType type = types[in.readByte()];
+                    String data = readString(in);
+                    contents.add(type == PostDataType.Text ? new Content(data) : new Content(data, type));
+                }
+                post = new RegularPost(owner, contents, audience, postID);
+                break;
+            }
+            default:
+                throw new IOException("Unknown post kind " + kind);
+        }
+
+        post.restoreTimestamps(createdAt, lastVoteAt);
+
+        List<String> upvoters = readVoters(in, memberNames);
+        List<String> downvoters = readVoters(in, memberNames);
+        return new Decoded(post, upvoters, downvoters);
+    }
+
+    private static void writeVoters(DataOutput out, List<String> voters, Map<String, Integer> memberIndex)
+            throws IOException {
+        out.writeInt(voters.size());
+        for (String voter : voters) {
+            if (memberIndex == null) {
+                writeString(out, voter);
+                continue;
+            }
+            Integer index = memberIndex.get(voter);
+            out.writeInt(index == null ? -1 : index);
+            if (index == null) {
+                writeString(out, voter);
+            }
+        }
+    }
+
+    private static List<String> readVoters(DataInput in, List<String> memberNames) throws IOException {
+        int count = in.readInt();
+        List<String> voters = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (memberNames == null) {
+                voters.add(readString(in));
+                continue;
+            }
+            int index = in.readInt();
+            voters.add(index < 0 ? readString(in) : memberNames.get(index));
+        }
+        return voters;
+    }
+
+    /**
+     * Writes a nullable string as its UTF-8 length, or -1 for null, followed by
+     * its bytes. Unlike {@link DataOutput#writeUTF} this has no length limit.
+     *
+     * @param out The output
+     * @param s   The string, may be null
+     * @throws IOException if writing fails
+     */
+    static void writeString(DataOutput out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a string written by {@link #writeString}.
+     *
+     * @param in The input
+     * @return The string, or null
+     * @throws IOException if reading fails
+     */
+    static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
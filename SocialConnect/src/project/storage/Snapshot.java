@@ -0,0 +1,230 @@
+package project.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import project.Post;
+import project.SocialConnect;
+import project.User;
+
+/**
+ * Compact binary image of a whole platform, taken as of a journal LSN.
+ * <p>
+ * A snapshot holds the members in user ID order, the follow edges, and the
+ * logged posts in post ID order, each followed by its trending score at the
+ * time the snapshot was taken. Timelines are not stored; they are rebuilt
+ * once all posts are loaded. Voters and follow edges refer to members by
+ * their position in the snapshot, so each takes a single int. The file ends
+ * with a CRC32 of its contents and is written under a temporary name and then
+ * renamed, so a snapshot file is either complete or absent.
+ * <p>
+ * Snapshots are fuzzy: the platform keeps changing while one is written, so it
+ * may already contain some changes logged after its LSN. Replaying those
+ * records again leaves the platform unchanged, which makes this safe.
+ */
+final class Snapshot {
+    private static final int MAGIC = 0x53434E50; // "SCNP"
+    /** Posts in a snapshot use the PostCodec format of the same number */
+    private static final int VERSION = PostCodec.CURRENT;
+
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".bin";
+
+    private Snapshot() {
+    }
+
+    /**
+     * Writes a snapshot of a platform.
+     *
+     * @param dir      The storage directory
+     * @param platform The platform
+     * @param lsn      The LSN of the last journal record it is known to cover
+     * @return The snapshot file
+     * @throws IOException if the snapshot cannot be written
+     */
+    static Path write(Path dir, SocialConnect platform, long lsn) throws IOException {
+        Path file = dir.resolve(fileName(lsn));
+        Path temp = dir.resolve(fileName(lsn) + ".tmp");
+        CRC32 crc = new CRC32();
+        try (OutputStream raw = Files.newOutputStream(temp);
+                DataOutputStream out = new DataOutputStream(
+                        new CheckedOutputStream(new BufferedOutputStream(raw), crc))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(lsn);
+            long takenAt = System.currentTimeMillis();
+            out.writeLong(takenAt);
+
+            List<User> members = platform.getMembers();
+            Map<String, Integer> memberIndex = new HashMap<>();
+            out.writeInt(members.size());
+            for (User member : members) {
+                memberIndex.put(member.getUsername(), memberIndex.size());
+                PostCodec.writeString(out, member.getUsername());
+                PostCodec.writeString(out, member.getPassword());
+            }
+
+            List<int[]> edges = new ArrayList<>();
+            for (User member : members) {
+                int follower = memberIndex.get(member.getUsername());
+                for (String followee : member.getFollowing()) {
+                    Integer index = memberIndex.get(followee);
+                    if (index != null) {
+                        edges.add(new int[] { follower, index });
+                    }
+                }
+            }
+            out.writeInt(edges.size());
+            for (int[] edge : edges) {
+                out.writeInt(edge[0]);
+                out.writeInt(edge[1]);
+            }
+
+            // Posts of users who joined after the member list was taken are
+            // left to the journal, like the users themselves. Posts of removed
+            // members stay logged, so they are kept. Each owner is decided
+            // once, so a reshare refers by ID only to originals written here.
+            Map<String, Boolean> keptOwners = new HashMap<>();
+            Predicate<Post> kept = post -> keptOwners.computeIfAbsent(post.getOwner(),
+                    owner -> memberIndex.containsKey(owner) || !platform.isMember(owner));
+            List<Post> posts = platform.getPosts();
+            posts.removeIf(kept.negate());
+            Predicate<Post> written = original -> kept.test(original)
+                    && platform.getPost(original.getPostID()) == original;
+            out.writeInt(posts.size());
+            for (Post post : posts) {
+                PostCodec.write(out, post, written, memberIndex);
+                out.writeDouble(post.getTrendingScore(takenAt));
+            }
+
+            out.flush();
+            new DataOutputStream(raw).writeLong(crc.getValue());
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return file;
+    }
+
+    /**
+     * Loads the newest snapshot in a directory into an empty platform.
+     *
+     * @param dir      The storage directory
+     * @param platform The platform to fill
+     * @return The LSN of the snapshot, or 0 if there is none
+     * @throws IOException if the snapshot cannot be read or is damaged
+     */
+    static long loadLatest(Path dir, SocialConnect platform) throws IOException {
+        Path file = latest(dir);
+        if (file == null) {
+            return 0;
+        }
+        CRC32 crc = new CRC32();
+        long lsn;
+        try (InputStream raw = new BufferedInputStream(Files.newInputStream(file))) {
+            DataInputStream in = new DataInputStream(new CheckedInputStream(raw, crc));
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a snapshot");
+            }
+            int version = in.readInt();
+            if (version < PostCodec.UNTIMED || version > VERSION) {
+                throw new IOException(file + " has unsupported version " + version);
+            }
+            boolean timed = version >= PostCodec.TIMED;
+            lsn = in.readLong();
+            long takenAt = timed ? in.readLong() : 0;
+
+            int memberCount = in.readInt();
+            List<String> memberNames = new ArrayList<>(memberCount);
+            for (int i = 0; i < memberCount; i++) {
+                String username = PostCodec.readString(in);
+                platform.addNewMember(username, PostCodec.readString(in));
+                memberNames.add(username);
+            }
+
+            int edgeCount = in.readInt();
+            for (int i = 0; i < edgeCount; i++) {
+                User follower = platform.getUser(memberNames.get(in.readInt()));
+                follower.startFollowing(memberNames.get(in.readInt()));
+            }
+
+            // Posts are in ID order, so the original of a reshare is always
+            // logged before the reshare. Timelines are filled once at the end
+            // rather than by a fan-out per post.
+            int postCount = in.readInt();
+            for (int i = 0; i < postCount; i++) {
+                PostCodec.Decoded decoded = PostCodec.read(in, platform, memberNames, version);
+                platform.restoreUndistributedPost(decoded.post);
+                decoded.applyVotes();
+                if (timed) {
+                    // The votes were cast at one time; put back the exact score
+                    platform.restoreTrendingScore(decoded.post, in.readDouble(), takenAt);
+                }
+            }
+
+            platform.rebuildTimelines();
+
+            long expected = crc.getValue();
+            if (new DataInputStream(raw).readLong() != expected) {
+                throw new IOException(file + " is damaged");
+            }
+        }
+        return lsn;
+    }
+
+    /**
+     * Deletes every snapshot older than the given one.
+     *
+     * @param dir  The storage directory
+     * @param keep The snapshot to keep
+     * @throws IOException if a snapshot cannot be deleted
+     */
+    static void deleteOlder(Path dir, Path keep) throws IOException {
+        for (Path file : list(dir)) {
+            if (file.compareTo(keep) < 0) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static Path latest(Path dir) throws IOException {
+        List<Path> files = list(dir);
+        return files.isEmpty() ? null : files.get(files.size() - 1);
+    }
+
+    private static List<Path> list(Path dir) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, PREFIX + "*" + SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        // Zero-padded LSNs sort by name
+        files.sort(null);
+        return files;
+    }
+
+    private static String fileName(long lsn) {
+        return String.format("%s%020d%s", PREFIX, lsn, SUFFIX);
+    }
+}
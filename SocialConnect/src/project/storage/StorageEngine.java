@@ -0,0 +1,326 @@
+package project.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import project.Post;
+import project.SocialConnect;
+import project.User;
+import project.interfaces.MutationListener;
+
+/**
+ * Keeps a SocialConnect platform on disk as a snapshot plus a journal.
+ * <p>
+ * Every mutation of the platform (a new member, a post or reshare, a vote, a
+ * follow or unfollow, a deletion) is appended to the {@link Journal} as it
+ * happens. After every {@code snapshotInterval} records a compact binary
+ * {@link Snapshot} of the whole platform is written in the background, and the
+ * journal segments and snapshots it replaces are deleted. Opening the engine
+ * loads the latest snapshot and then replays only the journal records logged
+ * after it, so startup time depends on the snapshot size and the snapshot
+ * interval, not on the age of the platform.
+ * <p>
+ * Journal writes happen on the thread that changed the platform. An I/O error
+ * while writing is thrown to that thread as an {@link UncheckedIOException},
+ * after the change has been applied in memory.
+ */
+public class StorageEngine implements MutationListener, Closeable {
+    /** Journal records between automatic snapshots */
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 10000;
+
+    private static final byte MEMBER_ADDED = 1;
+    private static final byte MEMBER_REMOVED = 2;
+    private static final byte POST_LOGGED = 3;
+    private static final byte POST_DELETED = 4;
+    private static final byte VOTE = 5;
+    private static final byte FOLLOW = 6;
+    // Older record types are still replayed: POST_LOGGED and VOTE predate post
+    // and vote times, and TIMED_POST_LOGGED predates flattened reshare chains
+    private static final byte TIMED_POST_LOGGED = 7;
+    private static final byte TIMED_VOTE = 8;
+    private static final byte FLAT_POST_LOGGED = 9;
+
+    private final SocialConnect platform;
+    private final Path dir;
+    private final int snapshotInterval;
+    private final Journal journal;
+
+    /** Writes snapshots away from the threads that change the platform */
+    private final ExecutorService snapshotter;
+
+    /** Records appended since the last snapshot started */
+    private final AtomicLong recordsSinceSnapshot = new AtomicLong();
+
+    /** Whether an automatic snapshot is queued or running */
+    private final AtomicBoolean snapshotPending = new AtomicBoolean();
+
+    /** LSN of the newest snapshot on disk; guarded by the snapshot lock */
+    private long snapshotLsn;
+
+    private final Object snapshotLock = new Object();
+
+    private StorageEngine(SocialConnect platform, Path dir, int snapshotInterval, boolean syncEveryWrite)
+            throws IOException {
+        this.platform = platform;
+        this.dir = dir;
+        this.snapshotInterval = snapshotInterval;
+        this.snapshotLsn = Snapshot.loadLatest(dir, platform);
+        this.journal = Journal.open(dir, syncEveryWrite, snapshotLsn, this::replay);
+        this.snapshotter = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        recordsSinceSnapshot.set(journal.getLastLsn() - snapshotLsn);
+    }
+
+    /**
+     * Opens the storage in a directory with the default snapshot interval,
+     * without forcing every journal write to disk.
+     *
+     * @param platform An empty platform to load the stored state into
+     * @param dir      The storage directory; created if it does not exist
+     * @return The open storage engine
+     * @throws IOException if the stored state cannot be read
+     * @see #open(SocialConnect, Path, int, boolean)
+     */
+    public static StorageEngine open(SocialConnect platform, Path dir) throws IOException {
+        return open(platform, dir, DEFAULT_SNAPSHOT_INTERVAL, false);
+    }
+
+    /**
+     * Opens the storage in a directory. The latest snapshot and the journal
+     * records after it are loaded into the platform, and from then on every
+     * change to the platform is journaled.
+     *
+     * @param platform         An empty platform to load the stored state into
+     * @param dir              The storage directory; created if it does not
+     *                         exist
+     * @param snapshotInterval The number of journal records between automatic
+     *                         snapshots
+     * @param syncEveryWrite   Whether every journal record is forced to disk
+     *                         before the change returns; without it a crash of
+     *                         the machine, but not of the process, can lose the
+     *                         latest changes
+     * @return The open storage engine
+     * @throws IOException              if the stored state cannot be read
+     * @throws IllegalArgumentException if the platform already has members or
+     *                                  snapshotInterval is not positive
+     */
+    public static StorageEngine open(SocialConnect platform, Path dir, int snapshotInterval, boolean syncEveryWrite)
+            throws IOException {
+        if (!platform.getMembers().isEmpty()) {
+            throw new IllegalArgumentException("Storage can only be loaded into an empty platform");
+        }
+        if (snapshotInterval <= 0) {
+            throw new IllegalArgumentException("Snapshot interval must be positive");
+        }
+        Files.createDirectories(dir);
+        StorageEngine engine = new StorageEngine(platform, dir, snapshotInterval, syncEveryWrite);
+        platform.addMutationListener(engine);
+        engine.maybeScheduleSnapshot();
+        return engine;
+    }
+
+    /**
+     * Writes a snapshot now and deletes the journal segments and snapshots it
+     * replaces.
+     *
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void snapshot() throws IOException {
+        synchronized (snapshotLock) {
+            long lsn = journal.rotate();
+            recordsSinceSnapshot.set(0);
+            if (lsn == snapshotLsn) {
+                return; // Nothing changed
+            }
+            Path file = Snapshot.write(dir, platform, lsn);
+            snapshotLsn = lsn;
+            journal.deleteThrough(lsn);
+            Snapshot.deleteOlder(dir, file);
+        }
+    }
+
+    /**
+     * Returns the sequence number of the last journal record.
+     *
+     * @return The last LSN
+     */
+    public long getLastLsn() {
+        return journal.getLastLsn();
+    }
+
+    /**
+     * Stops journaling, waits for a running snapshot and closes the journal.
+     *
+     * @throws IOException if the journal cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        platform.removeMutationListener(this);
+        snapshotter.shutdown();
+        try {
+            snapshotter.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        journal.close();
+    }
+
+    @Override
+    public void memberAdded(User user) {
+        append(MEMBER_ADDED, out -> {
+            PostCodec.writeString(out, user.getUsername());
+            PostCodec.writeString(out, user.getPassword());
+        });
+    }
+
+    @Override
+    public void memberRemoved(User user) {
+        append(MEMBER_REMOVED, out -> PostCodec.writeString(out, user.getUsername()));
+    }
+
+    @Override
+    public void postLogged(Post post) {
+        append(FLAT_POST_LOGGED, out -> PostCodec.write(out, post, null, null));
+    }
+
+    @Override
+    public void postDeleted(Post post) {
+        append(POST_DELETED, out -> out.writeInt(post.getPostID()));
+    }
+
+    @Override
+    public void voteCast(Post post, String username, boolean isUpvote) {
+        append(TIMED_VOTE, out -> {
+            out.writeInt(post.getPostID());
+            PostCodec.writeString(out, username);
+            out.writeBoolean(isUpvote);
+            out.writeLong(post.getLastVoteAt());
+        });
+    }
+
+    @Override
+    public void followChanged(User follower, User followee, boolean following) {
+        append(FOLLOW, out -> {
+            PostCodec.writeString(out, follower.getUsername());
+            PostCodec.writeString(out, followee.getUsername());
+            out.writeBoolean(following);
+        });
+    }
+
+    /** Writes the fields of one journal record */
+    private interface RecordBody {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private void append(byte type, RecordBody body) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            body.write(out);
+            out.flush();
+            journal.append(type, bytes.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not journal change to " + platform.getName(), e);
+        }
+        recordsSinceSnapshot.incrementAndGet();
+        maybeScheduleSnapshot();
+    }
+
+    private void maybeScheduleSnapshot() {
+        if (recordsSinceSnapshot.get() < snapshotInterval || !snapshotPending.compareAndSet(false, true)) {
+            return;
+        }
+        snapshotter.execute(() -> {
+            try {
+                snapshot();
+            } catch (IOException e) {
+                // The journal still holds everything; try again after the next interval
+                System.err.println("Error writing snapshot: " + e.getMessage());
+            } finally {
+                snapshotPending.set(false);
+            }
+        });
+    }
+
+    /**
+     * Applies one journal record during startup. A fuzzy snapshot can already
+     * contain the effect of a record, so every record is applied only if it
+     * still changes the platform.
+     */
+    private void replay(long lsn, byte type, DataInputStream in) throws IOException {
+        switch (type) {
+            case MEMBER_ADDED: {
+                String username = PostCodec.readString(in);
+                platform.addNewMember(username, PostCodec.readString(in));
+                break;
+            }
+            case MEMBER_REMOVED:
+                platform.removeMember(PostCodec.readString(in));
+                break;
+            case POST_LOGGED:
+            case TIMED_POST_LOGGED:
+            case FLAT_POST_LOGGED: {
+                int format = type == POST_LOGGED ? PostCodec.UNTIMED
+                        : type == TIMED_POST_LOGGED ? PostCodec.TIMED : PostCodec.CURRENT;
+                PostCodec.Decoded decoded = PostCodec.read(in, platform, null, format);
+                if (platform.getPost(decoded.post.getPostID()) == null
+                        && platform.isMember(decoded.post.getOwner())) {
+                    platform.restorePost(decoded.post);
+                    decoded.applyVotes();
+                }
+                break;
+            }
+            case POST_DELETED: {
+                Post post = platform.getPost(in.readInt());
+                if (post != null) {
+                    platform.deletePost(post);
+                }
+                break;
+            }
+            case VOTE:
+            case TIMED_VOTE: {
+                Post post = platform.getPost(in.readInt());
+                String username = PostCodec.readString(in);
+                boolean isUpvote = in.readBoolean();
+                long votedAt = type == TIMED_VOTE ? in.readLong() : System.currentTimeMillis();
+                if (post != null) {
+                    if (isUpvote) {
+                        post.upvote(username, votedAt);
+                    } else {
+                        post.downvote(username, votedAt);
+                    }
+                }
+                break;
+            }
+            case FOLLOW: {
+                User follower = platform.getUser(PostCodec.readString(in));
+                String followee = PostCodec.readString(in);
+                boolean following = in.readBoolean();
+                if (follower != null && platform.isMember(followee)) {
+                    if (following) {
+                        follower.startFollowing(followee);
+                    } else {
+                        follower.stopFollowing(followee);
+                    }
+                }
+                break;
+            }
+            default:
+                throw new IOException("Unknown journal record type " + type + " at LSN " + lsn);
+        }
+    }
+}
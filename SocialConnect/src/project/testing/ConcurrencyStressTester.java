@@ -0,0 +1,164 @@
+package project.testing;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import project.FeedPage;
+import project.PopularityIndex;
+import project.Post;
+import project.SocialConnect;
+import project.User;
+import project.enums.PageAlgorithm;
+import project.enums.PostAudience;
+
+/**
+ * Multi-threaded stress benchmark for the SocialConnect model.
+ * <p>
+ * For 1, 2, 4 and 8 threads, each thread registers its own members and then
+ * runs a mix of posting, voting and feed reads against one shared platform.
+ * The throughput of every run is printed, after which the platform is checked
+ * for lost or duplicated post IDs, vote counts that disagree with scores, and
+ * a Popular feed that is out of order.
+ * <p>
+ * Usage: {@code java project.testing.ConcurrencyStressTester [opsPerThread]}
+ */
+public class ConcurrencyStressTester {
+    private static final int[] THREAD_COUNTS = { 1, 2, 4, 8 };
+    private static final int MEMBERS_PER_THREAD = 25;
+    private static final int RECENT_POSTS = 1024;
+
+    public static void main(String[] args) throws InterruptedException {
+        int opsPerThread = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        System.out.printf("%-8s %-12s %-10s %-14s %s%n", "threads", "operations", "millis", "ops/sec", "invariants");
+        for (int threads : THREAD_COUNTS) {
+            run(threads, opsPerThread);
+        }
+    }
+
+    private static void run(int threads, int opsPerThread) throws InterruptedException {
+        SocialConnect platform = new SocialConnect("StressTest", PageAlgorithm.Newest);
+        AtomicReferenceArray<Post> recent = new AtomicReferenceArray<>(RECENT_POSTS);
+        AtomicInteger created = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            final int thread = t;
+            new Thread(() -> {
+                try {
+                    start.await();
+                    work(platform, thread, opsPerThread, recent, created);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }, "stress-" + t).start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - begin;
+
+        long operations = (long) threads * opsPerThread;
+        double opsPerSec = operations / (elapsed / 1e9);
+        String verdict = check(platform, threads, created.get());
+        System.out.printf("%-8d %-12d %-10d %-14.0f %s%n", threads, operations, elapsed / 1_000_000, opsPerSec,
+                verdict);
+    }
+
+    /**
+     * One session: registers members, then posts (10%), votes (60%) and reads
+     * a feed page (30%) as a randomly chosen member.
+     */
+    private static void work(SocialConnect platform, int thread, int ops, AtomicReferenceArray<Post> recent,
+            AtomicInteger created) {
+        Random random = new Random(thread);
+        User[] mine = new User[MEMBERS_PER_THREAD];
+        for (int i = 0; i < mine.length; i++) {
+            String username = String.format("stress-%02d-%04d", thread, i);
+            platform.register(username, "password");
+            mine[i] = platform.getUser(username);
+            mine[i].setLoggedInto(platform);
+        }
+
+        for (int op = 0; op < ops; op++) {
+            User user = mine[random.nextInt(mine.length)];
+            int roll = random.nextInt(10);
+            if (roll == 0) {
+                Post post = user.createPost("Post " + op + " from " + user.getUsername(), PostAudience.Members);
+                recent.set(post.getPostID() % RECENT_POSTS, post);
+                created.incrementAndGet();
+            } else if (roll < 7) {
+                Post post = recent.get(random.nextInt(RECENT_POSTS));
+                if (post != null) {
+                    if (random.nextBoolean()) {
+                        post.upvote(user.getUsername());
+                    } else {
+                        post.downvote(user.getUsername());
+                    }
+                }
+            } else {
+                platform.getFeedPage(user, 20, null);
+            }
+        }
+    }
+
+    /**
+     * Checks the platform after a run and describes what is wrong, if anything.
+     */
+    private static String check(SocialConnect platform, int threads, int created) {
+        List<Post> posts = platform.getPosts();
+        if (platform.getMembers().size() != threads * MEMBERS_PER_THREAD) {
+            return "FAIL: " + platform.getMembers().size() + " members registered";
+        }
+        if (posts.size() != created) {
+            return "FAIL: " + created + " posts created but " + posts.size() + " logged";
+        }
+        Set<Integer> ids = new HashSet<>();
+        Set<Integer> userIDs = new HashSet<>();
+        for (User member : platform.getMembers()) {
+            if (!userIDs.add(member.getUserID())) {
+                return "FAIL: duplicate user ID " + member.getUserID();
+            }
+        }
+        for (Post post : posts) {
+            if (!ids.add(post.getPostID())) {
+                return "FAIL: duplicate post ID " + post.getPostID();
+            }
+            int expected = post.getUpvoteCount() - post.getDownvoteCount()
+                    + PopularityIndex.RESHARE_WEIGHT * post.getReshareCount();
+            if (post.getPopularityScore() != expected) {
+                return "FAIL: post " + post.getPostID() + " score does not match its votes and reshares";
+            }
+        }
+
+        // Walk the whole Popular feed of one member: it must be complete and in order
+        platform.setSortBy(PageAlgorithm.Popular);
+        User reader = platform.getMembers().get(0);
+        int seen = 0;
+        int lastScore = Integer.MAX_VALUE;
+        String cursor = null;
+        do {
+            FeedPage page = platform.getFeedPage(reader, 50, cursor);
+            for (Post post : page.getPosts()) {
+                if (post.getPopularityScore() > lastScore) {
+                    return "FAIL: Popular feed out of order at post " + post.getPostID();
+                }
+                lastScore = post.getPopularityScore();
+                seen++;
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        if (seen != posts.size()) {
+            return "FAIL: Popular feed has " + seen + " posts";
+        }
+        return "ok";
+    }
+}
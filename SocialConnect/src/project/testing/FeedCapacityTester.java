@@ -0,0 +1,141 @@
+package project.testing;
+
+import java.util.List;
+
+import project.FeedPage;
+import project.Post;
+import project.SocialConnect;
+import project.Timeline;
+import project.User;
+import project.enums.PageAlgorithm;
+import project.enums.PostAudience;
+
+/**
+ * Checks a member's feeds on a platform with more posts than a timeline can
+ * hold.
+ * <p>
+ * alice makes {@value #POSTS} posts for all members, more than
+ * {@link Timeline#DEFAULT_CAPACITY}, and bob upvotes only her first one. That
+ * post has dropped out of every timeline, yet it must still head bob's
+ * Popular, Trending and Oldest feeds, both as a list and as a first page, and
+ * paging through the Oldest feed must reach every post. A user who is not a
+ * member gets the same first pages, and a null viewer an empty one. A post
+ * alice makes for her followers must reach bob once bob follows alice, and
+ * never carol, who does not. Once alice's posts for followers fill bob's
+ * timeline, deleting one must bring back the newest post it dropped.
+ * <p>
+ * Usage: {@code java project.testing.FeedCapacityTester}
+ */
+public class FeedCapacityTester {
+    private static final int POSTS = Timeline.DEFAULT_CAPACITY + 200;
+
+    private static int failures;
+
+    public static void main(String[] args) {
+        SocialConnect platform = new SocialConnect("Capacity", PageAlgorithm.Newest);
+        platform.register("alice123", "password");
+        platform.register("bob45678", "password");
+        platform.register("carol123", "password");
+        User alice = platform.getUser("alice123");
+        User bob = platform.getUser("bob45678");
+        User carol = platform.getUser("carol123");
+        alice.setLoggedInto(platform);
+        Post first = alice.createPost("Post 0", PostAudience.Members);
+        Post last = first;
+        for (int i = 1; i < POSTS; i++) {
+            last = alice.createPost("Post " + i, PostAudience.Members);
+        }
+        first.upvote(bob.getUsername());
+
+        for (PageAlgorithm algorithm : new PageAlgorithm[] { PageAlgorithm.Popular, PageAlgorithm.Trending }) {
+            platform.setSortBy(algorithm);
+            expectFirst(algorithm + " feed", platform.getVisiblePosts(bob), first);
+            FeedPage page = platform.getFeedPage(bob, 10, null);
+            expectFirst(algorithm + " first page", page.getPosts(), first);
+        }
+
+        platform.setSortBy(PageAlgorithm.Oldest);
+        expectFirst("Oldest feed", platform.getVisiblePosts(bob), first);
+        expectFirst("Oldest first page", platform.getFeedPage(bob, 10, null).getPosts(), first);
+        int seen = 0;
+        String cursor = null;
+        do {
+            FeedPage page = platform.getFeedPage(bob, 100, cursor);
+            seen += page.getPosts().size();
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        if (seen != POSTS) {
+            fail("Oldest pages", "hold " + seen + " posts instead of " + POSTS);
+        } else {
+            pass("Oldest pages");
+        }
+
+        // A user who never joined reads the same indexes, and a missing viewer sees nothing
+        User guest = new User("guest123", "password");
+        platform.setSortBy(PageAlgorithm.Popular);
+        expectFirst("Popular first page of a non-member", platform.getFeedPage(guest, 10, null).getPosts(), first);
+        platform.setSortBy(PageAlgorithm.Newest);
+        expectFirst("Newest first page of a non-member", platform.getFeedPage(guest, 10, null).getPosts(), last);
+        if (!platform.getFeedPage(null, 10, null).getPosts().isEmpty()) {
+            fail("page without a viewer", "is not empty");
+        } else {
+            pass("page without a viewer");
+        }
+
+        bob.setLoggedInto(platform);
+        bob.startFollowing(alice.getUsername());
+        Post forFollowers = alice.createPost("For followers", PostAudience.Followers);
+        forFollowers.upvote(bob.getUsername());
+        forFollowers.upvote(carol.getUsername());
+        platform.setSortBy(PageAlgorithm.Popular);
+        expectFirst("Popular first page of a follower", platform.getFeedPage(bob, 10, null).getPosts(),
+                forFollowers);
+        if (platform.getVisiblePosts(carol).contains(forFollowers)) {
+            fail("Popular feed of a non-follower", "shows a post for followers");
+        } else {
+            pass("Popular feed of a non-follower");
+        }
+
+        Post dropped = alice.createPost("Dropped", PostAudience.Followers);
+        Post newest = dropped;
+        for (int i = 0; i < SocialConnect.MEMBER_FEED_LIMIT; i++) {
+            newest = alice.createPost("For followers " + i, PostAudience.Followers);
+        }
+        platform.setSortBy(PageAlgorithm.Newest);
+        if (platform.getVisiblePosts(bob).contains(dropped)) {
+            fail("Newest feed past the limit", "still shows a dropped post");
+        } else {
+            pass("Newest feed past the limit");
+        }
+        platform.deletePost(newest);
+        if (!platform.getVisiblePosts(bob).contains(dropped)) {
+            fail("Newest feed after a deletion", "did not take back the newest dropped post");
+        } else {
+            pass("Newest feed after a deletion");
+        }
+
+        System.out.println(failures == 0 ? "all feeds ok" : failures + " feeds FAILED");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void expectFirst(String scenario, List<Post> feed, Post expected) {
+        if (feed.isEmpty()) {
+            fail(scenario, "is empty");
+        } else if (feed.get(0) != expected) {
+            fail(scenario, "starts with post " + feed.get(0).getPostID() + " instead of " + expected.getPostID());
+        } else {
+            pass(scenario);
+        }
+    }
+
+    private static void pass(String scenario) {
+        System.out.println("ok    " + scenario);
+    }
+
+    private static void fail(String scenario, String problem) {
+        failures++;
+        System.out.println("FAIL  " + scenario + ": " + problem);
+    }
+}
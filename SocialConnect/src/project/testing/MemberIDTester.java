@@ -0,0 +1,100 @@
+package project.testing;
+
+import project.Post;
+import project.SocialConnect;
+import project.User;
+import project.enums.PageAlgorithm;
+import project.enums.PostAudience;
+
+/**
+ * Checks that dense user IDs cannot clash across platforms.
+ * <p>
+ * carol registers on platform two and dave on platform one, so both hold ID
+ * 0. Adding dave to platform two must be refused, before and after dave leaves
+ * platform one, and must leave carol as the only holder of ID 0 there.
+ * <p>
+ * When dave leaves platform one his upvote on erin's post must be taken back,
+ * from the count as well as the voter list, so a new dave registered under
+ * the same username gets exactly one vote.
+ * <p>
+ * Usage: {@code java project.testing.MemberIDTester}
+ */
+public class MemberIDTester {
+    private static int failures;
+
+    public static void main(String[] args) {
+        SocialConnect one = new SocialConnect("Platform1", PageAlgorithm.Newest);
+        SocialConnect two = new SocialConnect("Platform2", PageAlgorithm.Newest);
+        User carol = new User("carol123", "password");
+        User dave = new User("dave1234", "password");
+        two.addUser(carol);
+        one.addUser(dave);
+
+        expectRefused("member of another platform", two, dave, carol);
+        one.removeMember(dave.getUsername());
+        expectRefused("former member of another platform", two, dave, carol);
+
+        one.addUser(dave);
+        if (one.getUserByID(dave.getUserID()) != dave) {
+            fail("rejoining the same platform", "dave cannot be found by ID " + dave.getUserID());
+        } else {
+            pass("rejoining the same platform");
+        }
+
+        User erin = new User("erin1234", "password");
+        one.addUser(erin);
+        erin.setLoggedInto(one);
+        Post post = erin.createPost("Vote on me", PostAudience.Members);
+        post.upvote(dave.getUsername());
+        one.removeMember(dave.getUsername());
+        expectVotes("votes after the voter left", post, 0);
+        one.register(dave.getUsername(), "password");
+        if (!post.upvote(dave.getUsername())) {
+            fail("vote of a new registration", "the new dave cannot vote");
+        }
+        expectVotes("vote of a new registration", post, 1);
+
+        System.out.println(failures == 0 ? "all member IDs ok" : failures + " member ID checks FAILED");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void expectRefused(String scenario, SocialConnect platform, User user, User holder) {
+        try {
+            platform.addUser(user);
+            fail(scenario, user.getUsername() + " was added");
+            return;
+        } catch (IllegalArgumentException expected) {
+            // Refused, as it should be
+        }
+        if (platform.isMember(user.getUsername())) {
+            fail(scenario, user.getUsername() + " became a member");
+        } else if (platform.getUserByID(holder.getUserID()) != holder) {
+            fail(scenario, "ID " + holder.getUserID() + " no longer finds " + holder.getUsername());
+        } else {
+            pass(scenario);
+        }
+    }
+
+    private static void expectVotes(String scenario, Post post, int expected) {
+        if (post.getUpvoteCount() != expected) {
+            fail(scenario, post.getUpvoteCount() + " upvotes instead of " + expected);
+        } else if (post.getUpvoters().size() != expected) {
+            fail(scenario, post.getUpvoters().size() + " upvoters instead of " + expected);
+        } else if (post.getPopularityScore() != expected) {
+            fail(scenario, "score " + post.getPopularityScore() + " instead of " + expected);
+        } else {
+            pass(scenario);
+        }
+    }
+
+    private static void pass(String scenario) {
+        System.out.println("ok    " + scenario);
+    }
+
+    private static void fail(String scenario, String problem) {
+        failures++;
+        System.out.println("FAIL  " + scenario + ": " + problem);
+    }
+}
@@ -0,0 +1,173 @@
+package project.testing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import project.Post;
+import project.SocialConnect;
+import project.User;
+import project.enums.PageAlgorithm;
+import project.enums.PostAudience;
+
+/**
+ * Single-threaded microbenchmarks of the SocialConnect hot paths, run at
+ * several dataset sizes so scaling curves and regressions show up side by
+ * side.
+ * <p>
+ * Every benchmark builds its dataset once per size, runs a few untimed warmup
+ * rounds so the JIT has compiled the code under test, and then reports the
+ * mean and best time per operation over the measured rounds. Results are
+ * folded into a sink so the JIT cannot drop the work.
+ * <p>
+ * Usage: {@code java project.testing.PerformanceBenchmark [size ...]}, where
+ * each size is the number of members; the platform holds
+ * {@value #POSTS_PER_MEMBER} posts per member.
+ */
+public class PerformanceBenchmark {
+    private static final int[] DEFAULT_SIZES = { 100, 1000, 10000 };
+    private static final int POSTS_PER_MEMBER = 5;
+    private static final int FOLLOWS_PER_MEMBER = 10;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+    private static final long ROUND_NANOS = 200_000_000L;
+
+    /** One benchmarked operation; i counts the calls within a round */
+    private interface Operation {
+        long run(int i);
+    }
+
+    /** Keeps results alive so the JIT cannot eliminate the benchmarked calls */
+    private static volatile long sink;
+
+    public static void main(String[] args) {
+        int[] sizes = DEFAULT_SIZES;
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        System.out.printf("%-34s %8s %12s %12s %12s%n", "benchmark", "members", "ops", "ns/op", "best ns/op");
+        for (int size : sizes) {
+            Fixture fixture = new Fixture(size);
+            SocialConnect platform = fixture.platform;
+            User[] members = fixture.members;
+            Post[] posts = fixture.posts;
+
+            run("SocialConnect.login", size, i -> {
+                User member = members[i % members.length];
+                return platform.login(member.getUsername(), member.getPassword()) ? 1 : 0;
+            });
+
+            for (PageAlgorithm algorithm : PageAlgorithm.values()) {
+                run("getVisiblePosts(" + algorithm + ")", size, i -> {
+                    platform.setSortBy(algorithm);
+                    return platform.getVisiblePosts(members[i % members.length]).size();
+                });
+            }
+            platform.setSortBy(PageAlgorithm.Newest);
+
+            // Each (post, voter) pair votes once; later passes measure the refusal
+            run("Post.upvote", size, i -> {
+                Post post = posts[i % posts.length];
+                User voter = members[(i / posts.length + i) % members.length];
+                return post.upvote(voter.getUsername()) ? 1 : 0;
+            });
+
+            run("SocialConnect.searchPosts", size, i -> {
+                User owner = members[i % members.length];
+                return platform.searchPosts(members[(i * 31 + 7) % members.length],
+                        "benchmark " + owner.getUsername(), 20).size();
+            });
+
+            run("User.getPosts(newest)", size, i -> {
+                User owner = members[i % members.length];
+                return owner.getPosts("newest", members[(i * 31 + 7) % members.length]).size();
+            });
+        }
+        System.out.println("sink " + (sink == 42 ? "!" : "ok"));
+    }
+
+    /**
+     * Warms up and then measures one operation.
+     */
+    private static void run(String name, int size, Operation operation) {
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            round(operation);
+        }
+        long ops = 0;
+        long nanos = 0;
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            long[] result = round(operation);
+            ops += result[0];
+            nanos += result[1];
+            best = Math.min(best, (double) result[1] / result[0]);
+        }
+        System.out.printf("%-34s %8d %12d %12.1f %12.1f%n", name, size, ops, (double) nanos / ops, best);
+    }
+
+    /**
+     * Calls an operation in batches until the round time is used up.
+     *
+     * @return The number of calls and the elapsed nanoseconds
+     */
+    private static long[] round(Operation operation) {
+        long result = 0;
+        int calls = 0;
+        int batch = 1;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            for (int i = 0; i < batch; i++) {
+                result += operation.run(calls++);
+            }
+            if (batch < 1024) {
+                batch *= 2;
+            }
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < ROUND_NANOS);
+        sink += result;
+        return new long[] { calls, elapsed };
+    }
+
+    /**
+     * A platform with the given number of members, each following a few
+     * others and owning a few posts with mixed audiences.
+     */
+    private static class Fixture {
+        final SocialConnect platform;
+        final User[] members;
+        final Post[] posts;
+
+        Fixture(int size) {
+            Random random = new Random(size);
+            platform = new SocialConnect("Benchmark", PageAlgorithm.Newest);
+            members = new User[size];
+            for (int i = 0; i < size; i++) {
+                String username = String.format("member%06d", i);
+                platform.register(username, "password" + i);
+                members[i] = platform.getUser(username);
+            }
+            for (User member : members) {
+                for (int f = 0; f < Math.min(FOLLOWS_PER_MEMBER, size - 1); f++) {
+                    User followee = members[random.nextInt(size)];
+                    if (followee != member && !member.isFollowing(followee.getUsername())) {
+                        member.startFollowing(followee.getUsername());
+                    }
+                }
+            }
+            List<Post> created = new ArrayList<>();
+            for (int p = 0; p < size * POSTS_PER_MEMBER; p++) {
+                User owner = members[random.nextInt(size)];
+                platform.login(owner.getUsername(), owner.getPassword());
+                PostAudience audience = random.nextInt(4) == 0 ? PostAudience.Followers : PostAudience.Members;
+                created.add(owner.createPost("Benchmark post " + p + " by " + owner.getUsername(), audience));
+            }
+            platform.logout();
+            posts = created.toArray(new Post[0]);
+        }
+    }
+}
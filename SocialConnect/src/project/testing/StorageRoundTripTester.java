@@ -0,0 +1,195 @@
+package project.testing;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import project.Post;
+import project.ResharedPost;
+import project.SocialConnect;
+import project.User;
+import project.enums.PageAlgorithm;
+import project.enums.PostAudience;
+import project.storage.StorageEngine;
+
+/**
+ * Checks that a platform saved by the {@link StorageEngine} opens again as it
+ * was.
+ * <p>
+ * Each scenario builds a platform on storage, takes a snapshot, and opens the
+ * saved state on an empty platform. The scenarios are a reshare of a post
+ * whose owner has since been removed, snapshots taken while new members post
+ * and are reshared by older ones, and a generated workload whose posts and
+ * timelines must come back unchanged. The time to open the workload is
+ * printed, since timelines are rebuilt rather than stored.
+ * <p>
+ * Usage: {@code java project.testing.StorageRoundTripTester [members]}
+ */
+public class StorageRoundTripTester {
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        int members = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        Path root = Files.createTempDirectory("round-trip");
+        try {
+            reshareOfRemovedMember(root.resolve("removed"));
+            snapshotWhileMembersJoin(root.resolve("joining"));
+            workload(root.resolve("workload"), members);
+        } finally {
+            delete(root);
+        }
+        System.out.println(failures == 0 ? "all round trips ok" : failures + " round trips FAILED");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * alice posts, bob reshares it, alice is removed. The reshare and the post
+     * it was made from are both still logged, so both must survive a restart.
+     */
+    private static void reshareOfRemovedMember(Path dir) throws IOException {
+        SocialConnect platform = new SocialConnect("RoundTrip", PageAlgorithm.Newest);
+        StorageEngine storage = StorageEngine.open(platform, dir);
+        platform.register("alice123", "password");
+        platform.register("bob45678", "password");
+        platform.login("alice123", "password");
+        Post original = platform.getWhoIsLoggedIn().createPost("Hello from alice", PostAudience.Members);
+        platform.login("bob45678", "password");
+        Post reshare = platform.getWhoIsLoggedIn().resharePost(original, PostAudience.Members);
+        platform.logout();
+        platform.removeMember("alice123");
+        storage.snapshot();
+        storage.close();
+
+        SocialConnect reopened = new SocialConnect("RoundTrip", PageAlgorithm.Newest);
+        try {
+            StorageEngine.open(reopened, dir).close();
+        } catch (IOException | RuntimeException e) {
+            fail("reshare of a removed member's post", "cannot be opened: " + e.getMessage());
+            return;
+        }
+        Post restored = reopened.getPost(reshare.getPostID());
+        if (!(restored instanceof ResharedPost)
+                || ((ResharedPost) restored).getOriginalPost().getPostID() != original.getPostID()) {
+            fail("reshare of a removed member's post", "reshare " + reshare.getPostID() + " was not restored");
+        } else if (reopened.getPost(original.getPostID()) == null) {
+            fail("reshare of a removed member's post", "post " + original.getPostID() + " of alice123 was lost");
+        } else {
+            pass("reshare of a removed member's post");
+        }
+    }
+
+    /**
+     * Snapshots are taken while members join, post, and have their posts
+     * reshared by members who were already there, so some snapshots hold a
+     * reshare but not the post it was made from. Each snapshot is opened on
+     * its own, without the journal that would fill in the rest.
+     */
+    private static void snapshotWhileMembersJoin(Path dir) throws Exception {
+        SocialConnect platform = new SocialConnect("RoundTrip", PageAlgorithm.Newest);
+        StorageEngine storage = StorageEngine.open(platform, dir, Integer.MAX_VALUE, false);
+        platform.register("resharer1", "password");
+        User resharer = platform.getUser("resharer1");
+        Thread joiner = new Thread(() -> {
+            for (int i = 0; i < 2000; i++) {
+                String username = String.format("joiner%04d", i);
+                platform.register(username, "password");
+                User joined = platform.getUser(username);
+                joined.setLoggedInto(platform);
+                Post post = joined.createPost("First post of " + username, PostAudience.Members);
+                resharer.setLoggedInto(platform);
+                resharer.resharePost(post, PostAudience.Members);
+            }
+        }, "joiner");
+        joiner.start();
+
+        int snapshots = 0;
+        String problem = null;
+        while (joiner.isAlive() && problem == null) {
+            storage.snapshot();
+            Path copy = dir.resolveSibling("joining-" + snapshots++);
+            Files.createDirectories(copy);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "snapshot-*.bin")) {
+                for (Path file : files) {
+                    Files.copy(file, copy.resolve(file.getFileName()));
+                }
+            }
+            try {
+                StorageEngine.open(new SocialConnect("RoundTrip", PageAlgorithm.Newest), copy).close();
+            } catch (IOException | RuntimeException e) {
+                problem = "snapshot " + snapshots + " cannot be opened: " + e.getMessage();
+            }
+        }
+        joiner.join();
+        storage.close();
+        if (problem != null) {
+            fail("snapshots while members join", problem);
+        } else {
+            pass("snapshots while members join (" + snapshots + " snapshots)");
+        }
+    }
+
+    /**
+     * A generated workload must open with the same posts, and with every
+     * member's timeline holding the same posts it held before the restart.
+     */
+    private static void workload(Path dir, int members) throws IOException {
+        SocialConnect platform = new SocialConnect("RoundTrip", PageAlgorithm.Newest);
+        StorageEngine storage = StorageEngine.open(platform, dir, Integer.MAX_VALUE, false);
+        new WorkloadGenerator(1).members(members).populate(platform);
+        storage.snapshot();
+        storage.close();
+
+        SocialConnect reopened = new SocialConnect("RoundTrip", PageAlgorithm.Newest);
+        long start = System.nanoTime();
+        StorageEngine.open(reopened, dir).close();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        String name = "workload of " + members + " members, " + platform.getPosts().size() + " posts, opened in "
+                + millis + " ms";
+        if (!ids(platform.getPosts()).equals(ids(reopened.getPosts()))) {
+            fail(name, "the posts differ");
+            return;
+        }
+        for (User member : platform.getMembers()) {
+            User restored = reopened.getUser(member.getUsername());
+            if (!ids(platform.getVisiblePosts(member)).equals(ids(reopened.getVisiblePosts(restored)))) {
+                fail(name, "the timeline of " + member.getUsername() + " differs");
+                return;
+            }
+        }
+        pass(name);
+    }
+
+    private static List<Integer> ids(List<Post> posts) {
+        List<Integer> ids = new ArrayList<>(posts.size());
+        for (Post post : posts) {
+            ids.add(post.getPostID());
+        }
+        ids.sort(null);
+        return ids;
+    }
+
+    private static void pass(String scenario) {
+        System.out.println("ok    " + scenario);
+    }
+
+    private static void fail(String scenario, String problem) {
+        failures++;
+        System.out.println("FAIL  " + scenario + ": " + problem);
+    }
+
+    private static void delete(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
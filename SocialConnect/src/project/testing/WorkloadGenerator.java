@@ -0,0 +1,418 @@
+package project.testing;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import project.Post;
+import project.SocialConnect;
+import project.User;
+import project.enums.PageAlgorithm;
+import project.enums.PostAudience;
+import project.storage.StorageEngine;
+
+/**
+ * Builds large, reproducible SocialConnect datasets to benchmark and profile
+ * against.
+ * <p>
+ * The same seed and settings always produce the same members, follows, posts,
+ * reshares and votes, made in the same order. The shape follows what real
+ * networks show: the number of members a member follows, the number of
+ * followers a member has, the number of posts a member writes and the number
+ * of votes a post gets all follow a power law with the given exponent, so a
+ * few members and posts account for much of the activity. Post text is drawn
+ * from a fixed vocabulary whose word frequencies follow Zipf's law, which
+ * gives keyword search realistic posting list lengths.
+ * <p>
+ * The generator drives the platform through its public API, so every index,
+ * timeline and listener is maintained exactly as it is in use. Note that a
+ * post for all members is pushed into every member's timeline, so building a
+ * dataset costs time in proportion to members times such posts.
+ * <p>
+ * Usage: {@code java project.testing.WorkloadGenerator members [seed [directory]]}.
+ * With a directory, the dataset is also written there as a
+ * {@link StorageEngine} snapshot that the platform can be opened from.
+ */
+public class WorkloadGenerator {
+    /** Number of distinct words post text is drawn from */
+    private static final int VOCABULARY_SIZE = 5000;
+
+    private static final String[] SYLLABLES = { "ka", "lo", "mi", "ne", "ru", "sa", "ti", "vo", "an", "el", "or",
+            "ub", "ship", "tra", "gen", "dor", "pha", "quin", "zel", "bro" };
+
+    private final long seed;
+    private int members = 1000;
+    private double followsPerMember = 20;
+    private double postsPerMember = 5;
+    private double votesPerPost = 4;
+    private double reshareShare = 0.1;
+    private double followersOnlyShare = 0.25;
+    private double exponent = 2.2;
+
+    /**
+     * Summary of a generated dataset.
+     */
+    public static final class Summary {
+        private final int members;
+        private final long follows;
+        private final long posts;
+        private final long reshares;
+        private final long votes;
+
+        private Summary(int members, long follows, long posts, long reshares, long votes) {
+            this.members = members;
+            this.follows = follows;
+            this.posts = posts;
+            this.reshares = reshares;
+            this.votes = votes;
+        }
+
+        /** @return The number of members registered */
+        public int getMembers() {
+            return members;
+        }
+
+        /** @return The number of follow edges made */
+        public long getFollows() {
+            return follows;
+        }
+
+        /** @return The number of posts made, including reshares */
+        public long getPosts() {
+            return posts;
+        }
+
+        /** @return The number of reshares made */
+        public long getReshares() {
+            return reshares;
+        }
+
+        /** @return The number of votes cast */
+        public long getVotes() {
+            return votes;
+        }
+
+        @Override
+        public String toString() {
+            return members + " members, " + follows + " follows, " + posts + " posts (" + reshares + " reshares), "
+                    + votes + " votes";
+        }
+    }
+
+    /**
+     * Creates a generator with the default settings: 1000 members who each
+     * follow 20 members, write 5 posts and whose posts get 4 votes on average.
+     *
+     * @param seed The seed all choices are derived from
+     */
+    public WorkloadGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Sets the number of members to register.
+     *
+     * @param members The number of members
+     * @return This generator
+     * @throws IllegalArgumentException if members is less than 2
+     */
+    public WorkloadGenerator members(int members) {
+        if (members < 2) {
+            throw new IllegalArgumentException("A workload needs at least two members");
+        }
+        this.members = members;
+        return this;
+    }
+
+    /**
+     * Sets the mean number of members each member follows.
+     *
+     * @param followsPerMember The mean out-degree of the follow graph
+     * @return This generator
+     * @throws IllegalArgumentException if the mean is negative
+     */
+    public WorkloadGenerator followsPerMember(double followsPerMember) {
+        this.followsPerMember = requireNonNegative(followsPerMember);
+        return this;
+    }
+
+    /**
+     * Sets the mean number of posts, including reshares, per member.
+     *
+     * @param postsPerMember The mean number of posts per member
+     * @return This generator
+     * @throws IllegalArgumentException if the mean is negative
+     */
+    public WorkloadGenerator postsPerMember(double postsPerMember) {
+        this.postsPerMember = requireNonNegative(postsPerMember);
+        return this;
+    }
+
+    /**
+     * Sets the mean number of votes cast on each post.
+     *
+     * @param votesPerPost The mean number of votes per post
+     * @return This generator
+     * @throws IllegalArgumentException if the mean is negative
+     */
+    public WorkloadGenerator votesPerPost(double votesPerPost) {
+        this.votesPerPost = requireNonNegative(votesPerPost);
+        return this;
+    }
+
+    /**
+     * Sets the share of posts that reshare an earlier post instead of being
+     * new.
+     *
+     * @param reshareShare A share between 0 and 1
+     * @return This generator
+     * @throws IllegalArgumentException if the share is not between 0 and 1
+     */
+    public WorkloadGenerator reshareShare(double reshareShare) {
+        this.reshareShare = requireShare(reshareShare);
+        return this;
+    }
+
+    /**
+     * Sets the share of new posts that only the owner's followers can see.
+     *
+     * @param followersOnlyShare A share between 0 and 1
+     * @return This generator
+     * @throws IllegalArgumentException if the share is not between 0 and 1
+     */
+    public WorkloadGenerator followersOnlyShare(double followersOnlyShare) {
+        this.followersOnlyShare = requireShare(followersOnlyShare);
+        return this;
+    }
+
+    /**
+     * Sets the exponent of the power laws the degrees and activity follow.
+     * Real social networks mostly fall between 2 and 3.
+     *
+     * @param exponent The power law exponent
+     * @return This generator
+     * @throws IllegalArgumentException if the exponent is not above 2, where
+     *                                  the means would be unbounded
+     */
+    public WorkloadGenerator exponent(double exponent) {
+        if (!(exponent > 2)) {
+            throw new IllegalArgumentException("The exponent must be greater than 2");
+        }
+        this.exponent = exponent;
+        return this;
+    }
+
+    /**
+     * Registers the members and makes the follows, posts, reshares and votes
+     * of the workload on a platform. The platform is left logged out.
+     *
+     * @param platform A platform without members
+     * @return A summary of what was made
+     * @throws IllegalArgumentException if the platform already has members
+     */
+    public Summary populate(SocialConnect platform) {
+        if (!platform.getMembers().isEmpty()) {
+            throw new IllegalArgumentException("The platform already has members");
+        }
+        Random random = new Random(seed);
+        User[] users = new User[members];
+        String width = "%0" + Math.max(6, Integer.toString(members - 1).length()) + "d";
+        for (int i = 0; i < members; i++) {
+            String username = String.format("member" + width, i);
+            platform.register(username, "password" + i);
+            users[i] = platform.getUser(username);
+        }
+
+        // Out-degrees are drawn per member; followees by popularity rank
+        PowerLaw followed = new PowerLaw(random, members, exponent);
+        long follows = 0;
+        for (User member : users) {
+            long wanted = Math.min(members - 1, followed.degree(followsPerMember));
+            long made = 0;
+            for (long attempt = 0; attempt < 2 * wanted && made < wanted; attempt++) {
+                User followee = users[followed.next()];
+                if (followee != member && !member.isFollowing(followee.getUsername())) {
+                    member.startFollowing(followee.getUsername());
+                    made++;
+                }
+            }
+            follows += made;
+        }
+
+        String[] vocabulary = vocabulary(random);
+        PowerLaw words = new PowerLaw(random, vocabulary.length, exponent);
+        PowerLaw authors = new PowerLaw(random, members, exponent);
+        long total = Math.round(members * postsPerMember);
+        List<Post> posts = new ArrayList<>();
+        long reshares = 0;
+        for (long p = 0; p < total; p++) {
+            User author = users[authors.next()];
+            platform.login(author.getUsername(), author.getPassword());
+            Post original = posts.isEmpty() || random.nextDouble() >= reshareShare ? null
+                    : posts.get(random.nextInt(posts.size()));
+            if (original != null && original.getAudience() == PostAudience.Members
+                    && !original.getOwner().equals(author.getUsername())) {
+                posts.add(author.resharePost(original, PostAudience.Members));
+                reshares++;
+            } else {
+                PostAudience audience = random.nextDouble() < followersOnlyShare ? PostAudience.Followers
+                        : PostAudience.Members;
+                posts.add(author.createPost(text(random, vocabulary, words), audience));
+            }
+        }
+        platform.logout();
+
+        // Voters are uniform; how many votes a post gets is the skewed part
+        PowerLaw votes = new PowerLaw(random, members, exponent);
+        long cast = 0;
+        for (Post post : posts) {
+            long wanted = Math.min(members - 1, votes.degree(votesPerPost));
+            for (long v = 0; v < wanted; v++) {
+                String voter = users[random.nextInt(members)].getUsername();
+                if (random.nextInt(5) == 0 ? post.downvote(voter) : post.upvote(voter)) {
+                    cast++;
+                }
+            }
+        }
+        return new Summary(members, follows, posts.size(), reshares, cast);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 3) {
+            System.err.println("Usage: java project.testing.WorkloadGenerator members [seed [directory]]");
+            System.exit(2);
+        }
+        int members = Integer.parseInt(args[0]);
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+        WorkloadGenerator generator = new WorkloadGenerator(seed).members(members);
+
+        SocialConnect platform = new SocialConnect("Workload", PageAlgorithm.Newest);
+        StorageEngine storage = null;
+        if (args.length > 2) {
+            // No automatic snapshots while populating; one is written at the end
+            Path dir = Paths.get(args[2]);
+            storage = StorageEngine.open(platform, dir, Integer.MAX_VALUE, false);
+        }
+        long start = System.nanoTime();
+        Summary summary = generator.populate(platform);
+        long built = System.nanoTime();
+        System.out.printf("%s in %d ms%n", summary, (built - start) / 1_000_000);
+        if (storage != null) {
+            storage.snapshot();
+            storage.close();
+            System.out.printf("snapshot written to %s in %d ms%n", args[2], (System.nanoTime() - built) / 1_000_000);
+        }
+        Runtime runtime = Runtime.getRuntime();
+        System.out.print(platform.getMetrics().dump());
+        System.out.printf("heap in use %d MB%n", (runtime.totalMemory() - runtime.freeMemory()) >> 20);
+    }
+
+    /**
+     * Makes the words post text is drawn from, most frequent first.
+     */
+    private static String[] vocabulary(Random random) {
+        String[] vocabulary = new String[VOCABULARY_SIZE];
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < vocabulary.length;) {
+            StringBuilder word = new StringBuilder();
+            int syllables = 1 + random.nextInt(3);
+            for (int s = 0; s < syllables; s++) {
+                word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            word.append(i % 10);
+            if (seen.add(word.toString())) {
+                vocabulary[i++] = word.toString();
+            }
+        }
+        return vocabulary;
+    }
+
+    /**
+     * Makes the text of a post of 3 to 20 words.
+     */
+    private static String text(Random random, String[] vocabulary, PowerLaw words) {
+        StringBuilder text = new StringBuilder();
+        int length = 3 + random.nextInt(18);
+        for (int w = 0; w < length; w++) {
+            if (w > 0) {
+                text.append(' ');
+            }
+            text.append(vocabulary[words.next()]);
+        }
+        return text.toString();
+    }
+
+    private static double requireNonNegative(double mean) {
+        if (!(mean >= 0)) {
+            throw new IllegalArgumentException("The mean cannot be negative");
+        }
+        return mean;
+    }
+
+    private static double requireShare(double share) {
+        if (!(share >= 0 && share <= 1)) {
+            throw new IllegalArgumentException("The share must be between 0 and 1");
+        }
+        return share;
+    }
+
+    /**
+     * Draws from two power laws with the same exponent: degrees, from a
+     * discrete Pareto distribution with a given mean, and ranks, from a Zipf
+     * distribution whose frequencies make the in-degrees follow that power
+     * law. Ranks are mapped through a fixed random permutation, so the most
+     * popular items are spread over the whole range instead of being the
+     * first ones made.
+     */
+    private static final class PowerLaw {
+        private final Random random;
+        private final int[] byRank;
+        private final double tail;
+        private final double rankExponent;
+
+        PowerLaw(Random random, int size, double exponent) {
+            this.random = random;
+            this.tail = exponent - 1;
+            this.rankExponent = 1 / tail;
+            this.byRank = new int[size];
+            for (int i = 0; i < size; i++) {
+                byRank[i] = i;
+            }
+            for (int i = size - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = byRank[i];
+                byRank[i] = byRank[j];
+                byRank[j] = swap;
+            }
+        }
+
+        /**
+         * Returns a degree with the given mean.
+         */
+        long degree(double mean) {
+            if (mean == 0) {
+                return 0;
+            }
+            double least = mean * (tail - 1) / tail;
+            double u = 1 - random.nextDouble(); // in (0, 1]
+            double degree = least / Math.pow(u, 1 / tail);
+            return degree >= Long.MAX_VALUE ? Long.MAX_VALUE : Math.round(degree);
+        }
+
+        /**
+         * Returns an item, most often one of the highest ranked.
+         */
+        int next() {
+            int size = byRank.length;
+            double u = random.nextDouble();
+            double x = Math.pow((Math.pow(size + 1, 1 - rankExponent) - 1) * u + 1, 1 / (1 - rankExponent));
+            int rank = (int) Math.min(size - 1, Math.max(0, (long) x - 1));
+            return byRank[rank];
+        }
+    }
+}
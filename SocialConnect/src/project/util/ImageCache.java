@@ -0,0 +1,335 @@
+package project.util;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import javax.imageio.ImageIO;
+
+import project.metrics.OperationMetrics;
+
+/**
+ * A memory-bounded cache of decoded images, shared by every image post.
+ * <p>
+ * Images are decoded on a small pool of background threads, so neither post
+ * creation nor the Swing event dispatch thread ever waits on disk or on the
+ * decoder. Decoded images are kept in least-recently-used order, and the
+ * oldest ones are evicted once their total size exceeds the byte budget. Two
+ * requests for the same path while it is still being decoded share a single
+ * decode.
+ * <p>
+ * Scaled renditions of an image are cached under the same budget, keyed by
+ * path and width bucket, so a feed that is resized or scrolled back and forth
+ * never scales the same image to the same size twice.
+ * <p>
+ * Every decode, by any cache, is measured in {@link #getDecodeMetrics()}.
+ * <p>
+ * This class is thread-safe.
+ */
+public class ImageCache {
+    /** Byte budget of the shared cache */
+    public static final long DEFAULT_CAPACITY_BYTES = 64L * 1024 * 1024;
+
+    /** Granularity of rendition widths, in pixels */
+    public static final int WIDTH_BUCKET = 50;
+
+    /** Number of background decoder threads of the shared cache */
+    private static final int DECODER_THREADS = 2;
+
+    /** Decodes by every cache; failures are missing or unreadable files */
+    private static final OperationMetrics DECODES = new OperationMetrics("imageDecode");
+
+    private static final ImageCache SHARED = new ImageCache(DEFAULT_CAPACITY_BYTES, newDecoderPool(DECODER_THREADS));
+
+    /** Maximum total size of the cached images and renditions, in bytes */
+    private final long capacityBytes;
+
+    /** Runs the decoding */
+    private final ExecutorService decoder;
+
+    /** Decoded images and renditions by key, least recently used first; guarded by this */
+    private final LinkedHashMap<String, BufferedImage> images;
+
+    /** Decodes and scalings that have not finished yet, by key */
+    private final ConcurrentHashMap<String, CompletableFuture<BufferedImage>> pending;
+
+    /** Current total size of the cached images, in bytes; guarded by this */
+    private long sizeBytes;
+
+    /**
+     * Creates a cache with the given byte budget.
+     *
+     * @param capacityBytes The maximum total size of the cached images
+     * @param decoder       The executor that decodes images
+     * @throws IllegalArgumentException if capacityBytes is not positive
+     */
+    public ImageCache(long capacityBytes, ExecutorService decoder) {
+        if (capacityBytes <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive");
+        }
+        this.capacityBytes = capacityBytes;
+        this.decoder = decoder;
+        this.images = new LinkedHashMap<>(16, 0.75f, true);
+        this.pending = new ConcurrentHashMap<>();
+        this.sizeBytes = 0;
+    }
+
+    /**
+     * Returns the cache shared by all image posts.
+     *
+     * @return The shared cache
+     */
+    public static ImageCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the decoded image for a path, decoding it in the background if it
+     * is not cached. The future completes exceptionally with an
+     * {@link UncheckedIOException} if the file cannot be read or is not an
+     * image.
+     *
+     * @param path The path to the image file
+     * @return A future for the decoded image
+     */
+    public CompletableFuture<BufferedImage> load(String path) {
+        return cached(path, key -> CompletableFuture.supplyAsync(() -> decode(key), decoder));
+    }
+
+    /**
+     * Returns a copy of an image scaled to fit a width and a maximum height,
+     * keeping its aspect ratio. The width is rounded down to a multiple of
+     * {@value #WIDTH_BUCKET} pixels, so every width in a bucket shares one
+     * rendition, and each rendition is scaled only once and then cached like a
+     * decoded image. Decoding and scaling both run in the background.
+     *
+     * @param path      The path to the image file
+     * @param width     The width available for the image
+     * @param maxHeight The maximum height of the rendition
+     * @return A future for the scaled image
+     */
+    public CompletableFuture<BufferedImage> loadRendition(String path, int width, int maxHeight) {
+        int bucket = bucket(width);
+        return cached(renditionKey(path, bucket, maxHeight),
+                key -> load(path).thenApplyAsync(image -> scale(image, bucket, maxHeight), decoder));
+    }
+
+    /**
+     * Returns a rendition if it is already cached.
+     *
+     * @param path      The path to the image file
+     * @param width     The width available for the image
+     * @param maxHeight The maximum height of the rendition
+     * @return The scaled image, or null if it is not cached
+     * @see #loadRendition(String, int, int)
+     */
+    public BufferedImage getRenditionIfPresent(String path, int width, int maxHeight) {
+        return getIfPresent(renditionKey(path, bucket(width), maxHeight));
+    }
+
+    /**
+     * Rounds a width down to its rendition bucket.
+     *
+     * @param width The width in pixels
+     * @return The bucket width, at least {@value #WIDTH_BUCKET}
+     */
+    public static int bucket(int width) {
+        return Math.max(WIDTH_BUCKET, width / WIDTH_BUCKET * WIDTH_BUCKET);
+    }
+
+    /**
+     * Returns the cached value for a key, or starts producing it. Concurrent
+     * requests for a key that is still being produced share one future.
+     */
+    private CompletableFuture<BufferedImage> cached(String key,
+            Function<String, CompletableFuture<BufferedImage>> producer) {
+        BufferedImage hit = getIfPresent(key);
+        if (hit != null) {
+            return CompletableFuture.completedFuture(hit);
+        }
+        CompletableFuture<BufferedImage> future = new CompletableFuture<>();
+        CompletableFuture<BufferedImage> inFlight = pending.putIfAbsent(key, future);
+        if (inFlight != null) {
+            return inFlight;
+        }
+        producer.apply(key).whenComplete((image, error) -> {
+            if (image != null) {
+                put(key, image);
+            }
+            pending.remove(key, future);
+            if (error != null) {
+                future.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause()
+                        : error);
+            } else {
+                future.complete(image);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Returns the decoded image for a path if it is already cached.
+     *
+     * @param path The path to the image file
+     * @return The image, or null if it is not cached
+     */
+    public synchronized BufferedImage getIfPresent(String path) {
+        return images.get(path);
+    }
+
+    /**
+     * Drops the decoded image for a path, for example after the file changed.
+     *
+     * @param path The path to the image file
+     */
+    public synchronized void invalidate(String path) {
+        BufferedImage removed = images.remove(path);
+        if (removed != null) {
+            sizeBytes -= sizeOf(removed);
+        }
+    }
+
+    /**
+     * Returns the total size of the cached images.
+     *
+     * @return The size in bytes
+     */
+    public synchronized long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    /**
+     * Returns the byte budget of this cache.
+     *
+     * @return The capacity in bytes
+     */
+    public long getCapacityBytes() {
+        return capacityBytes;
+    }
+
+    /**
+     * Estimates the heap used by a decoded image.
+     *
+     * @param image The image
+     * @return The approximate size in bytes
+     */
+    public static long sizeOf(BufferedImage image) {
+        int bytesPerPixel = Math.max(1, (image.getColorModel().getPixelSize() + 7) / 8);
+        return (long) image.getWidth() * image.getHeight() * bytesPerPixel;
+    }
+
+    private synchronized void put(String path, BufferedImage image) {
+        long size = sizeOf(image);
+        if (size > capacityBytes) {
+            return; // Would evict everything else; let the caller keep it alone
+        }
+        BufferedImage previous = images.put(path, image);
+        if (previous != null) {
+            sizeBytes -= sizeOf(previous);
+        }
+        sizeBytes += size;
+        Iterator<Map.Entry<String, BufferedImage>> eldest = images.entrySet().iterator();
+        while (sizeBytes > capacityBytes && eldest.hasNext()) {
+            BufferedImage evicted = eldest.next().getValue();
+            if (evicted != image) {
+                sizeBytes -= sizeOf(evicted);
+                eldest.remove();
+            }
+        }
+    }
+
+    private static String renditionKey(String path, int bucket, int maxHeight) {
+        return path + "#" + bucket + "x" + maxHeight;
+    }
+
+    /**
+     * Scales an image to a width, or to a maximum height if it would be taller.
+     *
+     * @param image     The full-size image
+     * @param width     The target width
+     * @param maxHeight The maximum height
+     * @return The scaled copy
+     */
+    static BufferedImage scale(BufferedImage image, int width, int maxHeight) {
+        double scale = (double) width / image.getWidth();
+        int height = (int) (image.getHeight() * scale);
+        if (height > maxHeight) {
+            scale = (double) maxHeight / image.getHeight();
+            width = (int) (image.getWidth() * scale);
+            height = maxHeight;
+        }
+        width = Math.max(1, width);
+        height = Math.max(1, height);
+        BufferedImage scaled = new BufferedImage(width, height,
+                image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+
+    /**
+     * Returns the metrics of the image decodes of all caches.
+     *
+     * @return The decode metrics
+     */
+    public static OperationMetrics getDecodeMetrics() {
+        return DECODES;
+    }
+
+    private static BufferedImage decode(String path) {
+        long start = DECODES.start();
+        boolean decoded = false;
+        try {
+            File file = new File(path);
+            if (!file.exists()) {
+                throw new IOException("Image file not found: " + path);
+            }
+            BufferedImage image = ImageIO.read(file);
+            if (image == null) {
+                throw new IOException("Not a supported image: " + path);
+            }
+            decoded = true;
+            return image;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            DECODES.stop(start, decoded);
+        }
+    }
+
+    /**
+     * Creates a pool of daemon threads, so pending decodes never keep the
+     * application alive.
+     *
+     * @param threads The number of threads
+     * @return The executor
+     */
+    public static ExecutorService newDecoderPool(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "image-decoder-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+    }
+}
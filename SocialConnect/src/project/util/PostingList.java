@@ -0,0 +1,263 @@
+package project.util;
+
+import java.util.Arrays;
+
+/**
+ * A sorted list of non-negative integer IDs, stored compactly for use in an
+ * inverted index.
+ * <p>
+ * IDs are kept in blocks of {@value #BLOCK} values. The first ID of each block
+ * is held uncompressed in a skip table together with the block's byte offset;
+ * the remaining IDs of the block are stored as variable-length deltas from
+ * their predecessor, so IDs that are close together take one or two bytes
+ * each. A {@link Cursor} can use the skip table to jump over whole blocks,
+ * which makes intersecting a short list with a long one cheap.
+ * <p>
+ * Appending an ID larger than every ID in the list costs O(1). Adding a
+ * smaller ID rebuilds the list. This class is not thread-safe.
+ */
+public class PostingList {
+    /** Number of IDs per block */
+    static final int BLOCK = 128;
+
+    /** Deltas of all blocks, back to back */
+    private byte[] data;
+
+    /** Number of bytes of data in use */
+    private int length;
+
+    /** First ID of each block */
+    private int[] blockFirst;
+
+    /** Offset in data of the first delta of each block */
+    private int[] blockOffset;
+
+    /** Number of blocks in use */
+    private int blocks;
+
+    /** Number of IDs in the list */
+    private int size;
+
+    /** Largest ID in the list, or -1 if it is empty */
+    private int last;
+
+    /**
+     * Creates an empty list.
+     */
+    public PostingList() {
+        this.data = new byte[8];
+        this.blockFirst = new int[1];
+        this.blockOffset = new int[1];
+        this.last = -1;
+    }
+
+    /**
+     * Adds an ID to the list.
+     *
+     * @param id The ID to add
+     * @return true if the ID was not already in the list
+     * @throws IllegalArgumentException if id is negative
+     */
+    public boolean add(int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("IDs cannot be negative");
+        }
+        if (id > last) {
+            append(id);
+            return true;
+        }
+        int[] ids = toArray();
+        int at = Arrays.binarySearch(ids, id);
+        if (at >= 0) {
+            return false;
+        }
+        at = -at - 1;
+        int[] grown = new int[ids.length + 1];
+        System.arraycopy(ids, 0, grown, 0, at);
+        grown[at] = id;
+        System.arraycopy(ids, at, grown, at + 1, ids.length - at);
+        rebuild(grown, grown.length);
+        return true;
+    }
+
+    /**
+     * Removes every ID for which a set contains it.
+     *
+     * @param removed The IDs to remove
+     * @return The number of IDs removed
+     */
+    public int removeAll(VoteBitmap removed) {
+        int[] ids = toArray();
+        int kept = 0;
+        for (int id : ids) {
+            if (!removed.contains(id)) {
+                ids[kept++] = id;
+            }
+        }
+        if (kept < ids.length) {
+            rebuild(ids, kept);
+        }
+        return ids.length - kept;
+    }
+
+    /**
+     * Returns the number of IDs in the list.
+     *
+     * @return The size of the list
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of bytes used to store the IDs.
+     *
+     * @return The encoded size in bytes
+     */
+    public int sizeInBytes() {
+        return length + blocks * 2 * Integer.BYTES;
+    }
+
+    /**
+     * Decodes the whole list.
+     *
+     * @return The IDs in ascending order
+     */
+    public int[] toArray() {
+        int[] ids = new int[size];
+        Cursor cursor = cursor();
+        for (int i = 0; i < size; i++) {
+            ids[i] = cursor.next();
+        }
+        return ids;
+    }
+
+    /**
+     * Returns a cursor positioned before the first ID.
+     *
+     * @return A new cursor
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Reads a list in ascending order. A cursor must not be used after the
+     * list has been changed.
+     */
+    public class Cursor {
+        private int block = -1;
+        private int indexInBlock;
+        private int position;
+        private int current = -1;
+        private int read;
+
+        /**
+         * Checks if there is another ID.
+         *
+         * @return true if {@link #next()} can be called
+         */
+        public boolean hasNext() {
+            return read < size;
+        }
+
+        /**
+         * Returns the next ID.
+         *
+         * @return The next ID in ascending order
+         */
+        public int next() {
+            if (block < 0 || indexInBlock == BLOCK) {
+                enterBlock(block + 1);
+            } else {
+                current += readDelta();
+                indexInBlock++;
+            }
+            read++;
+            return current;
+        }
+
+        /**
+         * Moves to the first ID that is at least a target, skipping whole
+         * blocks where possible.
+         *
+         * @param target The ID to look for
+         * @return The first ID at least target, or -1 if there is none
+         */
+        public int advanceTo(int target) {
+            if (block >= 0 && current >= target) {
+                return current;
+            }
+            // Jump to the last block that starts at or before the target
+            int to = Arrays.binarySearch(blockFirst, 0, blocks, target);
+            to = to >= 0 ? to : -to - 2;
+            if (to > block) {
+                enterBlock(to);
+                read = to * BLOCK + 1;
+            }
+            while (current < target) {
+                if (!hasNext()) {
+                    return -1;
+                }
+                next();
+            }
+            return current;
+        }
+
+        private void enterBlock(int index) {
+            block = index;
+            indexInBlock = 1;
+            position = blockOffset[index];
+            current = blockFirst[index];
+        }
+
+        private int readDelta() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+
+    private void append(int id) {
+        if (size % BLOCK == 0) {
+            if (blocks == blockFirst.length) {
+                blockFirst = Arrays.copyOf(blockFirst, blocks * 2);
+                blockOffset = Arrays.copyOf(blockOffset, blocks * 2);
+            }
+            blockFirst[blocks] = id;
+            blockOffset[blocks] = length;
+            blocks++;
+        } else {
+            writeDelta(id - last);
+        }
+        last = id;
+        size++;
+    }
+
+    private void writeDelta(int delta) {
+        if (length + 5 > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, length + 5));
+        }
+        while ((delta & ~0x7F) != 0) {
+            data[length++] = (byte) ((delta & 0x7F) | 0x80);
+            delta >>>= 7;
+        }
+        data[length++] = (byte) delta;
+    }
+
+    private void rebuild(int[] ids, int count) {
+        length = 0;
+        blocks = 0;
+        size = 0;
+        last = -1;
+        for (int i = 0; i < count; i++) {
+            append(ids[i]);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package project.util;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import javax.swing.ImageIcon;
+import javax.swing.JLabel;
+import javax.swing.SwingUtilities;
+
+/**
+ * A label that shows an image file scaled to the width it is given.
+ * <p>
+ * The label never scales on the event dispatch thread. It asks the shared
+ * {@link ImageCache} for a rendition in the width bucket of its current
+ * width, shows it straight away if it is cached, and otherwise swaps it in
+ * once it has been produced in the background. Resizing within one bucket
+ * does nothing at all.
+ * <p>
+ * The label either tracks its own width, for layouts that stretch it, or
+ * keeps a fixed width, for layouts that size it from its icon. The class is
+ * final because a fixed-width label starts loading in its constructor.
+ */
+public final class RenditionLabel extends JLabel {
+    private static final long serialVersionUID = 1L;
+
+    private final String path;
+    private final int maxHeight;
+    private final boolean tracksWidth;
+
+    /** Width bucket of the icon on display, or 0 if none */
+    private int shownBucket;
+
+    /** Width bucket most recently asked for, or 0 if none */
+    private int wantedBucket;
+
+    /**
+     * Creates a label whose image follows the width the layout gives it.
+     *
+     * @param path      The path to the image file
+     * @param maxHeight The maximum height of the image
+     */
+    public RenditionLabel(String path, int maxHeight) {
+        this(path, 0, maxHeight);
+    }
+
+    /**
+     * Creates a label that shows the image at a fixed width.
+     *
+     * @param path      The path to the image file
+     * @param width     The width of the image, or 0 to follow the label width
+     * @param maxHeight The maximum height of the image
+     */
+    public RenditionLabel(String path, int width, int maxHeight) {
+        super("Loading image...");
+        this.path = path;
+        this.maxHeight = maxHeight;
+        this.tracksWidth = width <= 0;
+        if (!tracksWidth) {
+            showWidth(width);
+        }
+    }
+
+    @Override
+    public void setBounds(int x, int y, int width, int height) {
+        super.setBounds(x, y, width, height);
+        if (tracksWidth && width > 0) {
+            showWidth(width);
+        }
+    }
+
+    /**
+     * Shows the rendition for a width, fetching it if needed. Must be called on
+     * the event dispatch thread.
+     *
+     * @param width The available width
+     */
+    public void showWidth(int width) {
+        int bucket = ImageCache.bucket(width);
+        if (bucket == wantedBucket) {
+            return;
+        }
+        wantedBucket = bucket;
+        if (bucket == shownBucket) {
+            return;
+        }
+        ImageCache cache = ImageCache.shared();
+        BufferedImage rendition = cache.getRenditionIfPresent(path, bucket, maxHeight);
+        if (rendition != null) {
+            show(bucket, rendition);
+            return;
+        }
+        cache.loadRendition(path, bucket, maxHeight).whenComplete((image, error) -> SwingUtilities.invokeLater(() -> {
+            if (bucket != wantedBucket) {
+                return; // Resized again in the meantime
+            }
+            if (image != null) {
+                show(bucket, image);
+            } else if (shownBucket == 0) {
+                wantedBucket = 0;
+                setText("Error loading image");
+                setForeground(Color.RED);
+            }
+        }));
+    }
+
+    private void show(int bucket, BufferedImage rendition) {
+        shownBucket = bucket;
+        setText(null);
+        setIcon(new ImageIcon(rendition));
+        revalidate();
+        repaint();
+    }
+}
@@ -0,0 +1,301 @@
+package project.util;
+
+import java.util.Arrays;
+
+/**
+ * A compressed set of non-negative integer IDs, laid out like a roaring bitmap.
+ * <p>
+ * IDs are split into a 16-bit high part, which selects a container, and a
+ * 16-bit low part stored inside it. A container holds its low parts in a
+ * sorted array while it is sparse and switches to a 65536-bit bitmap once it
+ * holds more than {@value #ARRAY_LIMIT} values. Dense user IDs therefore cost
+ * at most two bytes per member, and membership checks are a binary search over
+ * the containers plus a constant-time lookup.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class VoteBitmap {
+    /** Largest number of values a container keeps as a sorted array */
+    static final int ARRAY_LIMIT = 4096;
+
+    /** High 16 bits of each container, sorted */
+    private char[] keys;
+
+    /** The containers, parallel to keys */
+    private Container[] containers;
+
+    /** Number of containers in use */
+    private int containerCount;
+
+    /** Number of IDs in the set */
+    private int cardinality;
+
+    /**
+     * Creates an empty set.
+     */
+    public VoteBitmap() {
+        this.keys = new char[4];
+        this.containers = new Container[4];
+        this.containerCount = 0;
+        this.cardinality = 0;
+    }
+
+    /**
+     * Adds an ID to the set.
+     *
+     * @param id The ID to add
+     * @return true if the ID was not already in the set
+     * @throws IllegalArgumentException if id is negative
+     */
+    public boolean add(int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("IDs must not be negative");
+        }
+        char high = (char) (id >>> 16);
+        int index = Arrays.binarySearch(keys, 0, containerCount, high);
+        if (index < 0) {
+            index = -index - 1;
+            insertContainer(index, high, new ArrayContainer());
+        }
+        Container container = containers[index];
+        int before = container.cardinality();
+        containers[index] = container.add((char) id);
+        boolean added = containers[index].cardinality() > before;
+        if (added) {
+            cardinality++;
+        }
+        return added;
+    }
+
+    /**
+     * Removes an ID from the set.
+     *
+     * @param id The ID to remove
+     * @return true if the ID was in the set
+     */
+    public boolean remove(int id) {
+        if (id < 0) {
+            return false;
+        }
+        int index = Arrays.binarySearch(keys, 0, containerCount, (char) (id >>> 16));
+        if (index < 0) {
+            return false;
+        }
+        Container container = containers[index];
+        int before = container.cardinality();
+        container = container.remove((char) id);
+        if (container.cardinality() == before) {
+            return false;
+        }
+        cardinality--;
+        if (container.cardinality() == 0) {
+            removeContainer(index);
+        } else {
+            containers[index] = container;
+        }
+        return true;
+    }
+
+    /**
+     * Checks if an ID is in the set.
+     *
+     * @param id The ID to check
+     * @return true if the ID is in the set
+     */
+    public boolean contains(int id) {
+        if (id < 0) {
+            return false;
+        }
+        int index = Arrays.binarySearch(keys, 0, containerCount, (char) (id >>> 16));
+        return index >= 0 && containers[index].contains((char) id);
+    }
+
+    /**
+     * Returns the number of IDs in the set.
+     *
+     * @return The cardinality of the set
+     */
+    public int cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * Removes every ID from the set.
+     */
+    public void clear() {
+        Arrays.fill(containers, 0, containerCount, null);
+        containerCount = 0;
+        cardinality = 0;
+    }
+
+    /**
+     * Returns the IDs in the set in ascending order.
+     *
+     * @return A new array with every ID in the set
+     */
+    public int[] toArray() {
+        int[] result = new int[cardinality];
+        int position = 0;
+        for (int i = 0; i < containerCount; i++) {
+            position = containers[i].copyTo(result, position, keys[i] << 16);
+        }
+        return result;
+    }
+
+    private void insertContainer(int index, char high, Container container) {
+        if (containerCount == keys.length) {
+            keys = Arrays.copyOf(keys, containerCount * 2);
+            containers = Arrays.copyOf(containers, containerCount * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, containerCount - index);
+        System.arraycopy(containers, index, containers, index + 1, containerCount - index);
+        keys[index] = high;
+        containers[index] = container;
+        containerCount++;
+    }
+
+    private void removeContainer(int index) {
+        System.arraycopy(keys, index + 1, keys, index, containerCount - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, containerCount - index - 1);
+        containerCount--;
+        containers[containerCount] = null;
+    }
+
+    /**
+     * Holds the low 16 bits of the IDs that share one high part. Mutators return
+     * the container to use afterwards, which may be a converted copy.
+     */
+    private abstract static class Container {
+        abstract boolean contains(char low);
+
+        abstract Container add(char low);
+
+        abstract Container remove(char low);
+
+        abstract int cardinality();
+
+        abstract int copyTo(int[] target, int position, int base);
+    }
+
+    /** Sparse container: the low parts in a sorted array */
+    private static final class ArrayContainer extends Container {
+        private char[] values = new char[4];
+        private int size = 0;
+
+        @Override
+        boolean contains(char low) {
+            return Arrays.binarySearch(values, 0, size, low) >= 0;
+        }
+
+        @Override
+        Container add(char low) {
+            int index = Arrays.binarySearch(values, 0, size, low);
+            if (index >= 0) {
+                return this;
+            }
+            if (size == ARRAY_LIMIT) {
+                return toBitmap().add(low);
+            }
+            index = -index - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(size * 2, ARRAY_LIMIT));
+            }
+            System.arraycopy(values, index, values, index + 1, size - index);
+            values[index] = low;
+            size++;
+            return this;
+        }
+
+        @Override
+        Container remove(char low) {
+            int index = Arrays.binarySearch(values, 0, size, low);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, size - index - 1);
+                size--;
+            }
+            return this;
+        }
+
+        @Override
+        int cardinality() {
+            return size;
+        }
+
+        @Override
+        int copyTo(int[] target, int position, int base) {
+            for (int i = 0; i < size; i++) {
+                target[position++] = base | values[i];
+            }
+            return position;
+        }
+
+        private BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < size; i++) {
+                bitmap.add(values[i]);
+            }
+            return bitmap;
+        }
+    }
+
+    /** Dense container: one bit for each of the 65536 low parts */
+    private static final class BitmapContainer extends Container {
+        private final long[] words = new long[1024];
+        private int size = 0;
+
+        @Override
+        boolean contains(char low) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override
+        Container add(char low) {
+            long before = words[low >>> 6];
+            words[low >>> 6] = before | (1L << low);
+            if (words[low >>> 6] != before) {
+                size++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char low) {
+            long before = words[low >>> 6];
+            words[low >>> 6] = before & ~(1L << low);
+            if (words[low >>> 6] != before) {
+                size--;
+            }
+            return size <= ARRAY_LIMIT ? toArrayContainer() : this;
+        }
+
+        @Override
+        int cardinality() {
+            return size;
+        }
+
+        @Override
+        int copyTo(int[] target, int position, int base) {
+            for (int word = 0; word < words.length; word++) {
+                long bits = words[word];
+                while (bits != 0) {
+                    int bit = Long.numberOfTrailingZeros(bits);
+                    target[position++] = base | (word << 6 | bit);
+                    bits &= bits - 1;
+                }
+            }
+            return position;
+        }
+
+        private ArrayContainer toArrayContainer() {
+            ArrayContainer array = new ArrayContainer();
+            for (int word = 0; word < words.length; word++) {
+                long bits = words[word];
+                while (bits != 0) {
+                    array.add((char) (word << 6 | Long.numberOfTrailingZeros(bits)));
+                    bits &= bits - 1;
+                }
+            }
+            return array;
+        }
+    }
+}